@@ -1,5 +1,6 @@
 import { useState, useEffect } from 'react';
 import { Loader2, Download, QrCode, X } from 'lucide-react';
+import { authorizedFetch } from '../services/api';
 
 /**
  * Shared Ticket Modal — shows QR code with authenticated fetch,
@@ -16,7 +17,6 @@ export default function TicketModal({ ticketCode, event, onClose }) {
   const [downloading, setDownloading] = useState(false);
   const [downloadError, setDownloadError] = useState('');
 
-  const token = localStorage.getItem('em_token');
   const qrUrl = `/api/tickets/${ticketCode}/qr`;
 
   /* Fetch QR with auth header → blob URL */
@@ -24,9 +24,7 @@ export default function TicketModal({ ticketCode, event, onClose }) {
     let cancelled = false;
     (async () => {
       try {
-        const res = await fetch(qrUrl, {
-          headers: token ? { Authorization: `Bearer ${token}` } : {},
-        });
+        const res = await authorizedFetch(qrUrl);
         if (!res.ok) throw new Error('not ready');
         const blob = await res.blob();
         if (!cancelled) setImgSrc(URL.createObjectURL(blob));
@@ -37,16 +35,14 @@ export default function TicketModal({ ticketCode, event, onClose }) {
     return () => {
       cancelled = true;
     };
-  }, [qrUrl, token]);
+  }, [qrUrl]);
 
   /* Download QR as PNG file */
   const handleDownload = async () => {
     setDownloading(true);
     setDownloadError('');
     try {
-      const res = await fetch(qrUrl, {
-        headers: token ? { Authorization: `Bearer ${token}` } : {},
-      });
+      const res = await authorizedFetch(qrUrl);
       if (!res.ok) {
         const err = new Error('Download failed');
         err.status = res.status;
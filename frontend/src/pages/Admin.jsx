@@ -27,6 +27,7 @@ import {
   promoteUser,
   demoteUser,
   getAdminEvents,
+  getEvent,
   createEvent,
   updateEvent,
   deleteEvent,
@@ -296,6 +297,18 @@ function EventsTab() {
     fetchEvents(page, statusFilter);
   };
 
+  // List rows only carry an excerpt; edit the full event so saving keeps the description
+  const openEditEvent = async (id) => {
+    setActionLoading(id);
+    try {
+      setEditingEvent(await getEvent(id));
+    } catch (err) {
+      alert(err.message || 'Failed to load event');
+    } finally {
+      setActionLoading(null);
+    }
+  };
+
   const handleEditEvent = async (data, bannerFile) => {
     await updateEvent(editingEvent.id, data);
     if (bannerFile) {
@@ -501,7 +514,7 @@ function EventsTab() {
                           {/* Edit - only DRAFT */}
                           {isDraft && (
                             <button
-                              onClick={() => setEditingEvent(ev)}
+                              onClick={() => openEditEvent(ev.id)}
                               title="Edit event"
                               className="p-1.5 border border-[#D1D5DB] text-[#9CA3AF] hover:text-bauhaus-fg hover:border-bauhaus-fg transition-colors cursor-pointer"
                             >
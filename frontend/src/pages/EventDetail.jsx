@@ -6,6 +6,8 @@ import {
   registerForEvent,
   cancelRegistration,
   getMyRegistrations,
+  joinWaitlist,
+  getWaitlistPosition,
 } from '../services/api';
 import {
   ArrowLeft,
@@ -79,6 +81,7 @@ export default function EventDetail() {
   const [event, setEvent] = useState(null);
   const [regStatus, setRegStatus] = useState(null); // { isRegistered, totalRegistrations }
   const [myReg, setMyReg] = useState(null); // user's registration for this event (if any)
+  const [waitlist, setWaitlist] = useState(null); // { registrationId, position, waitlistSize } if waitlisted
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
   const [actionLoading, setActionLoading] = useState(false);
@@ -195,9 +198,15 @@ export default function EventDetail() {
         } else {
           setMyReg(null);
         }
+
+        const position = status?.isWaitlisted
+          ? await getWaitlistPosition(id).catch(() => null)
+          : null;
+        setWaitlist(position);
       } else {
         setRegStatus(null);
         setMyReg(null);
+        setWaitlist(null);
       }
     } catch (err) {
       setError(err.message);
@@ -301,6 +310,44 @@ export default function EventDetail() {
     }
   };
 
+  const handleJoinWaitlist = async () => {
+    setActionLoading(true);
+    setActionMsg(null);
+    try {
+      await joinWaitlist(id);
+      const status = await getEventRegistrationStatus(id).catch(() => null);
+      setRegStatus(status);
+      if (status?.isRegistered) {
+        // A seat opened up while joining and the waitlist promoted us straight away
+        await fetchData();
+        setActionMsg({ type: 'success', text: 'A seat opened up — you are registered!' });
+      } else {
+        const position = await getWaitlistPosition(id).catch(() => null);
+        setWaitlist(position);
+        setActionMsg({ type: 'success', text: 'You joined the waitlist. We will email you if a seat opens up.' });
+      }
+    } catch (err) {
+      setActionMsg({ type: 'error', text: err.message });
+    } finally {
+      setActionLoading(false);
+    }
+  };
+
+  const handleLeaveWaitlist = async () => {
+    if (!waitlist?.registrationId) return;
+    setActionLoading(true);
+    setActionMsg(null);
+    try {
+      await cancelRegistration(waitlist.registrationId);
+      setWaitlist(null);
+      setActionMsg({ type: 'success', text: 'You left the waitlist.' });
+    } catch (err) {
+      setActionMsg({ type: 'error', text: err.message });
+    } finally {
+      setActionLoading(false);
+    }
+  };
+
   const handleCancel = async () => {
     if (!myReg?.id) return;
     setActionLoading(true);
@@ -607,10 +654,31 @@ export default function EventDetail() {
                     </button>
                   )}
 
-                  {canRegister && isFull && (
-                    <span className="flex items-center px-6 h-12 bg-bauhaus-fg/10 text-bauhaus-fg/60 text-sm font-bold uppercase tracking-wider">
-                      Sold Out
-                    </span>
+                  {canRegister && isFull && !waitlist && (
+                    <button
+                      onClick={handleJoinWaitlist}
+                      disabled={actionLoading}
+                      className="flex items-center gap-2 px-6 h-12 bg-bauhaus-fg text-white text-sm font-bold uppercase tracking-wider hover:bg-bauhaus-fg/80 disabled:opacity-50 transition-colors cursor-pointer"
+                    >
+                      {actionLoading ? <Loader2 className="w-4 h-4 animate-spin" /> : null}
+                      Sold Out · Join Waitlist
+                    </button>
+                  )}
+
+                  {canRegister && waitlist && (
+                    <>
+                      <span className="flex items-center px-6 h-12 bg-bauhaus-fg/10 text-bauhaus-fg text-sm font-bold uppercase tracking-wider">
+                        Waitlist #{waitlist.position} of {waitlist.waitlistSize}
+                      </span>
+                      <button
+                        onClick={handleLeaveWaitlist}
+                        disabled={actionLoading}
+                        className="flex items-center gap-2 px-6 h-12 bg-bauhaus-white/80 border border-[#1F2937]/30 text-sm font-bold text-bauhaus-red uppercase tracking-wider hover:bg-bauhaus-red/10 disabled:opacity-50 transition-colors cursor-pointer"
+                      >
+                        {actionLoading ? <Loader2 className="w-4 h-4 animate-spin" /> : null}
+                        Leave Waitlist
+                      </button>
+                    </>
                   )}
 
                   {canCancel && (
@@ -482,9 +482,9 @@ function EventCard({ event, liveRegistered, pulseSeats }) {
         </h3>
 
         {/* Description */}
-        {event.description && (
+        {event.excerpt && (
           <p className="text-sm text-[#6B7280] leading-relaxed mb-4 line-clamp-2">
-            {event.description}
+            {event.excerpt}
           </p>
         )}
 
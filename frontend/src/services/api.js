@@ -2,33 +2,104 @@ import { API_BASE_URL } from './urls';
 
 const API_BASE = API_BASE_URL;
 
+function storeSession(data) {
+  if (data.token) {
+    localStorage.setItem('em_token', data.token);
+    if (data.refreshToken) {
+      localStorage.setItem('em_refresh_token', data.refreshToken);
+    }
+    if (data.user) {
+      localStorage.setItem('em_user', JSON.stringify(data.user));
+    }
+  }
+}
+
+function clearSession() {
+  localStorage.removeItem('em_token');
+  localStorage.removeItem('em_refresh_token');
+  localStorage.removeItem('em_user');
+}
+
+let refreshing = null;
+
+// Tabs take turns refreshing where the browser supports Web Locks
+function withRefreshLock(task) {
+  return navigator.locks ? navigator.locks.request('em-refresh', task) : task();
+}
+
 /**
- * Core fetch wrapper with JWT injection and error handling.
+ * Swap the stored refresh token for a new token pair. Concurrent callers share one
+ * refresh, because a refresh token can only be used once. Across tabs the refresh is
+ * serialized, and a tab that waited reuses the pair the other tab stored.
+ * Resolves to false when the session can't be renewed.
  */
-async function request(endpoint, options = {}) {
-  const token = localStorage.getItem('em_token');
-  const headers = {
-    'Content-Type': 'application/json',
-    ...options.headers,
-  };
-
-  // Only attach token if we have one
-  if (token) {
-    headers['Authorization'] = `Bearer ${token}`;
+function refreshSession() {
+  if (!refreshing) {
+    const seen = localStorage.getItem('em_refresh_token');
+    refreshing = withRefreshLock(async () => {
+      const refreshToken = localStorage.getItem('em_refresh_token');
+      if (!refreshToken) return false;
+      if (refreshToken !== seen) return true;
+
+      const response = await fetch(`${API_BASE}/auth/refresh`, {
+        method: 'POST',
+        headers: { 'Content-Type': 'application/json' },
+        body: JSON.stringify({ refreshToken }),
+      });
+      if (!response.ok) return false;
+
+      storeSession(await response.json());
+      return true;
+    }).finally(() => {
+      refreshing = null;
+    });
   }
+  return refreshing;
+}
 
-  const response = await fetch(`${API_BASE}${endpoint}`, {
+/**
+ * fetch() with the access token attached. On 401 the session is refreshed once and
+ * the request retried; if that fails the user is sent to the login page.
+ */
+export async function authorizedFetch(url, options = {}) {
+  const send = (token) => fetch(url, {
     ...options,
-    headers,
+    headers: {
+      ...options.headers,
+      ...(token ? { Authorization: `Bearer ${token}` } : {}),
+    },
   });
 
-  // Handle 401 — but only redirect if user had a token (was logged in)
+  const token = localStorage.getItem('em_token');
+  let response = await send(token);
+
+  // Handle 401 — but only refresh/redirect if user had a token (was logged in)
   if (response.status === 401 && token) {
-    localStorage.removeItem('em_token');
-    localStorage.removeItem('em_user');
-    window.location.href = '/login';
-    throw new Error('Session expired');
+    // Another tab may have refreshed already
+    const renewed = localStorage.getItem('em_token') !== token || await refreshSession();
+    if (renewed) {
+      response = await send(localStorage.getItem('em_token'));
+    }
+    if (response.status === 401) {
+      clearSession();
+      window.location.href = '/login';
+      throw new Error('Session expired');
+    }
   }
+  return response;
+}
+
+/**
+ * Core fetch wrapper with JWT injection and error handling.
+ */
+async function request(endpoint, options = {}) {
+  const response = await authorizedFetch(`${API_BASE}${endpoint}`, {
+    ...options,
+    headers: {
+      'Content-Type': 'application/json',
+      ...options.headers,
+    },
+  });
 
   if (!response.ok) {
     const body = await response.json().catch(() => ({}));
@@ -56,11 +127,8 @@ export async function login(email, password) {
     method: 'POST',
     body: JSON.stringify({ email, password }),
   });
-  // Response shape: { message, user: { id, email, name, role, createdAt }, token }
-  if (data.token) {
-    localStorage.setItem('em_token', data.token);
-    localStorage.setItem('em_user', JSON.stringify(data.user));
-  }
+  // Response shape: { message, user: { id, email, name, role, createdAt }, token, refreshToken }
+  storeSession(data);
   return data;
 }
 
@@ -69,16 +137,24 @@ export async function register(email, password, name) {
     method: 'POST',
     body: JSON.stringify({ email, password, name }),
   });
-  if (data.token) {
-    localStorage.setItem('em_token', data.token);
-    localStorage.setItem('em_user', JSON.stringify(data.user));
-  }
+  storeSession(data);
   return data;
 }
 
 export function logout() {
-  localStorage.removeItem('em_token');
-  localStorage.removeItem('em_user');
+  const token = localStorage.getItem('em_token');
+  const refreshToken = localStorage.getItem('em_refresh_token');
+  clearSession();
+
+  // Best effort: end the session on the server too
+  fetch(`${API_BASE}/auth/logout`, {
+    method: 'POST',
+    headers: {
+      'Content-Type': 'application/json',
+      ...(token ? { Authorization: `Bearer ${token}` } : {}),
+    },
+    body: JSON.stringify({ refreshToken }),
+  }).catch(() => {});
 }
 
 export async function googleLogin(credential) {
@@ -86,10 +162,7 @@ export async function googleLogin(credential) {
     method: 'POST',
     body: JSON.stringify({ credential }),
   });
-  if (data.token) {
-    localStorage.setItem('em_token', data.token);
-    localStorage.setItem('em_user', JSON.stringify(data.user));
-  }
+  storeSession(data);
   return data;
 }
 
@@ -188,13 +261,11 @@ export async function completeEvent(id) {
 }
 
 export async function uploadEventBanner(eventId, file) {
-  const token = localStorage.getItem('em_token');
   const formData = new FormData();
   formData.append('file', file);
 
-  const response = await fetch(`${API_BASE}/events/${eventId}/banner`, {
+  const response = await authorizedFetch(`${API_BASE}/events/${eventId}/banner`, {
     method: 'POST',
-    headers: { Authorization: `Bearer ${token}` },
     body: formData,
   });
 
@@ -210,7 +281,37 @@ export async function uploadEventBanner(eventId, file) {
 /* ── Registrations ── */
 
 export async function registerForEvent(eventId) {
-  return request(`/events/${eventId}/register`, { method: 'POST' });
+  const result = await request(`/events/${eventId}/register`, { method: 'POST' });
+  // Queued (flash-sale) events accept an attempt with 202 and settle it in the background
+  if (result && result.attemptId) {
+    return waitForRegistrationAttempt(result.attemptId);
+  }
+  return result;
+}
+
+export async function getRegistrationAttempt(attemptId) {
+  return request(`/registrations/attempts/${attemptId}`);
+}
+
+/**
+ * Poll a queued registration attempt until it settles.
+ * Resolves with the registration, or throws with the rejection reason.
+ */
+async function waitForRegistrationAttempt(attemptId, timeoutMs = 60000) {
+  const deadline = Date.now() + timeoutMs;
+  let delay = 500;
+  while (Date.now() < deadline) {
+    await new Promise((resolve) => setTimeout(resolve, delay));
+    const attempt = await getRegistrationAttempt(attemptId);
+    if (attempt.status === 'CONFIRMED') {
+      return getRegistration(attempt.registrationId);
+    }
+    if (attempt.status === 'REJECTED') {
+      throw new Error(attempt.reason || 'Registration was not successful');
+    }
+    delay = Math.min(delay * 2, 4000);
+  }
+  throw new Error('Registration is still being processed. Check My Registrations shortly.');
 }
 
 export async function cancelRegistration(registrationId) {
@@ -235,6 +336,14 @@ export async function getEventRegistrationStatus(eventId) {
   return request(`/events/${eventId}/registration-status`);
 }
 
+export async function joinWaitlist(eventId) {
+  return request(`/events/${eventId}/waitlist`, { method: 'POST' });
+}
+
+export async function getWaitlistPosition(eventId) {
+  return request(`/events/${eventId}/waitlist/position`);
+}
+
 export async function getEventRegistrations(eventId, page = 0, size = 10) {
   return request(`/events/${eventId}/registrations?page=${page}&size=${size}`);
 }
@@ -260,17 +369,18 @@ export async function updateProfile(data) {
 }
 
 export async function changePassword(data) {
-  return request('/users/me/password', { method: 'PUT', body: JSON.stringify(data) });
+  const response = await request('/users/me/password', { method: 'PUT', body: JSON.stringify(data) });
+  // Changing the password revokes older tokens; keep this session on the new ones
+  storeSession(response);
+  return response;
 }
 
 export async function uploadAvatar(file) {
-  const token = localStorage.getItem('em_token');
   const formData = new FormData();
   formData.append('file', file);
 
-  const response = await fetch(`${API_BASE}/users/me/avatar`, {
+  const response = await authorizedFetch(`${API_BASE}/users/me/avatar`, {
     method: 'POST',
-    headers: { Authorization: `Bearer ${token}` },
     body: formData,
   });
 
@@ -0,0 +1,33 @@
+package com.emconnect.api.config;
+
+import com.emconnect.api.entity.Role;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * The caller of an authenticated request, built from verified JWT claims only.
+ *
+ * Controllers receive it with @AuthenticationPrincipal and pass the id to services,
+ * so no user row is loaded just to find out who is calling. getName() returns the
+ * email, which keeps authentication.getName() working as before. tokenId is the
+ * token's jti, used to revoke that one token on logout.
+ */
+public record AuthenticatedUser(Long id, String email, Role role, int tokenVersion, String tokenId)
+        implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    public boolean isAdmin() {
+        return role == Role.ADMIN;
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+}
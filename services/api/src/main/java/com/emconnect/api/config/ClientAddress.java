@@ -0,0 +1,28 @@
+package com.emconnect.api.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Resolves the client IP of a request behind the reverse proxy.
+ *
+ * X-Forwarded-For is handled by the servlet container (server.forward-headers-strategy:
+ * native): it reads the header from the right and skips only trusted proxies
+ * (server.tomcat.remoteip.internal-proxies), so the remote address is the first hop
+ * the client could not forge. Safe to key rate limits on; the raw headers are not.
+ */
+public final class ClientAddress {
+
+    private static final int MAX_LENGTH = 64;
+
+    private ClientAddress() {
+    }
+
+    public static String resolve(HttpServletRequest request) {
+        return truncate(request.getRemoteAddr());
+    }
+
+    private static String truncate(String value) {
+        if (value == null) return null;
+        return value.length() <= MAX_LENGTH ? value : value.substring(0, MAX_LENGTH);
+    }
+}
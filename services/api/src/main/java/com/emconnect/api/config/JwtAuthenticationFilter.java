@@ -1,14 +1,16 @@
 package com.emconnect.api.config;
 
-import com.emconnect.api.service.CustomUserDetailsService;
 import com.emconnect.api.service.JwtService;
+import com.emconnect.api.service.RevokedTokenRegistry;
+import com.emconnect.api.service.TokenVersionRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -20,13 +22,18 @@ import org.springframework.lang.NonNull;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
     private final JwtService jwtService;
-    private final CustomUserDetailsService userDetailsService;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final RevokedTokenRegistry revokedTokenRegistry;
 
-    public JwtAuthenticationFilter(JwtService jwtService, 
-                                   CustomUserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtService jwtService,
+                                   TokenVersionRegistry tokenVersionRegistry,
+                                   RevokedTokenRegistry revokedTokenRegistry) {
         this.jwtService = jwtService;
-        this.userDetailsService = userDetailsService;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.revokedTokenRegistry = revokedTokenRegistry;
     }
 
     @Override
@@ -41,31 +48,33 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // Extract JWT from request header
             String jwt = getJwtFromRequest(request);
 
-            // If JWT exists and is valid
-            if (StringUtils.hasText(jwt) && jwtService.validateToken(jwt)) {
-                // Get user ID from token
-                Long userId = jwtService.getUserIdFromToken(jwt);
-
-                // Load user details
-                UserDetails userDetails = userDetailsService.loadUserById(userId);
-
-                // Create authentication object
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails,
-                                null,
-                                userDetails.getAuthorities()
-                        );
-
-                authentication.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request)
-                );
-
-                // Set authentication in security context
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+            if (StringUtils.hasText(jwt)) {
+                // Verify once and take identity and role from the claims (no user lookup)
+                AuthenticatedUser user = jwtService.parseAuthenticatedUser(jwt);
+
+                // Tokens issued before a role or password change, or signed out, are revoked
+                if (tokenVersionRegistry.isCurrent(user.id(), user.tokenVersion())
+                        && !revokedTokenRegistry.isRevoked(user.tokenId())) {
+                    // Create authentication object
+                    UsernamePasswordAuthenticationToken authentication =
+                            new UsernamePasswordAuthenticationToken(
+                                    user,
+                                    null,
+                                    user.getAuthorities()
+                            );
+
+                    authentication.setDetails(
+                            new WebAuthenticationDetailsSource().buildDetails(request)
+                    );
+
+                    // Set authentication in security context
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                } else {
+                    logger.debug("Rejected revoked token for user {}", user.id());
+                }
             }
         } catch (Exception ex) {
-            System.err.println("Could not set user authentication: " + ex.getMessage());
+            logger.debug("Could not set user authentication: {}", ex.getMessage());
         }
 
         // Continue with the filter chain
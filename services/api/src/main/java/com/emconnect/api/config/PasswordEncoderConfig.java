@@ -0,0 +1,75 @@
+package com.emconnect.api.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+
+/**
+ * Password encoder with a BCrypt cost calibrated to this machine.
+ *
+ * At startup one hash is timed at the minimum cost, and the highest cost whose
+ * estimated time stays within password-hashing.target-ms is used (each step doubles
+ * the work). New hashes are stored as {bcrypt}$2a$..; hashes without a prefix, like
+ * the seeded admin and every account created before this, are still matched as
+ * BCrypt and report upgradeEncoding() so login rewrites them.
+ */
+@Configuration
+public class PasswordEncoderConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordEncoderConfig.class);
+
+    private static final String ENCODING_ID = "bcrypt";
+    private static final String SAMPLE_PASSWORD = "calibration-sample-password";
+
+    private final long targetMs;
+    private final int minStrength;
+    private final int maxStrength;
+
+    public PasswordEncoderConfig(@Value("${password-hashing.target-ms:250}") long targetMs,
+                                 @Value("${password-hashing.min-strength:10}") int minStrength,
+                                 @Value("${password-hashing.max-strength:14}") int maxStrength) {
+        this.targetMs = targetMs;
+        this.minStrength = minStrength;
+        this.maxStrength = maxStrength;
+    }
+
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        int strength = calibrateStrength();
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(
+                ENCODING_ID, Map.of(ENCODING_ID, new BCryptPasswordEncoder(strength)));
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return encoder;
+    }
+
+    private int calibrateStrength() {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        probe.encode(SAMPLE_PASSWORD); // warm up
+
+        // Best of three, so a GC pause or noisy neighbour doesn't push the cost down
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long started = System.nanoTime();
+            probe.encode(SAMPLE_PASSWORD);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - started);
+        }
+
+        double estimatedMs = bestNanos / 1_000_000.0;
+        int strength = minStrength;
+        while (strength < maxStrength && estimatedMs * 2 <= targetMs) {
+            estimatedMs *= 2;
+            strength++;
+        }
+
+        logger.info("BCrypt cost calibrated to {} (~{} ms per hash, target {} ms)",
+                strength, Math.round(estimatedMs), targetMs);
+        return strength;
+    }
+}
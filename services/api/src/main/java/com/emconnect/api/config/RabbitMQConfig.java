@@ -15,6 +15,7 @@ import org.springframework.context.annotation.Configuration;
  * - Exchange: em.events (topic)
  * - Queues: notification.queue, ticket.queue, websocket.queue
  * - Dead Letter: em.events.dlx → em.events.dlq
+ * - User cache invalidation: em.users.cache (fanout) → one anonymous queue per API instance
  */
 @Configuration
 public class RabbitMQConfig {
@@ -22,6 +23,7 @@ public class RabbitMQConfig {
     // ==================== Exchange Names ====================
     public static final String EVENTS_EXCHANGE = "em.events";
     public static final String DEAD_LETTER_EXCHANGE = "em.events.dlx";
+    public static final String USER_CACHE_EXCHANGE = "em.users.cache";
 
     // ==================== Queue Names ====================
     public static final String NOTIFICATION_QUEUE = "notification.queue";
@@ -65,6 +67,14 @@ public class RabbitMQConfig {
                 .build();
     }
 
+    @Bean
+    public FanoutExchange userCacheExchange() {
+        return ExchangeBuilder
+                .fanoutExchange(USER_CACHE_EXCHANGE)
+                .durable(true)
+                .build();
+    }
+
     // ==================== Queues ====================
 
     @Bean
@@ -98,6 +108,13 @@ public class RabbitMQConfig {
                 .build();
     }
 
+    // Exclusive, auto-delete queue for this instance's UserCache; invalidations
+    // sent while an instance is down are not needed after it restarts
+    @Bean
+    public Queue userCacheQueue() {
+        return new AnonymousQueue();
+    }
+
     // ==================== Bindings ====================
 
     // Notification queue gets ALL registration and event messages
@@ -161,6 +178,13 @@ public class RabbitMQConfig {
                 .with("#"); // Catch all
     }
 
+    @Bean
+    public Binding userCacheBinding() {
+        return BindingBuilder
+                .bind(userCacheQueue())
+                .to(userCacheExchange());
+    }
+
     // ==================== Message Converter ====================
 
     /**
@@ -175,7 +199,7 @@ public class RabbitMQConfig {
     }
 
     /**
-     * Configure RabbitTemplate with JSON converter.
+     * Configure RabbitTemplate with JSON converter and mandatory publishing.
      */
     @Bean
     public RabbitTemplate rabbitTemplate(
@@ -185,11 +209,9 @@ public class RabbitMQConfig {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
         template.setMessageConverter(messageConverter);
 
-        template.setConfirmCallback((correlationData, ack, cause) -> {
-            if (!ack) {
-                System.err.println("Message delivery failed: " + cause);
-            }
-        });
+        // Unroutable messages come back as returns; confirm and returns
+        // callbacks are registered by EventPublisher
+        template.setMandatory(true);
 
         return template;
     }
@@ -1,6 +1,9 @@
 package com.emconnect.api.config;
 
+import com.emconnect.api.ratelimit.RateLimitFilter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.http.HttpStatus;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -10,9 +13,8 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -27,21 +29,19 @@ import java.util.List;
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final RateLimitFilter rateLimitFilter;
     private final String corsAllowedOrigins;
 
     public SecurityConfig(
             JwtAuthenticationFilter jwtAuthenticationFilter,
+            RateLimitFilter rateLimitFilter,
             @Value("${CORS_ALLOWED_ORIGINS:http://localhost:3000,http://localhost:5173}") String corsAllowedOrigins
     ) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.rateLimitFilter = rateLimitFilter;
         this.corsAllowedOrigins = corsAllowedOrigins;
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-
     @Bean
     public AuthenticationManager authenticationManager(
             AuthenticationConfiguration authConfig) throws Exception {
@@ -59,6 +59,11 @@ public class SecurityConfig {
             .sessionManagement(session -> 
                 session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             )
+
+            // Missing, expired or revoked tokens get 401 (not 403), so clients know to refresh
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
+            )
             
             // Configure authorization rules
             .authorizeHttpRequests(auth -> auth
@@ -68,14 +73,18 @@ public class SecurityConfig {
                     "/api/health",       // Health check
                     "/api/ping",         // Ping
                     "/actuator/**",      // Actuator endpoints
-                    "/api/test/**"       // Test endpoints (remove in production!)
+                    "/api/test/**",      // Test endpoints (remove in production!)
+                    "/.well-known/jwks.json" // Token verification keys
                 ).permitAll()
                 
                 // Public event endpoints (GET only)
                 .requestMatchers("GET", "/api/events").permitAll()
                 .requestMatchers("GET", "/api/events/search").permitAll()
+                .requestMatchers("GET", "/api/events/scroll").permitAll()
                 .requestMatchers("GET", "/api/events/categories").permitAll()
                 .requestMatchers("GET", "/api/events/categories/active").permitAll()
+                .requestMatchers("GET", "/api/events/tags").permitAll()
+                .requestMatchers("GET", "/api/events/suggest").permitAll()
                 .requestMatchers("GET", "/api/events/{id}").permitAll()
                 
                 // Public ticket validation endpoint (for event check-in)
@@ -96,11 +105,25 @@ public class SecurityConfig {
             .addFilterBefore(
                 jwtAuthenticationFilter,
                 UsernamePasswordAuthenticationFilter.class
+            )
+
+            // Rate limit after authentication so per-user limits know the caller
+            .addFilterAfter(
+                rateLimitFilter,
+                JwtAuthenticationFilter.class
             );
 
         return http.build();
     }
 
+    // Only run the rate limiter inside the security chain, not also as a servlet filter
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration() {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration config = new CorsConfiguration();
@@ -1,20 +1,25 @@
 package com.emconnect.api.controller;
 
-import com.emconnect.api.dto.EventResponse;
+import com.emconnect.api.dto.CursorPageResponse;
+import com.emconnect.api.dto.EventSummaryResponse;
+import com.emconnect.api.dto.PageCursor;
 import com.emconnect.api.dto.UserResponse;
-import com.emconnect.api.entity.Event;
 import com.emconnect.api.entity.EventStatus;
 import com.emconnect.api.entity.RegistrationStatus;
 import com.emconnect.api.entity.Role;
 import com.emconnect.api.entity.User;
 import com.emconnect.api.repository.EventRepository;
+import com.emconnect.api.repository.EventRepository.EventSummary;
 import com.emconnect.api.repository.RegistrationRepository;
 import com.emconnect.api.repository.UserRepository;
+import com.emconnect.api.service.TokenVersionRegistry;
+import com.emconnect.api.service.UserCache;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -32,13 +37,19 @@ public class AdminController {
     private final UserRepository userRepository;
     private final EventRepository eventRepository;
     private final RegistrationRepository registrationRepository;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final UserCache userCache;
 
     public AdminController(UserRepository userRepository,
                            EventRepository eventRepository,
-                           RegistrationRepository registrationRepository) {
+                           RegistrationRepository registrationRepository,
+                           TokenVersionRegistry tokenVersionRegistry,
+                           UserCache userCache) {
         this.userRepository = userRepository;
         this.eventRepository = eventRepository;
         this.registrationRepository = registrationRepository;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.userCache = userCache;
     }
 
     // Get all users (Admin only)
@@ -69,33 +80,52 @@ public class AdminController {
 
     // Get ALL events regardless of status (Admin only)
     @GetMapping("/events")
-    public ResponseEntity<Page<EventResponse>> getAllEvents(
+    public ResponseEntity<Page<EventSummaryResponse>> getAllEvents(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(required = false) String status) {
 
-        Page<Event> events;
-        PageRequest pageRequest = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
+        EventStatus eventStatus = status != null && !status.isEmpty()
+                ? EventStatus.valueOf(status.toUpperCase())
+                : null;
+        Page<EventSummary> events = eventRepository.findAllSummaries(eventStatus, PageRequest.of(page, size));
 
-        if (status != null && !status.isEmpty()) {
-            events = eventRepository.findByStatus(EventStatus.valueOf(status.toUpperCase()), pageRequest);
-        } else {
-            events = eventRepository.findAll(pageRequest);
-        }
-
-        Page<EventResponse> response = events.map(EventResponse::new);
+        Page<EventSummaryResponse> response = events.map(EventSummaryResponse::new);
         return ResponseEntity.ok(response);
     }
 
+    // Cursor-paged ALL events, newest first, without the count query (Admin only)
+    @GetMapping("/events/scroll")
+    public ResponseEntity<CursorPageResponse<EventSummaryResponse>> scrollAllEvents(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String status) {
+
+        EventStatus eventStatus = status != null && !status.isEmpty()
+                ? EventStatus.valueOf(status.toUpperCase())
+                : null;
+        PageCursor before = PageCursor.decode(cursor, PageCursor.FIRST_DESCENDING);
+        Slice<EventSummary> events = eventRepository.findAllSummariesBeforeCursor(
+                eventStatus, before.at(), before.id(), PageCursor.limit(size));
+        return ResponseEntity.ok(CursorPageResponse.of(events, EventSummaryResponse::new,
+                e -> new PageCursor(e.getCreatedAt(), e.getId())));
+    }
+
     // Promote user to admin (Admin only, using method-level security)
     @PreAuthorize("hasRole('ADMIN')")
     @PutMapping("/users/{id}/promote")
+    @Transactional
     public ResponseEntity<UserResponse> promoteToAdmin(@PathVariable Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        user.setRole(Role.ADMIN);
+        // Tokens carry the role, so old ones must stop working
+        if (user.getRole() != Role.ADMIN) {
+            user.setRole(Role.ADMIN);
+            tokenVersionRegistry.revokeTokens(user);
+        }
         User savedUser = userRepository.save(user);
+        userCache.evict(savedUser);
         
         return ResponseEntity.ok(new UserResponse(savedUser));
     }
@@ -103,12 +133,17 @@ public class AdminController {
     // Demote admin to user (Admin only)
     @PreAuthorize("hasRole('ADMIN')")
     @PutMapping("/users/{id}/demote")
+    @Transactional
     public ResponseEntity<UserResponse> demoteToUser(@PathVariable Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        user.setRole(Role.USER);
+        if (user.getRole() != Role.USER) {
+            user.setRole(Role.USER);
+            tokenVersionRegistry.revokeTokens(user);
+        }
         User savedUser = userRepository.save(user);
+        userCache.evict(savedUser);
         
         return ResponseEntity.ok(new UserResponse(savedUser));
     }
@@ -1,5 +1,7 @@
 package com.emconnect.api.controller;
 
+import com.emconnect.api.config.AuthenticatedUser;
+import com.emconnect.api.config.ClientAddress;
 import com.emconnect.api.dto.*;
 import com.emconnect.api.service.AuthService;
 import com.emconnect.api.service.PasswordResetService;
@@ -7,6 +9,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -41,7 +44,7 @@ public class AuthController {
         
         AuthResponse response = authService.login(
                 request,
-                resolveClientIp(httpRequest),
+                ClientAddress.resolve(httpRequest),
                 sanitizeUserAgent(httpRequest.getHeader("User-Agent"))
         );
         return ResponseEntity.ok(response);
@@ -54,24 +57,27 @@ public class AuthController {
 
         AuthResponse response = authService.googleLogin(
                 request.getCredential(),
-                resolveClientIp(httpRequest),
+                ClientAddress.resolve(httpRequest),
                 sanitizeUserAgent(httpRequest.getHeader("User-Agent"))
         );
         return ResponseEntity.ok(response);
     }
 
-    private String resolveClientIp(HttpServletRequest request) {
-        String forwarded = request.getHeader("X-Forwarded-For");
-        if (forwarded != null && !forwarded.isBlank()) {
-            return truncate(forwarded.split(",")[0].trim(), 64);
-        }
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(
+            @Valid @RequestBody RefreshTokenRequest request) {
 
-        String realIp = request.getHeader("X-Real-IP");
-        if (realIp != null && !realIp.isBlank()) {
-            return truncate(realIp.trim(), 64);
-        }
+        return ResponseEntity.ok(authService.refresh(request.getRefreshToken()));
+    }
+
+    // Public so an expired access token can still sign out its refresh token
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @RequestBody(required = false) RefreshTokenRequest request,
+            @AuthenticationPrincipal AuthenticatedUser user) {
 
-        return truncate(request.getRemoteAddr(), 64);
+        authService.logout(request != null ? request.getRefreshToken() : null, user);
+        return ResponseEntity.noContent().build();
     }
 
     private String sanitizeUserAgent(String userAgent) {
@@ -1,18 +1,27 @@
 package com.emconnect.api.controller;
 
+import com.emconnect.api.config.AuthenticatedUser;
 import com.emconnect.api.dto.CreateEventRequest;
+import com.emconnect.api.dto.CursorPageResponse;
 import com.emconnect.api.dto.EventResponse;
+import com.emconnect.api.dto.EventSuggestionResponse;
+import com.emconnect.api.dto.EventSummaryResponse;
+import com.emconnect.api.dto.PageCursor;
+import com.emconnect.api.dto.TagCountResponse;
 import com.emconnect.api.dto.UpdateEventRequest;
 import com.emconnect.api.entity.Event;
 import com.emconnect.api.entity.EventCategory;
+import com.emconnect.api.repository.EventRepository.EventSummary;
+import com.emconnect.api.service.EventCatalogIndex;
 import com.emconnect.api.service.EventService;
 import jakarta.validation.Valid;
 import org.springframework.core.io.UrlResource;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -30,18 +39,20 @@ import java.util.stream.Collectors;
 public class EventController {
 
     private final EventService eventService;
+    private final EventCatalogIndex catalogIndex;
 
-    public EventController(EventService eventService) {
+    public EventController(EventService eventService, EventCatalogIndex catalogIndex) {
         this.eventService = eventService;
+        this.catalogIndex = catalogIndex;
     }
 
     // Create event (requires authentication)
     @PostMapping
     public ResponseEntity<EventResponse> createEvent(
             @Valid @RequestBody CreateEventRequest request,
-            Authentication authentication) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         
-        Event event = eventService.createEvent(request, authentication.getName());
+        Event event = eventService.createEvent(request, user.email());
         return ResponseEntity.status(HttpStatus.CREATED).body(new EventResponse(event));
     }
 
@@ -54,38 +65,53 @@ public class EventController {
 
     // Get all published events (public endpoint)
     @GetMapping
-    public ResponseEntity<Page<EventResponse>> getPublishedEvents(
+    public ResponseEntity<Page<EventSummaryResponse>> getPublishedEvents(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         
-        Page<Event> events = eventService.getPublishedEvents(page, size);
-        Page<EventResponse> response = events.map(EventResponse::new);
+        Page<EventSummary> events = eventService.getPublishedEvents(page, size);
+        Page<EventSummaryResponse> response = events.map(EventSummaryResponse::new);
         return ResponseEntity.ok(response);
     }
 
+    // Cursor-paged published events by start date; pass nextCursor back as cursor for the next page
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageResponse<EventSummaryResponse>> scrollPublishedEvents(
+            @RequestParam(defaultValue = "false") boolean upcoming,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+
+        PageCursor after = PageCursor.decode(cursor, PageCursor.FIRST_ASCENDING);
+        Slice<EventSummary> events = eventService.scrollPublishedEvents(upcoming, after, size);
+        return ResponseEntity.ok(CursorPageResponse.of(events, EventSummaryResponse::new,
+                e -> new PageCursor(e.getStartDate(), e.getId())));
+    }
+
     // Get my events (organizer's events)
     @GetMapping("/my-events")
-    public ResponseEntity<Page<EventResponse>> getMyEvents(
+    public ResponseEntity<Page<EventSummaryResponse>> getMyEvents(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            Authentication authentication) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         
-        Page<Event> events = eventService.getEventsByOrganizer(authentication.getName(), page, size);
-        Page<EventResponse> response = events.map(EventResponse::new);
+        Page<EventSummary> events = eventService.getEventsByOrganizer(user.id(), page, size);
+        Page<EventSummaryResponse> response = events.map(EventSummaryResponse::new);
         return ResponseEntity.ok(response);
     }
 
-    // Search events with optional category and tag filters
+    // Search events with optional category and tag filters (mode: auto, full-text or fuzzy)
     @GetMapping("/search")
-    public ResponseEntity<Page<EventResponse>> searchEvents(
+    public ResponseEntity<Page<EventSummaryResponse>> searchEvents(
             @RequestParam(defaultValue = "") String keyword,
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String tag,
+            @RequestParam(defaultValue = "auto") String mode,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         
-        Page<Event> events = eventService.searchEvents(keyword, category, tag, page, size);
-        Page<EventResponse> response = events.map(EventResponse::new);
+        EventService.SearchMode searchMode = EventService.SearchMode.valueOf(mode.toUpperCase().replace('-', '_'));
+        Page<EventSummary> events = eventService.searchEvents(keyword, category, tag, searchMode, page, size);
+        Page<EventSummaryResponse> response = events.map(EventSummaryResponse::new);
         return ResponseEntity.ok(response);
     }
 
@@ -107,14 +133,31 @@ public class EventController {
         return ResponseEntity.ok(active);
     }
 
+    // Search-as-you-type over published events, served from the in-memory index
+    @GetMapping("/suggest")
+    public ResponseEntity<EventSuggestionResponse> suggest(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(new EventSuggestionResponse(catalogIndex.suggest(q, limit)));
+    }
+
+    // Tags on published events with their event counts, most used first
+    @GetMapping("/tags")
+    public ResponseEntity<List<TagCountResponse>> getTags(@RequestParam(defaultValue = "50") int limit) {
+        List<TagCountResponse> tags = eventService.getTagCounts(limit).stream()
+                .map(TagCountResponse::new)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(tags);
+    }
+
     // Update event
     @PutMapping("/{id}")
     public ResponseEntity<EventResponse> updateEvent(
             @PathVariable Long id,
             @Valid @RequestBody UpdateEventRequest request,
-            Authentication authentication) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         
-        Event event = eventService.updateEvent(id, request, authentication.getName());
+        Event event = eventService.updateEvent(id, request, user.id());
         return ResponseEntity.ok(new EventResponse(event));
     }
 
@@ -122,9 +165,9 @@ public class EventController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Map<String, String>> deleteEvent(
             @PathVariable Long id,
-            Authentication authentication) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         
-        eventService.deleteEvent(id, authentication.getName());
+        eventService.deleteEvent(id, user.id());
         
         Map<String, String> response = new HashMap<>();
         response.put("message", "Event deleted successfully");
@@ -135,9 +178,9 @@ public class EventController {
     @PostMapping("/{id}/publish")
     public ResponseEntity<EventResponse> publishEvent(
             @PathVariable Long id,
-            Authentication authentication) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         
-        Event event = eventService.publishEvent(id, authentication.getName());
+        Event event = eventService.publishEvent(id, user.id());
         return ResponseEntity.ok(new EventResponse(event));
     }
 
@@ -145,9 +188,9 @@ public class EventController {
     @PostMapping("/{id}/cancel")
     public ResponseEntity<EventResponse> cancelEvent(
             @PathVariable Long id,
-            Authentication authentication) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         
-        Event event = eventService.cancelEvent(id, authentication.getName());
+        Event event = eventService.cancelEvent(id, user.id());
         return ResponseEntity.ok(new EventResponse(event));
     }
 
@@ -155,17 +198,18 @@ public class EventController {
     @PostMapping("/{id}/complete")
     public ResponseEntity<EventResponse> completeEvent(
             @PathVariable Long id,
-            Authentication authentication) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         
-        Event event = eventService.completeEvent(id, authentication.getName());
+        Event event = eventService.completeEvent(id, user.id());
         return ResponseEntity.ok(new EventResponse(event));
     }
 
     // Get participant count for an event
     @GetMapping("/{id}/participants/count")
     public ResponseEntity<Map<String, Object>> getParticipantCount(@PathVariable Long id) {
+        // Single read: confirmed_count is maintained on the event row
         Event event = eventService.getEventById(id);
-        long count = eventService.getParticipantCount(id);
+        long count = event.getConfirmedCount();
 
         Map<String, Object> response = new HashMap<>();
         response.put("eventId", id);
@@ -180,9 +224,9 @@ public class EventController {
     public ResponseEntity<EventResponse> uploadBanner(
             @PathVariable Long id,
             @RequestParam("file") MultipartFile file,
-            Authentication authentication) throws IOException {
+            @AuthenticationPrincipal AuthenticatedUser user) throws IOException {
         
-        Event event = eventService.uploadBanner(id, authentication.getName(), file);
+        Event event = eventService.uploadBanner(id, user.id(), file);
         return ResponseEntity.ok(new EventResponse(event));
     }
 
@@ -0,0 +1,47 @@
+package com.emconnect.api.controller;
+
+import com.emconnect.api.service.SigningKeyRegistry;
+import io.jsonwebtoken.security.Jwks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.security.interfaces.ECPublicKey;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes the public keys that verify the API's access tokens, so other services
+ * can check tokens locally. Responses may be cached for jwt.signing.jwks-max-age-seconds;
+ * keys are published well before they start signing.
+ */
+@RestController
+public class JwksController {
+
+    private final SigningKeyRegistry signingKeys;
+    private final CacheControl cacheControl;
+
+    public JwksController(SigningKeyRegistry signingKeys,
+                          @Value("${jwt.signing.jwks-max-age-seconds:300}") long maxAgeSeconds) {
+        this.signingKeys = signingKeys;
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic();
+    }
+
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        List<Map<String, ?>> keys = signingKeys.published().stream()
+                .<Map<String, ?>>map(key -> Jwks.builder()
+                        .key((ECPublicKey) key.publicKey())
+                        .id(key.kid())
+                        .algorithm("ES256")
+                        .publicKeyUse("sig")
+                        .build())
+                .toList();
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .body(Map.of("keys", keys));
+    }
+}
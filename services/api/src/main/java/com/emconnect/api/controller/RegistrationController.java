@@ -1,46 +1,129 @@
 package com.emconnect.api.controller;
 
+import com.emconnect.api.config.AuthenticatedUser;
+import com.emconnect.api.dto.CursorPageResponse;
+import com.emconnect.api.dto.PageCursor;
+import com.emconnect.api.dto.RegistrationAttemptResponse;
 import com.emconnect.api.dto.RegistrationResponse;
 import com.emconnect.api.entity.Registration;
+import com.emconnect.api.entity.RegistrationAttempt;
 import com.emconnect.api.entity.RegistrationStatus;
+import com.emconnect.api.service.RegistrationAttemptService;
 import com.emconnect.api.service.RegistrationService;
+import com.emconnect.api.service.WaitlistService;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api")
 public class RegistrationController {
 
     private final RegistrationService registrationService;
+    private final RegistrationAttemptService registrationAttemptService;
+    private final WaitlistService waitlistService;
 
-    public RegistrationController(RegistrationService registrationService) {
+    public RegistrationController(RegistrationService registrationService,
+                                  RegistrationAttemptService registrationAttemptService,
+                                  WaitlistService waitlistService) {
         this.registrationService = registrationService;
+        this.registrationAttemptService = registrationAttemptService;
+        this.waitlistService = waitlistService;
     }
 
     /**
      * Register for an event
      * POST /api/events/{eventId}/register
+     * Events in QUEUED mode return 202 with an attempt to poll instead of 201.
      */
     @PostMapping("/events/{eventId}/register")
-    public ResponseEntity<RegistrationResponse> registerForEvent(
+    public ResponseEntity<?> registerForEvent(
             @PathVariable Long eventId,
-            Authentication authentication) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
+
+        if (registrationAttemptService.isQueued(eventId)) {
+            RegistrationAttempt attempt = registrationAttemptService.submit(
+                eventId,
+                user.id()
+            );
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/registrations/attempts/" + attempt.getAttemptId()))
+                    .body(new RegistrationAttemptResponse(attempt));
+        }
         
         Registration registration = registrationService.registerForEvent(
             eventId, 
-            authentication.getName()
+            user.email()
         );
         
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(new RegistrationResponse(registration));
     }
 
+    /**
+     * Join the waitlist of a full event
+     * POST /api/events/{eventId}/waitlist
+     */
+    @PostMapping("/events/{eventId}/waitlist")
+    public ResponseEntity<RegistrationResponse> joinWaitlist(
+            @PathVariable Long eventId,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+
+        Registration registration = waitlistService.joinWaitlist(
+            eventId,
+            user.email()
+        );
+
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(new RegistrationResponse(registration));
+    }
+
+    /**
+     * Get my position on an event's waitlist
+     * GET /api/events/{eventId}/waitlist/position
+     */
+    @GetMapping("/events/{eventId}/waitlist/position")
+    public ResponseEntity<Map<String, Object>> getWaitlistPosition(
+            @PathVariable Long eventId,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+
+        WaitlistService.WaitlistPosition position = waitlistService.getWaitlistPosition(
+            eventId,
+            user.id()
+        );
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("registrationId", position.registrationId());
+        response.put("position", position.position());
+        response.put("waitlistSize", position.waitlistSize());
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get the status of a queued registration attempt
+     * GET /api/registrations/attempts/{attemptId}
+     */
+    @GetMapping("/registrations/attempts/{attemptId}")
+    public ResponseEntity<RegistrationAttemptResponse> getRegistrationAttempt(
+            @PathVariable UUID attemptId,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+
+        RegistrationAttempt attempt = registrationAttemptService.getAttempt(
+            attemptId,
+            user.id()
+        );
+        return ResponseEntity.ok(new RegistrationAttemptResponse(attempt));
+    }
+
     /**
      * Cancel a registration
      * POST /api/registrations/{id}/cancel
@@ -48,11 +131,11 @@ public class RegistrationController {
     @PostMapping("/registrations/{id}/cancel")
     public ResponseEntity<RegistrationResponse> cancelRegistration(
             @PathVariable Long id,
-            Authentication authentication) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         
         Registration registration = registrationService.cancelRegistration(
             id, 
-            authentication.getName()
+            user.id()
         );
         
         return ResponseEntity.ok(new RegistrationResponse(registration));
@@ -61,7 +144,7 @@ public class RegistrationController {
     /**
      * Get my registrations
      * GET /api/registrations/my-registrations
-     * Optional query params: status (CONFIRMED, CANCELLED, ATTENDED, NO_SHOW), activeOnly (legacy)
+     * Optional query params: status (CONFIRMED, CANCELLED, ATTENDED, NO_SHOW, WAITLISTED), activeOnly (legacy)
      */
     @GetMapping("/registrations/my-registrations")
     public ResponseEntity<Page<RegistrationResponse>> getMyRegistrations(
@@ -69,27 +152,27 @@ public class RegistrationController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String status,
             @RequestParam(defaultValue = "false") boolean activeOnly,
-            Authentication authentication) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         
         Page<Registration> registrations;
         if (status != null && !status.isEmpty()) {
             try {
                 RegistrationStatus regStatus = RegistrationStatus.valueOf(status.toUpperCase());
                 registrations = registrationService.getUserRegistrationsByStatus(
-                    authentication.getName(), regStatus, page, size
+                    user.id(), regStatus, page, size
                 );
             } catch (IllegalArgumentException e) {
                 registrations = registrationService.getUserRegistrations(
-                    authentication.getName(), page, size
+                    user.id(), page, size
                 );
             }
         } else if (activeOnly) {
             registrations = registrationService.getUserActiveRegistrations(
-                authentication.getName(), page, size
+                user.id(), page, size
             );
         } else {
             registrations = registrationService.getUserRegistrations(
-                authentication.getName(), page, size
+                user.id(), page, size
             );
         }
         
@@ -97,6 +180,35 @@ public class RegistrationController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Cursor-paged version of my registrations, newest first (no total count)
+     * GET /api/registrations/my-registrations/scroll
+     * Optional query params: status, cursor (nextCursor from the previous page)
+     */
+    @GetMapping("/registrations/my-registrations/scroll")
+    public ResponseEntity<CursorPageResponse<RegistrationResponse>> scrollMyRegistrations(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String status,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+
+        // An unknown status lists every status, as the paged endpoint does
+        RegistrationStatus regStatus = null;
+        if (status != null && !status.isEmpty()) {
+            try {
+                regStatus = RegistrationStatus.valueOf(status.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                regStatus = null;
+            }
+        }
+        PageCursor before = PageCursor.decode(cursor, PageCursor.FIRST_DESCENDING);
+        Slice<Registration> registrations = registrationService.scrollUserRegistrations(
+            user.id(), regStatus, before, size
+        );
+        return ResponseEntity.ok(CursorPageResponse.of(registrations, RegistrationResponse::new,
+                r -> new PageCursor(r.getRegisteredAt(), r.getId())));
+    }
+
     /**
      * Get single registration by ID
      * GET /api/registrations/{id}
@@ -104,12 +216,12 @@ public class RegistrationController {
     @GetMapping("/registrations/{id}")
     public ResponseEntity<RegistrationResponse> getRegistration(
             @PathVariable Long id,
-            Authentication authentication) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         
         Registration registration = registrationService.getRegistrationById(id);
         
         // Check if user owns this registration
-        if (!registration.getUser().getEmail().equals(authentication.getName())) {
+        if (!registration.getUser().getId().equals(user.id())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         
@@ -135,16 +247,21 @@ public class RegistrationController {
     @GetMapping("/events/{eventId}/registration-status")
     public ResponseEntity<Map<String, Object>> checkRegistrationStatus(
             @PathVariable Long eventId,
-            Authentication authentication) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         
         boolean isRegistered = registrationService.isUserRegistered(
             eventId, 
-            authentication.getName()
+            user.id()
+        );
+        boolean isWaitlisted = !isRegistered && registrationService.isUserWaitlisted(
+            eventId,
+            user.id()
         );
         long totalRegistrations = registrationService.getEventRegistrationCount(eventId);
         
         Map<String, Object> response = new HashMap<>();
         response.put("isRegistered", isRegistered);
+        response.put("isWaitlisted", isWaitlisted);
         response.put("totalRegistrations", totalRegistrations);
         
         return ResponseEntity.ok(response);
@@ -168,4 +285,22 @@ public class RegistrationController {
         Page<RegistrationResponse> response = registrations.map(RegistrationResponse::new);
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    /**
+     * Cursor-paged registrations for an event, oldest first (no total count)
+     * GET /api/events/{eventId}/registrations/scroll
+     */
+    @GetMapping("/events/{eventId}/registrations/scroll")
+    public ResponseEntity<CursorPageResponse<RegistrationResponse>> scrollEventRegistrations(
+            @PathVariable Long eventId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+
+        PageCursor after = PageCursor.decode(cursor, PageCursor.FIRST_ASCENDING);
+        Slice<Registration> registrations = registrationService.scrollEventRegistrations(
+            eventId, after, size
+        );
+        return ResponseEntity.ok(CursorPageResponse.of(registrations, RegistrationResponse::new,
+                r -> new PageCursor(r.getRegisteredAt(), r.getId())));
+    }
+}
@@ -1,16 +1,15 @@
 package com.emconnect.api.controller;
 
+import com.emconnect.api.config.AuthenticatedUser;
 import com.emconnect.api.dto.TicketResponse;
 import com.emconnect.api.dto.TicketValidationResponse;
-import com.emconnect.api.entity.User;
-import com.emconnect.api.repository.UserRepository;
 import com.emconnect.api.service.TicketService;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -20,11 +19,9 @@ import java.util.List;
 public class TicketController {
 
     private final TicketService ticketService;
-    private final UserRepository userRepository;
 
-    public TicketController(TicketService ticketService, UserRepository userRepository) {
+    public TicketController(TicketService ticketService) {
         this.ticketService = ticketService;
-        this.userRepository = userRepository;
     }
 
     /**
@@ -32,9 +29,8 @@ public class TicketController {
      * Get all tickets for the currently authenticated user
      */
     @GetMapping("/my")
-    public ResponseEntity<List<TicketResponse>> getMyTickets(Authentication authentication) {
-        User user = getUser(authentication);
-        List<TicketResponse> tickets = ticketService.getMyTickets(user);
+    public ResponseEntity<List<TicketResponse>> getMyTickets(@AuthenticationPrincipal AuthenticatedUser user) {
+        List<TicketResponse> tickets = ticketService.getMyTickets(user.id());
         return ResponseEntity.ok(tickets);
     }
 
@@ -44,8 +40,7 @@ public class TicketController {
      */
     @GetMapping("/{code}")
     public ResponseEntity<TicketResponse> getTicket(@PathVariable String code,
-                                                     Authentication authentication) {
-        User user = getUser(authentication);
+                                                     @AuthenticationPrincipal AuthenticatedUser user) {
         TicketResponse ticket = ticketService.getTicketByCode(code, user);
         return ResponseEntity.ok(ticket);
     }
@@ -56,8 +51,7 @@ public class TicketController {
      */
     @GetMapping("/{code}/qr")
     public ResponseEntity<Resource> getQRCode(@PathVariable String code,
-                                               Authentication authentication) {
-        User user = getUser(authentication);
+                                               @AuthenticationPrincipal AuthenticatedUser user) {
         Resource qrImage = ticketService.getQRCodeImage(code, user);
 
         return ResponseEntity.ok()
@@ -78,11 +72,4 @@ public class TicketController {
         TicketValidationResponse result = ticketService.validateTicket(code);
         return ResponseEntity.ok(result);
     }
-
-    // --- Helper ---
-    private User getUser(Authentication authentication) {
-        String email = authentication.getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.emconnect.api.controller;
 
+import com.emconnect.api.dto.AuthResponse;
 import com.emconnect.api.dto.ChangePasswordRequest;
 import com.emconnect.api.dto.LoginActivityResponse;
 import com.emconnect.api.dto.UpdateProfileRequest;
@@ -20,7 +21,6 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
-import java.util.Map;
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
@@ -52,11 +52,10 @@ public class UserController {
     }
 
     @PutMapping("/me/password")
-    public ResponseEntity<Map<String, String>> changePassword(
+    public ResponseEntity<AuthResponse> changePassword(
             @Valid @RequestBody ChangePasswordRequest request) {
         String email = getAuthEmail();
-        userService.changePassword(email, request);
-        return ResponseEntity.ok(Map.of("message", "Password changed successfully"));
+        return ResponseEntity.ok(userService.changePassword(email, request));
     }
 
     @PostMapping("/me/avatar")
@@ -5,6 +5,7 @@ public class AuthResponse {
     private String message;
     private UserResponse user;
     private String token;  // We'll use this in Step 2.3
+    private String refreshToken;
 
     // Default constructor
     public AuthResponse() {
@@ -24,6 +25,14 @@ public class AuthResponse {
         this.token = token;
     }
 
+    // Constructor with a refresh token
+    public AuthResponse(String message, UserResponse user, String token, String refreshToken) {
+        this.message = message;
+        this.user = user;
+        this.token = token;
+        this.refreshToken = refreshToken;
+    }
+
     // Getters and Setters
     public String getMessage() {
         return message;
@@ -48,4 +57,12 @@ public class AuthResponse {
     public void setToken(String token) {
         this.token = token;
     }
-}
\ No newline at end of file
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
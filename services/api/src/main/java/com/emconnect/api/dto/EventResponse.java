@@ -20,6 +20,8 @@ public class EventResponse {
     private String category;
     private List<String> tags;
     private String bannerUrl;
+    private String registrationMode;
+    private List<Integer> reminderOffsets;
 
     // Default constructor
     public EventResponse() {
@@ -44,13 +46,19 @@ public class EventResponse {
         this.updatedAt = event.getUpdatedAt();
         this.category = event.getCategory() != null ? event.getCategory().name() : null;
         this.tags = event.getTagList();
-        // Transform file-system path to API URL path
-        if (event.getBannerUrl() != null) {
-            String raw = event.getBannerUrl();
-            int slash = raw.lastIndexOf('/');
-            String fname = slash >= 0 ? raw.substring(slash + 1) : raw;
-            this.bannerUrl = "/events/banners/" + fname;
+        this.registrationMode = event.getRegistrationMode().name();
+        this.reminderOffsets = event.getReminderOffsetList();
+        this.bannerUrl = bannerPath(event.getBannerUrl());
+    }
+
+    // Transform file-system path to API URL path
+    static String bannerPath(String raw) {
+        if (raw == null) {
+            return null;
         }
+        int slash = raw.lastIndexOf('/');
+        String fname = slash >= 0 ? raw.substring(slash + 1) : raw;
+        return "/events/banners/" + fname;
     }
 
     // Nested class for organizer info (avoids exposing full User)
@@ -190,4 +198,20 @@ public class EventResponse {
     public void setBannerUrl(String bannerUrl) {
         this.bannerUrl = bannerUrl;
     }
-}
\ No newline at end of file
+
+    public String getRegistrationMode() {
+        return registrationMode;
+    }
+
+    public void setRegistrationMode(String registrationMode) {
+        this.registrationMode = registrationMode;
+    }
+
+    public List<Integer> getReminderOffsets() {
+        return reminderOffsets;
+    }
+
+    public void setReminderOffsets(List<Integer> reminderOffsets) {
+        this.reminderOffsets = reminderOffsets;
+    }
+}
@@ -0,0 +1,45 @@
+package com.emconnect.api.dto;
+
+import com.emconnect.api.service.EventCatalogIndex;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class EventSuggestionResponse {
+
+    private List<String> terms;
+    private List<Suggestion> events;
+
+    public EventSuggestionResponse() {
+    }
+
+    public EventSuggestionResponse(EventCatalogIndex.Catalog.Suggestions suggestions) {
+        this.terms = suggestions.terms();
+        this.events = suggestions.events().stream()
+                .map(entry -> new Suggestion(entry.id(), entry.title(),
+                        entry.category() != null ? entry.category().name() : null, entry.startDate()))
+                .toList();
+    }
+
+    public List<String> getTerms() {
+        return terms;
+    }
+
+    public void setTerms(List<String> terms) {
+        this.terms = terms;
+    }
+
+    public List<Suggestion> getEvents() {
+        return events;
+    }
+
+    public void setEvents(List<Suggestion> events) {
+        this.events = events;
+    }
+
+    /**
+     * A suggested event, enough to render the dropdown and link to it.
+     */
+    public record Suggestion(Long id, String title, String category, LocalDateTime startDate) {
+    }
+}
@@ -0,0 +1,176 @@
+package com.emconnect.api.dto;
+
+import com.emconnect.api.entity.Event;
+import com.emconnect.api.repository.EventRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Event as shown in list views. Built from EventRepository.EventSummary rows, so it carries
+ * a description excerpt instead of the full text and needs no lazy loads; detail views use
+ * EventResponse. There is deliberately no description field: editing needs the full event.
+ */
+public class EventSummaryResponse {
+
+    private Long id;
+    private String title;
+    private String excerpt;
+    private String location;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    private Integer capacity;
+    private String status;
+    private EventResponse.OrganizerInfo organizer;
+    private LocalDateTime createdAt;
+    private String category;
+    private List<String> tags;
+    private String bannerUrl;
+    private String registrationMode;
+
+    // Default constructor
+    public EventSummaryResponse() {
+    }
+
+    // Constructor from a summary row
+    public EventSummaryResponse(EventRepository.EventSummary summary) {
+        this.id = summary.getId();
+        this.title = summary.getTitle();
+        this.excerpt = excerpt(summary.getExcerpt());
+        this.location = summary.getLocation();
+        this.startDate = summary.getStartDate();
+        this.endDate = summary.getEndDate();
+        this.capacity = summary.getCapacity();
+        this.status = summary.getStatus().name();
+        this.organizer = new EventResponse.OrganizerInfo(
+            summary.getOrganizerId(),
+            summary.getOrganizerName(),
+            summary.getOrganizerEmail()
+        );
+        this.createdAt = summary.getCreatedAt();
+        this.category = summary.getCategory() != null ? summary.getCategory().name() : null;
+        this.tags = Event.splitTags(summary.getTags());
+        this.bannerUrl = EventResponse.bannerPath(summary.getBannerUrl());
+        this.registrationMode = summary.getRegistrationMode().name();
+    }
+
+    // The query reads one character past the excerpt; if it is there, the text was cut
+    private static String excerpt(String text) {
+        if (text == null || text.length() <= EventRepository.EXCERPT_LENGTH) {
+            return text;
+        }
+        return text.substring(0, EventRepository.EXCERPT_LENGTH).stripTrailing() + "…";
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getExcerpt() {
+        return excerpt;
+    }
+
+    public void setExcerpt(String excerpt) {
+        this.excerpt = excerpt;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public LocalDateTime getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDateTime startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDateTime getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDateTime endDate) {
+        this.endDate = endDate;
+    }
+
+    public Integer getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(Integer capacity) {
+        this.capacity = capacity;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public EventResponse.OrganizerInfo getOrganizer() {
+        return organizer;
+    }
+
+    public void setOrganizer(EventResponse.OrganizerInfo organizer) {
+        this.organizer = organizer;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+
+    public String getBannerUrl() {
+        return bannerUrl;
+    }
+
+    public void setBannerUrl(String bannerUrl) {
+        this.bannerUrl = bannerUrl;
+    }
+
+    public String getRegistrationMode() {
+        return registrationMode;
+    }
+
+    public void setRegistrationMode(String registrationMode) {
+        this.registrationMode = registrationMode;
+    }
+}
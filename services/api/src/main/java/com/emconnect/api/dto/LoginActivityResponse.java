@@ -14,9 +14,13 @@ public class LoginActivityResponse {
     }
 
     public LoginActivityResponse(LoginActivity activity) {
-        this.timestamp = activity.getCreatedAt();
-        this.loginMethod = activity.getLoginMethod();
-        this.source = buildSource(activity.getSourceIp(), activity.getUserAgent());
+        this(activity.getCreatedAt(), activity.getLoginMethod(), activity.getSourceIp(), activity.getUserAgent());
+    }
+
+    public LoginActivityResponse(LocalDateTime timestamp, String loginMethod, String sourceIp, String userAgent) {
+        this.timestamp = timestamp;
+        this.loginMethod = loginMethod;
+        this.source = buildSource(sourceIp, userAgent);
     }
 
     private String buildSource(String ip, String userAgent) {
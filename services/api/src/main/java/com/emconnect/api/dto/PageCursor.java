@@ -0,0 +1,54 @@
+package com.emconnect.api.dto;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Keyset position in a listing: the sort timestamp and id of the last row a client saw.
+ * Handed out as an opaque URL-safe token; the next page seeks past it instead of
+ * counting and skipping rows with OFFSET.
+ */
+public record PageCursor(LocalDateTime at, long id) {
+
+    /** Sorts before every row of an ascending listing. */
+    public static final PageCursor FIRST_ASCENDING = new PageCursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+
+    /** Sorts before every row of a descending listing. */
+    public static final PageCursor FIRST_DESCENDING = new PageCursor(LocalDateTime.of(9999, 12, 31, 0, 0), Long.MAX_VALUE);
+
+    /** Largest page a cursor listing returns. */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Page request for one cursor page; the requested size is clamped to 1..MAX_PAGE_SIZE.
+     */
+    public static Pageable limit(int size) {
+        return PageRequest.of(0, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+    }
+
+    public String encode() {
+        String raw = at + "," + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token from a previous response; a missing token means the first page.
+     */
+    public static PageCursor decode(String token, PageCursor first) {
+        if (token == null || token.isBlank()) {
+            return first;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int comma = raw.indexOf(',');
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, comma)),
+                    Long.parseLong(raw.substring(comma + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.emconnect.api.dto;
+
+import com.emconnect.api.entity.RegistrationAttempt;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public class RegistrationAttemptResponse {
+
+    private UUID attemptId;
+    private Long eventId;
+    private String status;
+    private String reason;
+    private Long registrationId;
+    private LocalDateTime createdAt;
+    private LocalDateTime processedAt;
+
+    // Default constructor
+    public RegistrationAttemptResponse() {
+    }
+
+    // Constructor from RegistrationAttempt entity
+    public RegistrationAttemptResponse(RegistrationAttempt attempt) {
+        this.attemptId = attempt.getAttemptId();
+        this.eventId = attempt.getEventId();
+        this.status = attempt.getStatus().name();
+        this.reason = attempt.getReason();
+        this.registrationId = attempt.getRegistrationId();
+        this.createdAt = attempt.getCreatedAt();
+        this.processedAt = attempt.getProcessedAt();
+    }
+
+    // Getters
+    public UUID getAttemptId() {
+        return attemptId;
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public Long getRegistrationId() {
+        return registrationId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getProcessedAt() {
+        return processedAt;
+    }
+}
@@ -0,0 +1,33 @@
+package com.emconnect.api.dto;
+
+import com.emconnect.api.repository.EventRepository;
+
+public class TagCountResponse {
+
+    private String tag;
+    private long count;
+
+    public TagCountResponse() {
+    }
+
+    public TagCountResponse(EventRepository.TagCount tagCount) {
+        this.tag = tagCount.getTag();
+        this.count = tagCount.getCount();
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public void setTag(String tag) {
+        this.tag = tag;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
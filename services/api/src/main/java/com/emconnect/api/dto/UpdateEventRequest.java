@@ -30,6 +30,14 @@ public class UpdateEventRequest {
 
     private List<@Size(max = 50, message = "Each tag cannot exceed 50 characters") String> tags;
 
+    @Pattern(regexp = "(?i)STANDARD|QUEUED", message = "Registration mode must be STANDARD or QUEUED")
+    private String registrationMode;
+
+    // Minutes before start; empty list resets to the default offsets
+    @Size(max = 5, message = "At most 5 reminder offsets are allowed")
+    private List<@NotNull @Min(value = 5, message = "Reminder offsets must be at least 5 minutes")
+            @Max(value = 10080, message = "Reminder offsets cannot exceed 7 days") Integer> reminderOffsets;
+
     // Default constructor
     public UpdateEventRequest() {
     }
@@ -98,4 +106,20 @@ public class UpdateEventRequest {
     public void setTags(List<String> tags) {
         this.tags = tags;
     }
-}
\ No newline at end of file
+
+    public String getRegistrationMode() {
+        return registrationMode;
+    }
+
+    public void setRegistrationMode(String registrationMode) {
+        this.registrationMode = registrationMode;
+    }
+
+    public List<Integer> getReminderOffsets() {
+        return reminderOffsets;
+    }
+
+    public void setReminderOffsets(List<Integer> reminderOffsets) {
+        this.reminderOffsets = reminderOffsets;
+    }
+}
@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Entity
@@ -33,17 +36,36 @@ public class Event {
     @Column(nullable = false)
     private Integer capacity = 0;
 
+    // Maintained by conditional UPDATEs in EventRepository, never by entity saves
+    @Column(name = "confirmed_count", nullable = false, updatable = false)
+    private Integer confirmedCount = 0;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
     private EventStatus status = EventStatus.DRAFT;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "registration_mode", nullable = false, length = 20)
+    private RegistrationMode registrationMode = RegistrationMode.STANDARD;
+
     @Enumerated(EnumType.STRING)
     @Column(length = 50)
     private EventCategory category;
 
+    // Comma-separated copy of tagSet, kept for display and full-text search
     @Column(columnDefinition = "TEXT")
     private String tags;
 
+    // Normalized tags in event_tags, indexed for tag filters; written by setTagList
+    @ElementCollection
+    @CollectionTable(name = "event_tags", joinColumns = @JoinColumn(name = "event_id"))
+    @Column(name = "tag", length = 50, nullable = false)
+    private Set<String> tagSet = new HashSet<>();
+
+    // Minutes before start, comma separated; null means the default offsets
+    @Column(name = "reminder_offsets", length = 100)
+    private String reminderOffsets;
+
     @Column(name = "banner_url", length = 500)
     private String bannerUrl;
 
@@ -130,6 +152,10 @@ public class Event {
         this.capacity = capacity;
     }
 
+    public Integer getConfirmedCount() {
+        return confirmedCount;
+    }
+
     public EventStatus getStatus() {
         return status;
     }
@@ -138,6 +164,14 @@ public class Event {
         this.status = status;
     }
 
+    public RegistrationMode getRegistrationMode() {
+        return registrationMode;
+    }
+
+    public void setRegistrationMode(RegistrationMode registrationMode) {
+        this.registrationMode = registrationMode;
+    }
+
     public User getOrganizer() {
         return organizer;
     }
@@ -171,13 +205,20 @@ public class Event {
     }
 
     public void setTags(String tags) {
-        this.tags = tags;
+        setTagList(tags == null ? null : Arrays.asList(tags.split(",")));
     }
 
     /**
      * Returns tags as a list (splits comma-separated string).
      */
     public List<String> getTagList() {
+        return splitTags(tags);
+    }
+
+    /**
+     * Tags from the comma-separated events.tags column.
+     */
+    public static List<String> splitTags(String tags) {
         if (tags == null || tags.isBlank()) return Collections.emptyList();
         return Arrays.stream(tags.split(","))
                 .map(String::trim)
@@ -186,16 +227,59 @@ public class Event {
     }
 
     /**
-     * Sets tags from a list (joins into comma-separated lowercase string).
+     * Sets tags from a list (joins into comma-separated lowercase string) and
+     * writes the same tags to event_tags.
      */
     public void setTagList(List<String> tagList) {
-        if (tagList == null || tagList.isEmpty()) {
-            this.tags = null;
+        List<String> normalized = tagList == null ? List.of() : tagList.stream()
+                .map(Event::normalizeTag)
+                .filter(t -> !t.isEmpty())
+                .distinct()
+                .collect(Collectors.toList());
+        this.tags = normalized.isEmpty() ? null : String.join(",", normalized);
+        // Update in place so Hibernate only inserts and deletes the changed rows
+        tagSet.retainAll(normalized);
+        tagSet.addAll(normalized);
+    }
+
+    /**
+     * The form tags are stored and filtered in.
+     */
+    public static String normalizeTag(String tag) {
+        return tag == null ? "" : tag.trim().toLowerCase();
+    }
+
+    public String getReminderOffsets() {
+        return reminderOffsets;
+    }
+
+    public void setReminderOffsets(String reminderOffsets) {
+        this.reminderOffsets = reminderOffsets;
+    }
+
+    /**
+     * Returns reminder offsets in minutes (largest first), or an empty list for the defaults.
+     */
+    public List<Integer> getReminderOffsetList() {
+        if (reminderOffsets == null || reminderOffsets.isBlank()) return Collections.emptyList();
+        return Arrays.stream(reminderOffsets.split(","))
+                .map(String::trim)
+                .filter(o -> !o.isEmpty())
+                .map(Integer::valueOf)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Sets reminder offsets from a list (de-duplicated, largest first). Empty resets to the defaults.
+     */
+    public void setReminderOffsetList(List<Integer> offsetList) {
+        if (offsetList == null || offsetList.isEmpty()) {
+            this.reminderOffsets = null;
         } else {
-            this.tags = tagList.stream()
-                    .map(t -> t.trim().toLowerCase())
-                    .filter(t -> !t.isEmpty())
+            this.reminderOffsets = offsetList.stream()
                     .distinct()
+                    .sorted(Comparator.reverseOrder())
+                    .map(String::valueOf)
                     .collect(Collectors.joining(","));
         }
     }
@@ -0,0 +1,71 @@
+package com.emconnect.api.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "jwt_signing_keys")
+public class JwtSigningKey {
+
+    @Id
+    @Column(length = 64)
+    private String kid;
+
+    @Column(nullable = false, length = 10, updatable = false)
+    private String algorithm;
+
+    // X.509 encoding, Base64
+    @Column(name = "public_key", nullable = false, updatable = false, columnDefinition = "TEXT")
+    private String publicKey;
+
+    // Encrypted PKCS#8 encoding, Base64
+    @Column(name = "private_key", nullable = false, updatable = false, columnDefinition = "TEXT")
+    private String privateKey;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "activates_at", nullable = false, updatable = false)
+    private LocalDateTime activatesAt;
+
+    // Default constructor (required by JPA)
+    public JwtSigningKey() {
+    }
+
+    public JwtSigningKey(String kid, String algorithm, String publicKey, String privateKey, LocalDateTime activatesAt) {
+        this.kid = kid;
+        this.algorithm = algorithm;
+        this.publicKey = publicKey;
+        this.privateKey = privateKey;
+        this.activatesAt = activatesAt;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public String getKid() {
+        return kid;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public String getPublicKey() {
+        return publicKey;
+    }
+
+    public String getPrivateKey() {
+        return privateKey;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getActivatesAt() {
+        return activatesAt;
+    }
+}
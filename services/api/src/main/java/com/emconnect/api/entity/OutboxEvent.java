@@ -0,0 +1,90 @@
+package com.emconnect.api.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbox_events")
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "message_id", nullable = false, length = 64, updatable = false)
+    private String messageId;
+
+    @Column(name = "routing_key", nullable = false, length = 100, updatable = false)
+    private String routingKey;
+
+    // Fully qualified class name, sent as the __TypeId__ header like Jackson2JsonMessageConverter does
+    @Column(name = "event_type", nullable = false, length = 255, updatable = false)
+    private String eventType;
+
+    @Column(nullable = false, columnDefinition = "TEXT", updatable = false)
+    private String payload;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    // Default constructor (required by JPA)
+    public OutboxEvent() {
+    }
+
+    public OutboxEvent(String messageId, String routingKey, String eventType, String payload) {
+        this.messageId = messageId;
+        this.routingKey = routingKey;
+        this.eventType = eventType;
+        this.payload = payload;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getMessageId() {
+        return messageId;
+    }
+
+    public String getRoutingKey() {
+        return routingKey;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getSentAt() {
+        return sentAt;
+    }
+}
@@ -43,6 +43,10 @@ public class Registration {
     @Column(name = "checked_in_at")
     private LocalDateTime checkedInAt;
 
+    // Position key on the event's waitlist (from registration_waitlist_seq), null unless WAITLISTED
+    @Column(name = "waitlist_seq")
+    private Long waitlistSeq;
+
     // Default constructor (required by JPA)
     public Registration() {
     }
@@ -84,6 +88,22 @@ public class Registration {
     public void cancel() {
         this.status = RegistrationStatus.CANCELLED;
         this.cancelledAt = LocalDateTime.now();
+        this.waitlistSeq = null;
+    }
+
+    // Put registration at the back of the event's waitlist
+    public void joinWaitlist(long waitlistSeq) {
+        this.status = RegistrationStatus.WAITLISTED;
+        this.waitlistSeq = waitlistSeq;
+        this.registeredAt = LocalDateTime.now();
+        this.cancelledAt = null;
+    }
+
+    // Promote a waitlisted registration into a confirmed seat
+    public void promoteFromWaitlist() {
+        this.status = RegistrationStatus.CONFIRMED;
+        this.waitlistSeq = null;
+        this.registeredAt = LocalDateTime.now();
     }
 
     // Check if registration is active
@@ -151,6 +171,10 @@ public class Registration {
     public LocalDateTime getCheckedInAt() { return checkedInAt; }
     public void setCheckedInAt(LocalDateTime checkedInAt) { this.checkedInAt = checkedInAt; }
 
+    public Long getWaitlistSeq() {
+        return waitlistSeq;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,79 @@
+package com.emconnect.api.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "registration_attempts")
+public class RegistrationAttempt {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "attempt_id", nullable = false, unique = true, updatable = false)
+    private UUID attemptId;
+
+    @Column(name = "event_id", nullable = false, updatable = false)
+    private Long eventId;
+
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private RegistrationAttemptStatus status = RegistrationAttemptStatus.PENDING;
+
+    @Column(length = 255)
+    private String reason;
+
+    @Column(name = "registration_id")
+    private Long registrationId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    // Default constructor (required by JPA)
+    public RegistrationAttempt() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public UUID getAttemptId() {
+        return attemptId;
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public RegistrationAttemptStatus getStatus() {
+        return status;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public Long getRegistrationId() {
+        return registrationId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getProcessedAt() {
+        return processedAt;
+    }
+}
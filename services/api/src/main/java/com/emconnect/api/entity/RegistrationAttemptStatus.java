@@ -0,0 +1,7 @@
+package com.emconnect.api.entity;
+
+public enum RegistrationAttemptStatus {
+    PENDING,     // Accepted, waiting for the consumer
+    CONFIRMED,   // Registration was created
+    REJECTED     // Registration failed (full, closed, duplicate...)
+}
@@ -0,0 +1,6 @@
+package com.emconnect.api.entity;
+
+public enum RegistrationMode {
+    STANDARD,   // Registration is settled within the request
+    QUEUED      // Attempts are accepted (202) and settled in arrival order by a background consumer
+}
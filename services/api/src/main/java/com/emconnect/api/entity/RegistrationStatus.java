@@ -4,5 +4,6 @@ public enum RegistrationStatus {
     CONFIRMED,   // Registration is active
     CANCELLED,   // User cancelled their registration
     ATTENDED,    // User attended the event (for check-in)
-    NO_SHOW      // User didn't attend
+    NO_SHOW,     // User didn't attend
+    WAITLISTED   // Waiting for a seat; promoted to CONFIRMED in waitlist_seq order
 }
\ No newline at end of file
@@ -36,6 +36,9 @@ public class User {
     @Column(name = "oauth_provider", length = 20)
     private String oauthProvider;
 
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion = 0;
+
     // Default constructor (required by JPA)
     public User() {
     }
@@ -128,4 +131,13 @@ public class User {
     public void setOauthProvider(String oauthProvider) {
         this.oauthProvider = oauthProvider;
     }
-}
\ No newline at end of file
+
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    // Invalidate every token issued so far
+    public void bumpTokenVersion() {
+        this.tokenVersion++;
+    }
+}
@@ -1,5 +1,6 @@
 package com.emconnect.api.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -131,4 +132,15 @@ public class GlobalExceptionHandler {
         ErrorResponse error = new ErrorResponse("EVENT_NOT_AVAILABLE", ex.getMessage());
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
+
+    // Handle load shedding (503 + Retry-After)
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ErrorResponse> handleServiceBusy(
+            ServiceBusyException ex) {
+        
+        ErrorResponse error = new ErrorResponse("SERVICE_BUSY", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.emconnect.api.exception;
+
+/**
+ * Thrown when the API sheds load instead of queueing more work
+ * (mapped to 503 Service Unavailable with a Retry-After header).
+ */
+public class ServiceBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
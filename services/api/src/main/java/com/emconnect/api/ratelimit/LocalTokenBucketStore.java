@@ -0,0 +1,94 @@
+package com.emconnect.api.ratelimit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Token buckets held in this instance's memory.
+ *
+ * Buckets live in a ConcurrentHashMap (lock-striped, lock-free reads) and each
+ * bucket's state is swapped with a compare-and-set, so concurrent requests never
+ * block each other. A decision is a map lookup and a CAS.
+ *
+ * Buckets untouched for longer than rate-limit.idle-evict-seconds, and at least
+ * long enough to have refilled, are dropped; a dropped bucket would have been full,
+ * so recreating it later changes nothing.
+ */
+@Component
+public class LocalTokenBucketStore implements TokenBucketStore {
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final long idleEvictNanos;
+
+    public LocalTokenBucketStore(MeterRegistry meterRegistry,
+                                 @Value("${rate-limit.idle-evict-seconds:600}") long idleEvictSeconds) {
+        this.idleEvictNanos = idleEvictSeconds * 1_000_000_000L;
+
+        Gauge.builder("emconnect.rate_limit.buckets", buckets, Map::size)
+                .description("Token buckets held in memory")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Decision tryConsume(String key, RateLimitPolicy policy) {
+        long now = System.nanoTime();
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new Bucket(policy, now));
+        }
+        return bucket.tryConsume(now);
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.evict-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.idleFor(now) > Math.max(idleEvictNanos, bucket.policy.nanosToFull()));
+    }
+
+    int size() {
+        return buckets.size();
+    }
+
+    private static final class Bucket {
+
+        private final RateLimitPolicy policy;
+        private final AtomicReference<State> state;
+
+        Bucket(RateLimitPolicy policy, long now) {
+            this.policy = policy;
+            this.state = new AtomicReference<>(new State(policy.capacity(), now));
+        }
+
+        Decision tryConsume(long now) {
+            while (true) {
+                State current = state.get();
+                double tokens = current.tokensAt(now, policy);
+                if (tokens < 1) {
+                    return Decision.rejected(tokens, policy);
+                }
+                if (state.compareAndSet(current, new State(tokens - 1, Math.max(now, current.refilledAt())))) {
+                    return Decision.ALLOWED;
+                }
+            }
+        }
+
+        long idleFor(long now) {
+            return now - state.get().refilledAt();
+        }
+    }
+
+    private record State(double tokens, long refilledAt) {
+
+        double tokensAt(long now, RateLimitPolicy policy) {
+            long elapsed = Math.max(0, now - refilledAt);
+            return Math.min(policy.capacity(), tokens + elapsed / 1e9 * policy.refillPerSecond());
+        }
+    }
+}
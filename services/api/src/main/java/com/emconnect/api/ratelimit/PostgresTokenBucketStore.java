@@ -0,0 +1,79 @@
+package com.emconnect.api.ratelimit;
+
+import com.emconnect.api.scheduling.LeaseManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Token buckets in the rate_limit_buckets table, shared by all replicas so the
+ * limits hold cluster-wide. Enabled with rate-limit.mode=shared.
+ *
+ * Each decision is one upsert that refills, takes a token if there is one and
+ * reports the outcome, so concurrent requests on any replica serialize on the row.
+ * This costs a database round trip per limited request, unlike the local store.
+ */
+@Component
+@ConditionalOnProperty(name = "rate-limit.mode", havingValue = "shared")
+public class PostgresTokenBucketStore implements TokenBucketStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresTokenBucketStore.class);
+
+    private static final String AVAILABLE =
+            "LEAST(:capacity, b.tokens + EXTRACT(EPOCH FROM (LOCALTIMESTAMP - b.refilled_at)) * :rate)";
+
+    private static final String CONSUME_SQL =
+            "INSERT INTO rate_limit_buckets AS b (bucket_key, tokens, allowed, refilled_at) " +
+            "VALUES (:key, :capacity - 1, TRUE, LOCALTIMESTAMP) " +
+            "ON CONFLICT (bucket_key) DO UPDATE SET " +
+            "tokens = CASE WHEN " + AVAILABLE + " >= 1 THEN " + AVAILABLE + " - 1 ELSE " + AVAILABLE + " END, " +
+            "allowed = " + AVAILABLE + " >= 1, " +
+            "refilled_at = LOCALTIMESTAMP " +
+            "RETURNING tokens, allowed";
+
+    private static final String PURGE_SQL =
+            "DELETE FROM rate_limit_buckets WHERE refilled_at < LOCALTIMESTAMP - make_interval(secs => :idleSeconds)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final LeaseManager leaseManager;
+    private final long idleEvictSeconds;
+
+    public PostgresTokenBucketStore(NamedParameterJdbcTemplate jdbcTemplate,
+                                    LeaseManager leaseManager,
+                                    @Value("${rate-limit.idle-evict-seconds:600}") long idleEvictSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.leaseManager = leaseManager;
+        this.idleEvictSeconds = idleEvictSeconds;
+    }
+
+    @Override
+    public Decision tryConsume(String key, RateLimitPolicy policy) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("key", key)
+                .addValue("capacity", (double) policy.capacity())
+                .addValue("rate", policy.refillPerSecond());
+        return jdbcTemplate.queryForObject(CONSUME_SQL, params, (rs, rowNum) ->
+                rs.getBoolean("allowed") ? Decision.ALLOWED : Decision.rejected(rs.getDouble("tokens"), policy));
+    }
+
+    /**
+     * Drop buckets nobody has touched for a while; they would be full again anyway.
+     */
+    @Scheduled(fixedDelay = 3600000) // 1 hour
+    public void purgeIdle() {
+        leaseManager.runExclusively("rate-limit-purge", Duration.ofMinutes(30), Duration.ofMinutes(30), lease -> {
+            int deleted = jdbcTemplate.update(PURGE_SQL,
+                    new MapSqlParameterSource("idleSeconds", (double) idleEvictSeconds));
+            if (deleted > 0) {
+                logger.info("Purged {} idle rate limit buckets", deleted);
+            }
+        });
+    }
+}
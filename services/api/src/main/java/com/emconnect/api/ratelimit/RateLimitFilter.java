@@ -0,0 +1,165 @@
+package com.emconnect.api.ratelimit;
+
+import com.emconnect.api.config.AuthenticatedUser;
+import com.emconnect.api.config.ClientAddress;
+import com.emconnect.api.exception.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Rate limits sign-in, sign-up, password reset and event registration with token
+ * buckets, answering 429 with Retry-After once a client's bucket is empty.
+ *
+ * Runs after JwtAuthenticationFilter so event registration is limited per user;
+ * the auth endpoints are limited per client IP. Buckets are kept in memory unless
+ * rate-limit.mode=shared, in which case they live in Postgres and the limits hold
+ * across replicas. If the shared store fails the local buckets are used instead.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private record Route(String pattern, RateLimitPolicy policy, boolean perUser) {
+    }
+
+    private final TokenBucketStore localStore;
+    private final TokenBucketStore sharedStore;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final List<Route> routes;
+    private final Map<String, Counter> rejected = new HashMap<>();
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public RateLimitFilter(LocalTokenBucketStore localStore,
+                           Optional<PostgresTokenBucketStore> sharedStore,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           @Value("${rate-limit.enabled:true}") boolean enabled,
+                           @Value("${rate-limit.login.capacity:10}") int loginCapacity,
+                           @Value("${rate-limit.login.per-minute:10}") int loginPerMinute,
+                           @Value("${rate-limit.signup.capacity:5}") int signupCapacity,
+                           @Value("${rate-limit.signup.per-minute:2}") int signupPerMinute,
+                           @Value("${rate-limit.password-reset.capacity:5}") int resetCapacity,
+                           @Value("${rate-limit.password-reset.per-minute:5}") int resetPerMinute,
+                           @Value("${rate-limit.event-registration.capacity:20}") int registrationCapacity,
+                           @Value("${rate-limit.event-registration.per-minute:20}") int registrationPerMinute) {
+        this.localStore = localStore;
+        this.sharedStore = sharedStore.orElse(null);
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+
+        RateLimitPolicy login = RateLimitPolicy.perMinute("login", loginCapacity, loginPerMinute);
+        RateLimitPolicy signup = RateLimitPolicy.perMinute("signup", signupCapacity, signupPerMinute);
+        RateLimitPolicy reset = RateLimitPolicy.perMinute("password-reset", resetCapacity, resetPerMinute);
+        RateLimitPolicy registration = RateLimitPolicy.perMinute(
+                "event-registration", registrationCapacity, registrationPerMinute);
+
+        // All limited endpoints are POSTs
+        this.routes = List.of(
+                new Route("/api/auth/login", login, false),
+                new Route("/api/auth/google", login, false),
+                new Route("/api/auth/register", signup, false),
+                new Route("/api/auth/forgot-password", reset, false),
+                new Route("/api/auth/resend-reset-code", reset, false),
+                new Route("/api/auth/verify-reset-code", reset, false),
+                new Route("/api/auth/reset-password", reset, false),
+                new Route("/api/events/*/register", registration, true),
+                new Route("/api/events/*/waitlist", registration, true)
+        );
+        for (RateLimitPolicy policy : List.of(login, signup, reset, registration)) {
+            rejected.put(policy.name(), Counter.builder("emconnect.rate_limit.rejected")
+                    .tag("policy", policy.name())
+                    .description("Requests answered with 429")
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || !"POST".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        Route route = findRoute(request.getRequestURI());
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String key = route.policy().name() + ":" + clientKey(request, route);
+        TokenBucketStore.Decision decision = consume(key, route.policy());
+        if (decision.allowed()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        rejected.get(route.policy().name()).increment();
+        long retryAfterSeconds = Math.max(1, (decision.retryAfterMillis() + 999) / 1000);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new ErrorResponse("RATE_LIMITED", "Too many requests, please retry in " + retryAfterSeconds + "s"));
+    }
+
+    private Route findRoute(String path) {
+        for (Route route : routes) {
+            if (pathMatcher.match(route.pattern(), path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private String clientKey(HttpServletRequest request, Route route) {
+        if (route.perUser()) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+                return "user:" + user.id();
+            }
+        }
+        return "ip:" + ClientAddress.resolve(request);
+    }
+
+    private TokenBucketStore.Decision consume(String key, RateLimitPolicy policy) {
+        if (sharedStore != null) {
+            try {
+                return sharedStore.tryConsume(key, policy);
+            } catch (DataAccessException e) {
+                logger.warn("Shared rate limit store unavailable, using local buckets: {}", e.getMessage());
+            }
+        }
+        return localStore.tryConsume(key, policy);
+    }
+}
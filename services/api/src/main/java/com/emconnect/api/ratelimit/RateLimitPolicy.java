@@ -0,0 +1,19 @@
+package com.emconnect.api.ratelimit;
+
+/**
+ * A token bucket: up to capacity requests in a burst, refilled continuously at
+ * refillPerSecond.
+ */
+public record RateLimitPolicy(String name, int capacity, double refillPerSecond) {
+
+    public static RateLimitPolicy perMinute(String name, int capacity, int perMinute) {
+        return new RateLimitPolicy(name, capacity, perMinute / 60.0);
+    }
+
+    /**
+     * How long an empty bucket takes to fill up again.
+     */
+    public long nanosToFull() {
+        return (long) (capacity / refillPerSecond * 1_000_000_000L);
+    }
+}
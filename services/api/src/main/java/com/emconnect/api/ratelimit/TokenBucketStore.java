@@ -0,0 +1,21 @@
+package com.emconnect.api.ratelimit;
+
+/**
+ * Holds token buckets and takes one token per request.
+ */
+public interface TokenBucketStore {
+
+    Decision tryConsume(String key, RateLimitPolicy policy);
+
+    /**
+     * Whether the request may proceed, and if not, how long until a token is available.
+     */
+    record Decision(boolean allowed, long retryAfterMillis) {
+
+        static final Decision ALLOWED = new Decision(true, 0);
+
+        static Decision rejected(double tokens, RateLimitPolicy policy) {
+            return new Decision(false, (long) Math.ceil((1 - tokens) / policy.refillPerSecond() * 1000));
+        }
+    }
+}
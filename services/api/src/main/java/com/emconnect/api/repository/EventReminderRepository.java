@@ -1,11 +1,44 @@
 package com.emconnect.api.repository;
 
 import com.emconnect.api.entity.EventReminder;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.stream.Stream;
+
 @Repository
 public interface EventReminderRepository extends JpaRepository<EventReminder, Long> {
 
     boolean existsByEventIdAndRegistrationIdAndReminderType(Long eventId, Long registrationId, String reminderType);
+
+    // Confirmed registrations that have no reminder row of this type yet (anti-join).
+    // Streamed with a server-side cursor; must be consumed inside a transaction.
+    @Query(value = "SELECT r.id AS registrationId, u.id AS userId, u.email AS userEmail, " +
+                   "u.name AS userName, r.ticket_code AS ticketCode " +
+                   "FROM registrations r JOIN users u ON u.id = r.user_id " +
+                   "WHERE r.event_id = :eventId AND r.status = 'CONFIRMED' " +
+                   "AND NOT EXISTS (SELECT 1 FROM event_reminders er " +
+                   "WHERE er.event_id = r.event_id AND er.registration_id = r.id " +
+                   "AND er.reminder_type = :reminderType) " +
+                   "ORDER BY r.id",
+           nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<ReminderTarget> streamPendingReminders(@Param("eventId") Long eventId,
+                                                  @Param("reminderType") String reminderType);
+
+    /**
+     * A registration that still needs a reminder.
+     */
+    interface ReminderTarget {
+        Long getRegistrationId();
+        Long getUserId();
+        String getUserEmail();
+        String getUserName();
+        String getTicketCode();
+    }
 }
@@ -3,8 +3,10 @@ package com.emconnect.api.repository;
 import com.emconnect.api.entity.Event;
 import com.emconnect.api.entity.EventCategory;
 import com.emconnect.api.entity.EventStatus;
+import com.emconnect.api.entity.RegistrationMode;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,18 +15,53 @@ import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.Lock;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface EventRepository extends JpaRepository<Event, Long> {
 
+    // Longest description excerpt a list view gets
+    int EXCERPT_LENGTH = 200;
+
+    // Columns list views show, with the organizer joined into the same row. One character
+    // past the excerpt is read so callers can tell the description was cut.
+    String SUMMARY_SELECT = "SELECT e.id AS id, e.title AS title, " +
+            "SUBSTRING(e.description, 1, " + (EXCERPT_LENGTH + 1) + ") AS excerpt, " +
+            "e.location AS location, e.startDate AS startDate, e.endDate AS endDate, " +
+            "e.capacity AS capacity, e.status AS status, e.category AS category, e.tags AS tags, " +
+            "e.bannerUrl AS bannerUrl, e.registrationMode AS registrationMode, e.createdAt AS createdAt, " +
+            "o.id AS organizerId, o.name AS organizerName, o.email AS organizerEmail " +
+            "FROM Event e JOIN e.organizer o ";
+
     // Find events by status with pagination
     Page<Event> findByStatus(EventStatus status, Pageable pageable);
 
     // Find events by organizer
     Page<Event> findByOrganizerId(Long organizerId, Pageable pageable);
 
+    // List-view summaries of events in one status, soonest first.
+    // The order is fixed here; pass an unsorted Pageable.
+    @Query(value = SUMMARY_SELECT + "WHERE e.status = :status ORDER BY e.startDate ASC, e.id ASC",
+           countQuery = "SELECT COUNT(e) FROM Event e WHERE e.status = :status")
+    Page<EventSummary> findSummariesByStatus(@Param("status") EventStatus status, Pageable pageable);
+
+    // List-view summaries of an organizer's events, newest first
+    @Query(value = SUMMARY_SELECT + "WHERE o.id = :organizerId ORDER BY e.createdAt DESC, e.id DESC",
+           countQuery = "SELECT COUNT(e) FROM Event e WHERE e.organizer.id = :organizerId")
+    Page<EventSummary> findSummariesByOrganizerId(@Param("organizerId") Long organizerId, Pageable pageable);
+
+    // List-view summaries of all events (optionally one status), newest first
+    @Query(value = SUMMARY_SELECT + "WHERE (:status IS NULL OR e.status = :status) " +
+                   "ORDER BY e.createdAt DESC, e.id DESC",
+           countQuery = "SELECT COUNT(e) FROM Event e WHERE (:status IS NULL OR e.status = :status)")
+    Page<EventSummary> findAllSummaries(@Param("status") EventStatus status, Pageable pageable);
+
+    // Summaries for ids picked by one of the native search queries below, in no particular order
+    @Query(SUMMARY_SELECT + "WHERE e.id IN :ids")
+    List<EventSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
     // Find published events starting after a date
     Page<Event> findByStatusAndStartDateAfter(
             EventStatus status, 
@@ -32,25 +69,6 @@ public interface EventRepository extends JpaRepository<Event, Long> {
             Pageable pageable
     );
 
-    // Search events by title (case-insensitive)
-    @Query("SELECT e FROM Event e WHERE e.status = :status AND LOWER(e.title) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    Page<Event> searchByTitle(
-            @Param("status") EventStatus status,
-            @Param("keyword") String keyword,
-            Pageable pageable
-    );
-
-    // Search events by title with optional category filter
-    @Query("SELECT e FROM Event e WHERE e.status = :status " +
-           "AND LOWER(e.title) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
-           "AND (:category IS NULL OR e.category = :category)")
-    Page<Event> searchByTitleAndCategory(
-            @Param("status") EventStatus status,
-            @Param("keyword") String keyword,
-            @Param("category") EventCategory category,
-            Pageable pageable
-    );
-
     // Find published events by category
     @Query("SELECT e FROM Event e WHERE e.status = :status AND e.category = :category")
     Page<Event> findByStatusAndCategory(
@@ -59,27 +77,59 @@ public interface EventRepository extends JpaRepository<Event, Long> {
             Pageable pageable
     );
 
-    // Search events by tag (case-insensitive LIKE on comma-separated tags column)
-    @Query(value = "SELECT * FROM events e WHERE e.status = :status " +
-                   "AND LOWER(e.tags) LIKE LOWER(CONCAT('%', :tag, '%'))",
+    // Ids of events with a tag (exact normalized match, driven by the event_tags (tag, event_id) index),
+    // with an optional category filter, soonest first. The order is fixed here; pass an unsorted Pageable.
+    @Query(value = "SELECT e.id FROM event_tags t JOIN events e ON e.id = t.event_id " +
+                   "WHERE t.tag = :tag AND e.status = :status " +
+                   "AND (:category = '' OR e.category = :category) " +
+                   "ORDER BY e.start_date ASC, e.id ASC",
+           countQuery = "SELECT COUNT(*) FROM event_tags t JOIN events e ON e.id = t.event_id " +
+                        "WHERE t.tag = :tag AND e.status = :status " +
+                        "AND (:category = '' OR e.category = :category)",
+           nativeQuery = true)
+    Page<Long> findIdsByStatusAndTag(
+            @Param("status") String status,
+            @Param("tag") String tag,
+            @Param("category") String category,
+            Pageable pageable
+    );
+
+    // Full-text search (GIN index on search_vector) for event ids, best matches first, with
+    // optional category and tag filters. The order is fixed here; pass an unsorted Pageable.
+    @Query(value = "SELECT e.id FROM events e WHERE e.status = :status " +
+                   "AND e.search_vector @@ websearch_to_tsquery('english', :keyword) " +
+                   "AND (:category = '' OR e.category = :category) " +
+                   "AND (:tag = '' OR EXISTS (SELECT 1 FROM event_tags t WHERE t.event_id = e.id AND t.tag = :tag)) " +
+                   "ORDER BY ts_rank_cd(e.search_vector, websearch_to_tsquery('english', :keyword)) DESC, " +
+                   "e.start_date ASC, e.id ASC",
+           countQuery = "SELECT COUNT(*) FROM events e WHERE e.status = :status " +
+                        "AND e.search_vector @@ websearch_to_tsquery('english', :keyword) " +
+                        "AND (:category = '' OR e.category = :category) " +
+                        "AND (:tag = '' OR EXISTS (SELECT 1 FROM event_tags t WHERE t.event_id = e.id AND t.tag = :tag))",
            nativeQuery = true)
-    Page<Event> findByStatusAndTag(
+    Page<Long> searchEventIds(
             @Param("status") String status,
+            @Param("keyword") String keyword,
+            @Param("category") String category,
             @Param("tag") String tag,
             Pageable pageable
     );
 
-    // Search events by title, category, and tag
-    @Query(value = "SELECT * FROM events e WHERE e.status = :status " +
-                   "AND (:keyword = '' OR LOWER(e.title) LIKE LOWER(CONCAT('%', :keyword, '%'))) " +
+    // Typo-tolerant search for event ids: a word in the title or location resembles the keyword
+    // (trigram GIN indexes), most similar first. Call setWordSimilarityThreshold in the
+    // same transaction first. The order is fixed here; pass an unsorted Pageable.
+    @Query(value = "SELECT e.id FROM events e WHERE e.status = :status " +
+                   "AND (e.title %> :keyword OR e.location %> :keyword) " +
                    "AND (:category = '' OR e.category = :category) " +
-                   "AND (:tag = '' OR LOWER(e.tags) LIKE LOWER(CONCAT('%', :tag, '%')))",
+                   "AND (:tag = '' OR EXISTS (SELECT 1 FROM event_tags t WHERE t.event_id = e.id AND t.tag = :tag)) " +
+                   "ORDER BY GREATEST(word_similarity(:keyword, e.title), " +
+                   "word_similarity(:keyword, COALESCE(e.location, ''))) DESC, e.start_date ASC, e.id ASC",
            countQuery = "SELECT COUNT(*) FROM events e WHERE e.status = :status " +
-                        "AND (:keyword = '' OR LOWER(e.title) LIKE LOWER(CONCAT('%', :keyword, '%'))) " +
+                        "AND (e.title %> :keyword OR e.location %> :keyword) " +
                         "AND (:category = '' OR e.category = :category) " +
-                        "AND (:tag = '' OR LOWER(e.tags) LIKE LOWER(CONCAT('%', :tag, '%')))",
+                        "AND (:tag = '' OR EXISTS (SELECT 1 FROM event_tags t WHERE t.event_id = e.id AND t.tag = :tag))",
            nativeQuery = true)
-    Page<Event> searchEvents(
+    Page<Long> fuzzySearchEventIds(
             @Param("status") String status,
             @Param("keyword") String keyword,
             @Param("category") String category,
@@ -87,6 +137,30 @@ public interface EventRepository extends JpaRepository<Event, Long> {
             Pageable pageable
     );
 
+    // Minimum word similarity for %> in the current transaction only
+    @Query(value = "SELECT set_config('pg_trgm.word_similarity_threshold', CAST(:threshold AS text), true)",
+           nativeQuery = true)
+    String setWordSimilarityThreshold(@Param("threshold") double threshold);
+
+    // Ids of events in a category, without a keyword or tag, soonest first.
+    // The order is fixed here; pass an unsorted Pageable.
+    @Query(value = "SELECT e.id FROM events e WHERE e.status = :status AND e.category = :category " +
+                   "ORDER BY e.start_date ASC, e.id ASC",
+           countQuery = "SELECT COUNT(*) FROM events e WHERE e.status = :status AND e.category = :category",
+           nativeQuery = true)
+    Page<Long> filterIdsByCategory(
+            @Param("status") String status,
+            @Param("category") String category,
+            Pageable pageable
+    );
+
+    // Tags on published events with how many events use each, most used first
+    @Query(value = "SELECT t.tag AS tag, COUNT(*) AS count FROM event_tags t " +
+                   "JOIN events e ON e.id = t.event_id WHERE e.status = 'PUBLISHED' " +
+                   "GROUP BY t.tag ORDER BY count DESC, t.tag ASC LIMIT :lim",
+           nativeQuery = true)
+    List<TagCount> findPublishedTagCounts(@Param("lim") int lim);
+
     // Get all distinct categories for published events
     @Query("SELECT DISTINCT e.category FROM Event e WHERE e.status = 'PUBLISHED' AND e.category IS NOT NULL")
     List<EventCategory> findDistinctCategories();
@@ -94,15 +168,78 @@ public interface EventRepository extends JpaRepository<Event, Long> {
     // Count events by organizer
     long countByOrganizerId(Long organizerId);
 
-    // Pessimistic lock - locks the event row for registration
+    // Pessimistic lock - locks the event row once per registration lane batch
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT e FROM Event e WHERE e.id = :id")
     Optional<Event> findByIdWithLock(@Param("id") Long id);
 
+    // Atomically reserve a seat: only succeeds while the event is published and below capacity.
+    // Returns the new confirmed count, or empty when no seat could be reserved.
+    @Query(value = "UPDATE events SET confirmed_count = confirmed_count + 1 " +
+                   "WHERE id = :id AND status = 'PUBLISHED' AND confirmed_count < capacity " +
+                   "RETURNING confirmed_count",
+           nativeQuery = true)
+    Optional<Integer> reserveSeat(@Param("id") Long id);
+
+    // Reserve several seats at once (registration lane group commit). Returns the new confirmed count.
+    @Query(value = "UPDATE events SET confirmed_count = confirmed_count + :seats " +
+                   "WHERE id = :id AND confirmed_count + :seats <= capacity " +
+                   "RETURNING confirmed_count",
+           nativeQuery = true)
+    Optional<Integer> reserveSeats(@Param("id") Long id, @Param("seats") int seats);
+
+    // Give a seat back after a cancellation. Returns the new confirmed count.
+    @Query(value = "UPDATE events SET confirmed_count = confirmed_count - 1 " +
+                   "WHERE id = :id AND confirmed_count > 0 " +
+                   "RETURNING confirmed_count",
+           nativeQuery = true)
+    Optional<Integer> releaseSeat(@Param("id") Long id);
+
+    // Change capacity unless more seats than that are already confirmed. Serialized with
+    // reserveSeat on the row, so no seat can be taken between the check and the write.
+    // Returns the confirmed count, or empty when the new capacity is too low.
+    @Query(value = "UPDATE events SET capacity = :capacity " +
+                   "WHERE id = :id AND confirmed_count <= :capacity " +
+                   "RETURNING confirmed_count",
+           nativeQuery = true)
+    Optional<Integer> updateCapacity(@Param("id") Long id, @Param("capacity") int capacity);
+
+    // Read the maintained confirmed-registration counter
+    @Query("SELECT e.confirmedCount FROM Event e WHERE e.id = :id")
+    Optional<Integer> findConfirmedCountById(@Param("id") Long id);
+
+    // Registration mode only, for routing POST /register without loading the event
+    @Query("SELECT e.registrationMode FROM Event e WHERE e.id = :id")
+    Optional<RegistrationMode> findRegistrationModeById(@Param("id") Long id);
+
     // Find upcoming published events
     @Query("SELECT e FROM Event e WHERE e.status = 'PUBLISHED' AND e.startDate > :now ORDER BY e.startDate ASC")
     Page<Event> findUpcomingPublishedEvents(@Param("now") LocalDateTime now, Pageable pageable);
 
+    // Keyset page of event summaries in one status by (startDate, id), strictly after the cursor.
+    // The order is fixed here; pass PageRequest.of(0, size) and read the result as a Slice.
+    @Query(SUMMARY_SELECT + "WHERE e.status = :status AND e.startDate > :from " +
+           "AND e.startDate >= :afterStart AND (e.startDate > :afterStart OR e.id > :afterId) " +
+           "ORDER BY e.startDate ASC, e.id ASC")
+    Slice<EventSummary> findSummariesAfterCursor(
+            @Param("status") EventStatus status,
+            @Param("from") LocalDateTime from,
+            @Param("afterStart") LocalDateTime afterStart,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
+    // Keyset page of all event summaries (optionally one status), newest first by (createdAt, id)
+    @Query(SUMMARY_SELECT + "WHERE (:status IS NULL OR e.status = :status) " +
+           "AND e.createdAt <= :beforeCreated AND (e.createdAt < :beforeCreated OR e.id < :beforeId) " +
+           "ORDER BY e.createdAt DESC, e.id DESC")
+    Slice<EventSummary> findAllSummariesBeforeCursor(
+            @Param("status") EventStatus status,
+            @Param("beforeCreated") LocalDateTime beforeCreated,
+            @Param("beforeId") Long beforeId,
+            Pageable pageable
+    );
+
     // ── Analytics queries ──
 
     @Query(value = "SELECT e.title, COUNT(r.id) as reg_count, e.capacity " +
@@ -123,4 +260,66 @@ public interface EventRepository extends JpaRepository<Event, Long> {
     // Find published events starting in a time window (for reminders)
     @Query("SELECT e FROM Event e WHERE e.status = 'PUBLISHED' AND e.startDate BETWEEN :from AND :to")
     List<Event> findPublishedEventsBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Start dates and reminder offsets of published events (reminder timing wheel)
+    @Query("SELECT e.id AS id, e.startDate AS startDate, e.reminderOffsets AS reminderOffsets " +
+           "FROM Event e WHERE e.status = 'PUBLISHED' AND e.startDate BETWEEN :from AND :to")
+    List<ReminderSchedule> findReminderSchedules(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Indexed fields of every published event that has not started, for the in-memory search index
+    @Query("SELECT e.id AS id, e.title AS title, e.description AS description, e.category AS category, " +
+           "e.tags AS tags, e.startDate AS startDate FROM Event e " +
+           "WHERE e.status = 'PUBLISHED' AND e.startDate > :now")
+    List<CatalogEntry> findUpcomingCatalogEntries(@Param("now") LocalDateTime now);
+
+    /**
+     * What an event list view shows: no full description, organizer already joined.
+     */
+    interface EventSummary {
+        Long getId();
+        String getTitle();
+        String getExcerpt();
+        String getLocation();
+        LocalDateTime getStartDate();
+        LocalDateTime getEndDate();
+        Integer getCapacity();
+        EventStatus getStatus();
+        EventCategory getCategory();
+        String getTags();
+        String getBannerUrl();
+        RegistrationMode getRegistrationMode();
+        LocalDateTime getCreatedAt();
+        Long getOrganizerId();
+        String getOrganizerName();
+        String getOrganizerEmail();
+    }
+
+    /**
+     * The fields EventCatalogIndex indexes.
+     */
+    interface CatalogEntry {
+        Long getId();
+        String getTitle();
+        String getDescription();
+        EventCategory getCategory();
+        String getTags();
+        LocalDateTime getStartDate();
+    }
+
+    /**
+     * A tag and the number of published events carrying it.
+     */
+    interface TagCount {
+        String getTag();
+        Long getCount();
+    }
+
+    /**
+     * When an event's reminders are due.
+     */
+    interface ReminderSchedule {
+        Long getId();
+        LocalDateTime getStartDate();
+        String getReminderOffsets();
+    }
 }
\ No newline at end of file
@@ -1,9 +1,10 @@
 package com.emconnect.api.repository;
 
 import com.emconnect.api.entity.LoginActivity;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,7 +14,12 @@ public interface LoginActivityRepository extends JpaRepository<LoginActivity, Lo
 
     List<LoginActivity> findTop10ByUserIdOrderByCreatedAtDesc(Long userId);
 
-    Page<LoginActivity> findByUserIdOrderByCreatedAtAsc(Long userId, Pageable pageable);
-
-    long countByUserId(Long userId);
+    // Retention: delete every row beyond each user's latest :keep, in one statement
+    @Modifying
+    @Query(value = "DELETE FROM login_activity WHERE id IN (" +
+                   "SELECT id FROM (SELECT id, ROW_NUMBER() OVER (" +
+                   "PARTITION BY user_id ORDER BY created_at DESC, id DESC) AS rn " +
+                   "FROM login_activity) ranked WHERE ranked.rn > :keep)",
+           nativeQuery = true)
+    int deleteBeyondLatest(@Param("keep") int keep);
 }
@@ -0,0 +1,45 @@
+package com.emconnect.api.repository;
+
+import com.emconnect.api.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    // Revoke the token if it is still usable and return it. Concurrent refreshes with
+    // the same token serialize on the row, so only one of them gets it.
+    @Query(value = "UPDATE refresh_tokens SET revoked_at = LOCALTIMESTAMP, rotated_at = LOCALTIMESTAMP " +
+                   "WHERE token_hash = :tokenHash AND revoked_at IS NULL AND expires_at > LOCALTIMESTAMP " +
+                   "RETURNING *",
+           nativeQuery = true)
+    Optional<RefreshToken> consume(@Param("tokenHash") String tokenHash);
+
+    // The token if it was rotated within the last graceMs and its family still has a
+    // live token, i.e. another tab refreshed with it a moment ago
+    @Query(value = "SELECT t.* FROM refresh_tokens t " +
+                   "WHERE t.token_hash = :tokenHash " +
+                   "AND t.rotated_at > LOCALTIMESTAMP - :graceMs * interval '1 millisecond' " +
+                   "AND EXISTS (SELECT 1 FROM refresh_tokens s WHERE s.family_id = t.family_id " +
+                   "AND s.revoked_at IS NULL AND s.expires_at > LOCALTIMESTAMP)",
+           nativeQuery = true)
+    Optional<RefreshToken> findRecentlyRotated(@Param("tokenHash") String tokenHash, @Param("graceMs") long graceMs);
+
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revokedAt = CURRENT_TIMESTAMP " +
+           "WHERE t.familyId = :familyId AND t.revokedAt IS NULL")
+    int revokeFamily(@Param("familyId") UUID familyId);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < :before")
+    int deleteExpiredBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,61 @@
+package com.emconnect.api.repository;
+
+import com.emconnect.api.entity.RegistrationAttempt;
+import com.emconnect.api.entity.RegistrationAttemptStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface RegistrationAttemptRepository extends JpaRepository<RegistrationAttempt, Long> {
+
+    Optional<RegistrationAttempt> findByAttemptId(UUID attemptId);
+
+    Optional<RegistrationAttempt> findByEventIdAndUserIdAndStatus(
+            Long eventId, Long userId, RegistrationAttemptStatus status);
+
+    long countByStatus(RegistrationAttemptStatus status);
+
+    // Enqueue an attempt. Returns empty if the user already has a pending attempt for the event.
+    @Query(value = "INSERT INTO registration_attempts (attempt_id, event_id, user_id, status) " +
+                   "VALUES (:attemptId, :eventId, :userId, 'PENDING') " +
+                   "ON CONFLICT (event_id, user_id) WHERE status = 'PENDING' DO NOTHING " +
+                   "RETURNING id",
+           nativeQuery = true)
+    Optional<Long> enqueue(@Param("attemptId") UUID attemptId,
+                           @Param("eventId") Long eventId,
+                           @Param("userId") Long userId);
+
+    // Oldest pending attempts first (arrival order)
+    @Query(value = "SELECT id FROM registration_attempts WHERE status = 'PENDING' ORDER BY id LIMIT :limit",
+           nativeQuery = true)
+    List<Long> findPendingIds(@Param("limit") int limit);
+
+    // Claim one pending attempt; rows held by another instance are skipped, not waited on
+    @Query(value = "SELECT * FROM registration_attempts WHERE id = :id AND status = 'PENDING' " +
+                   "FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    Optional<RegistrationAttempt> claimPending(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE RegistrationAttempt a SET a.status = :status, a.reason = :reason, " +
+           "a.registrationId = :registrationId, a.processedAt = :processedAt " +
+           "WHERE a.id = :id AND a.status = com.emconnect.api.entity.RegistrationAttemptStatus.PENDING")
+    int settle(@Param("id") Long id,
+               @Param("status") RegistrationAttemptStatus status,
+               @Param("reason") String reason,
+               @Param("registrationId") Long registrationId,
+               @Param("processedAt") LocalDateTime processedAt);
+
+    @Modifying
+    @Query("DELETE FROM RegistrationAttempt a WHERE a.processedAt < :cutoff " +
+           "AND a.status <> com.emconnect.api.entity.RegistrationAttemptStatus.PENDING")
+    int deleteSettledBefore(@Param("cutoff") LocalDateTime cutoff);
+}
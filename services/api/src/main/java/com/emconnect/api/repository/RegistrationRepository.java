@@ -4,7 +4,10 @@ import com.emconnect.api.entity.Registration;
 import com.emconnect.api.entity.RegistrationStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -25,6 +28,37 @@ public interface RegistrationRepository extends JpaRepository<Registration, Long
     // Find registration by user and event
     Optional<Registration> findByUserIdAndEventId(Long userId, Long eventId);
 
+    // Lock the user's registration row for an event (serializes reactivation of the same registration)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Registration r WHERE r.user.id = :userId AND r.event.id = :eventId")
+    Optional<Registration> findByUserIdAndEventIdWithLock(
+            @Param("userId") Long userId,
+            @Param("eventId") Long eventId
+    );
+
+    // Lock a registration row (serializes concurrent cancellations of the same registration)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Registration r WHERE r.id = :id")
+    Optional<Registration> findByIdWithLock(@Param("id") Long id);
+
+    // ── Waitlist ──
+
+    @Query(value = "SELECT nextval('registration_waitlist_seq')", nativeQuery = true)
+    long nextWaitlistSeq();
+
+    // Waitlist order for one event (rebuilds the in-memory WaitlistIndex)
+    @Query(value = "SELECT waitlist_seq FROM registrations " +
+                   "WHERE event_id = :eventId AND status = 'WAITLISTED' ORDER BY waitlist_seq",
+           nativeQuery = true)
+    List<Long> findWaitlistSeqs(@Param("eventId") Long eventId);
+
+    // Lock the head of the waitlist for promotion; rows being cancelled right now are skipped
+    @Query(value = "SELECT * FROM registrations " +
+                   "WHERE event_id = :eventId AND status = 'WAITLISTED' " +
+                   "ORDER BY waitlist_seq LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<Registration> findWaitlistHeadForUpdate(@Param("eventId") Long eventId, @Param("limit") int limit);
+
     // Find by ticket code
     Optional<Registration> findByTicketCode(String ticketCode);
 
@@ -40,6 +74,31 @@ public interface RegistrationRepository extends JpaRepository<Registration, Long
     // Get active registrations for an event
     Page<Registration> findByEventIdAndStatus(Long eventId, RegistrationStatus status, Pageable pageable);
 
+    // Keyset page of an event's registrations, oldest first by (registeredAt, id).
+    // The order is fixed here; pass PageRequest.of(0, size) and read the result as a Slice.
+    @Query("SELECT r FROM Registration r JOIN FETCH r.event JOIN FETCH r.user WHERE r.event.id = :eventId " +
+           "AND r.registeredAt >= :afterAt AND (r.registeredAt > :afterAt OR r.id > :afterId) " +
+           "ORDER BY r.registeredAt ASC, r.id ASC")
+    Slice<Registration> findByEventIdAfterCursor(
+            @Param("eventId") Long eventId,
+            @Param("afterAt") LocalDateTime afterAt,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
+    // Keyset page of a user's registrations (optionally one status), newest first by (registeredAt, id)
+    @Query("SELECT r FROM Registration r JOIN FETCH r.event JOIN FETCH r.user WHERE r.user.id = :userId " +
+           "AND (:status IS NULL OR r.status = :status) " +
+           "AND r.registeredAt <= :beforeAt AND (r.registeredAt < :beforeAt OR r.id < :beforeId) " +
+           "ORDER BY r.registeredAt DESC, r.id DESC")
+    Slice<Registration> findByUserIdBeforeCursor(
+            @Param("userId") Long userId,
+            @Param("status") RegistrationStatus status,
+            @Param("beforeAt") LocalDateTime beforeAt,
+            @Param("beforeId") Long beforeId,
+            Pageable pageable
+    );
+
     // Count active registrations for an event (for capacity check)
     long countByEventIdAndStatus(Long eventId, RegistrationStatus status);
 
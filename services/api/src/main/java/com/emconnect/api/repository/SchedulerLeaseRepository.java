@@ -0,0 +1,41 @@
+package com.emconnect.api.repository;
+
+import com.emconnect.api.entity.SchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+
+    // Take the lease if it is free or expired. Times come from the database clock so
+    // replicas with skewed clocks agree. Returns the new fencing token, or empty when
+    // another owner holds the lease.
+    @Query(value = "INSERT INTO scheduler_leases (name, owner, fencing_token, acquired_at, expires_at) " +
+                   "VALUES (:name, :owner, 1, now(), now() + :ttlMs * interval '1 millisecond') " +
+                   "ON CONFLICT (name) DO UPDATE SET owner = EXCLUDED.owner, " +
+                   "fencing_token = scheduler_leases.fencing_token + 1, " +
+                   "acquired_at = EXCLUDED.acquired_at, expires_at = EXCLUDED.expires_at " +
+                   "WHERE scheduler_leases.expires_at <= now() " +
+                   "RETURNING fencing_token",
+           nativeQuery = true)
+    Optional<Long> tryAcquire(@Param("name") String name, @Param("owner") String owner, @Param("ttlMs") long ttlMs);
+
+    // Keep the lease until at least acquired_at + minHoldMs, so other replicas skip this run
+    @Modifying
+    @Query(value = "UPDATE scheduler_leases " +
+                   "SET expires_at = GREATEST(now(), acquired_at + :minHoldMs * interval '1 millisecond') " +
+                   "WHERE name = :name AND fencing_token = :token",
+           nativeQuery = true)
+    int release(@Param("name") String name, @Param("token") long token, @Param("minHoldMs") long minHoldMs);
+
+    // Leases nobody has held for a while (e.g. one-off per-reminder leases)
+    @Modifying
+    @Query(value = "DELETE FROM scheduler_leases WHERE expires_at < now() - :idleMs * interval '1 millisecond'",
+           nativeQuery = true)
+    int deleteExpired(@Param("idleMs") long idleMs);
+}
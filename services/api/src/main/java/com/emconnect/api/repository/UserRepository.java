@@ -25,4 +25,18 @@ public interface UserRepository extends JpaRepository<User, Long> {
                    "FROM users WHERE created_at >= :since " +
                    "GROUP BY CAST(created_at AS DATE) ORDER BY reg_date", nativeQuery = true)
     List<Object[]> countDailyNewUsers(@Param("since") LocalDateTime since);
-}
\ No newline at end of file
+
+    // ── Token versions ──
+
+    @Query("SELECT u.id AS id, u.tokenVersion AS tokenVersion FROM User u " +
+           "WHERE u.tokenVersion > 0 AND u.updatedAt >= :since")
+    List<TokenVersion> findBumpedTokenVersionsSince(@Param("since") LocalDateTime since);
+
+    /**
+     * A user's current token version.
+     */
+    interface TokenVersion {
+        Long getId();
+        Integer getTokenVersion();
+    }
+}
@@ -0,0 +1,12 @@
+package com.emconnect.api.scheduling;
+
+/**
+ * A held scheduler lease.
+ *
+ * fencingToken increases with every acquisition of the same lease name. Writes made
+ * under a lease can be guarded with it (EventReminderScheduler only inserts reminder
+ * rows while its token is current), so a replica that stalled past expiry cannot
+ * overwrite the work of the next holder.
+ */
+public record Lease(String name, long fencingToken) {
+}
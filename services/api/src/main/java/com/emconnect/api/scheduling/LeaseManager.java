@@ -0,0 +1,105 @@
+package com.emconnect.api.scheduling;
+
+import com.emconnect.api.repository.SchedulerLeaseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Cluster-wide locks for scheduled jobs, backed by the scheduler_leases table.
+ *
+ * Every replica runs the same @Scheduled methods; wrapping the body in runExclusively
+ * makes only the replica that wins the lease do the work. A lease expires after
+ * lockAtMostFor (so a crashed holder doesn't block the job forever) and, once
+ * released, is kept until lockAtLeastFor so replicas whose schedules are slightly
+ * offset don't repeat the run.
+ */
+@Component
+public class LeaseManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaseManager.class);
+
+    private final SchedulerLeaseRepository leaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String owner;
+
+    public LeaseManager(SchedulerLeaseRepository leaseRepository, PlatformTransactionManager transactionManager) {
+        this.leaseRepository = leaseRepository;
+        // Lease changes commit on their own, even when called inside another transaction
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.owner = hostName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Run the task if this replica gets the lease. Returns false if another replica holds it.
+     */
+    public boolean runExclusively(String name, Duration lockAtMostFor, Duration lockAtLeastFor,
+                                  Consumer<Lease> task) {
+        Optional<Lease> acquired = tryAcquire(name, lockAtMostFor);
+        if (acquired.isEmpty()) {
+            logger.debug("Skipping {}: lease held by another replica", name);
+            return false;
+        }
+
+        Lease lease = acquired.get();
+        try {
+            task.accept(lease);
+        } finally {
+            release(lease, lockAtLeastFor);
+        }
+        return true;
+    }
+
+    private Optional<Lease> tryAcquire(String name, Duration lockAtMostFor) {
+        try {
+            Optional<Long> token = transactionTemplate.execute(
+                    status -> leaseRepository.tryAcquire(name, owner, lockAtMostFor.toMillis()));
+            return token == null ? Optional.empty()
+                    : token.map(t -> new Lease(name, t));
+        } catch (Exception e) {
+            logger.error("Failed to acquire scheduler lease {}: {}", name, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void release(Lease lease, Duration lockAtLeastFor) {
+        try {
+            transactionTemplate.executeWithoutResult(
+                    status -> leaseRepository.release(lease.name(), lease.fencingToken(), lockAtLeastFor.toMillis()));
+        } catch (Exception e) {
+            // The lease still expires on its own
+            logger.warn("Failed to release scheduler lease {}: {}", lease.name(), e.getMessage());
+        }
+    }
+
+    /**
+     * Remove leases that expired more than a day ago.
+     */
+    @Scheduled(fixedDelay = 3600000) // 1 hour
+    public void purgeExpiredLeases() {
+        Integer deleted = transactionTemplate.execute(
+                status -> leaseRepository.deleteExpired(Duration.ofDays(1).toMillis()));
+        if (deleted != null && deleted > 0) {
+            logger.info("Purged {} expired scheduler leases", deleted);
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown-host";
+        }
+    }
+}
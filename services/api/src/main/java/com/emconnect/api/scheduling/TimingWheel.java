@@ -0,0 +1,127 @@
+package com.emconnect.api.scheduling;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel.
+ *
+ * Level 0 has wheelSize slots of tickMs each; every higher level's slot spans a
+ * full rotation of the level below. A task goes into the lowest level whose current
+ * rotation contains its due tick. When the clock reaches a coarse slot, its tasks
+ * are re-placed on finer levels until they land on level 0 and fire. Adding and
+ * firing cost O(levels) per task, however many tasks are waiting.
+ *
+ * Not tied to a thread: the owner calls advance(now) periodically and runs what it
+ * returns. Tasks due beyond the top level's horizon are rejected.
+ */
+public class TimingWheel<T> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long startMs;
+    private final long[] slotTicks;      // ticks covered by one slot at each level
+    private final List<List<Entry<T>>> slots;
+    private final List<T> overdue = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    public TimingWheel(long tickMs, int wheelSize, int levels, long startMs) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.startMs = startMs;
+        this.slotTicks = new long[levels];
+        this.slots = new ArrayList<>(levels * wheelSize);
+        long ticks = 1;
+        for (int level = 0; level < levels; level++) {
+            slotTicks[level] = ticks;
+            ticks *= wheelSize;
+        }
+        for (int i = 0; i < levels * wheelSize; i++) {
+            slots.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * How far ahead of the current time add() is guaranteed to accept.
+     */
+    public long horizonMs() {
+        return (slotTicks[slotTicks.length - 1] * (wheelSize - 1)) * tickMs;
+    }
+
+    /**
+     * Schedule a task. Tasks already due are returned by the next advance().
+     * Returns false if dueMs is beyond the horizon.
+     */
+    public synchronized boolean add(long dueMs, T task) {
+        long dueTick = Math.max(0, Math.floorDiv(dueMs - startMs, tickMs));
+        if (!place(new Entry<>(dueTick, task))) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Move the wheel to nowMs and return the tasks that became due, in due order.
+     */
+    public synchronized List<T> advance(long nowMs) {
+        List<T> due = new ArrayList<>(overdue);
+        overdue.clear();
+
+        long targetTick = Math.floorDiv(nowMs - startMs, tickMs);
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Cascade coarse slots that start at this tick, highest level first
+            for (int level = slotTicks.length - 1; level > 0; level--) {
+                if (currentTick % slotTicks[level] == 0) {
+                    List<Entry<T>> slot = slot(level, currentTick);
+                    List<Entry<T>> entries = new ArrayList<>(slot);
+                    slot.clear();
+                    entries.forEach(this::place);
+                }
+            }
+            List<Entry<T>> slot = slot(0, currentTick);
+            for (Entry<T> entry : slot) {
+                due.add(entry.task());
+            }
+            slot.clear();
+            due.addAll(overdue);
+            overdue.clear();
+        }
+        size -= due.size();
+        return due;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private boolean place(Entry<T> entry) {
+        if (entry.dueTick() <= currentTick) {
+            overdue.add(entry.task());
+            return true;
+        }
+        int top = slotTicks.length - 1;
+        for (int level = 0; level < top; level++) {
+            long rotation = slotTicks[level] * wheelSize;
+            if (entry.dueTick() / rotation == currentTick / rotation) {
+                slot(level, entry.dueTick()).add(entry);
+                return true;
+            }
+        }
+        // The top level wraps around: any of the next wheelSize - 1 slots
+        if (entry.dueTick() / slotTicks[top] - currentTick / slotTicks[top] < wheelSize) {
+            slot(top, entry.dueTick()).add(entry);
+            return true;
+        }
+        return false;
+    }
+
+    private List<Entry<T>> slot(int level, long tick) {
+        return slots.get(level * wheelSize + (int) ((tick / slotTicks[level]) % wheelSize));
+    }
+
+    private record Entry<T>(long dueTick, T task) {
+    }
+}
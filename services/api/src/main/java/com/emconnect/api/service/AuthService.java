@@ -1,52 +1,56 @@
 package com.emconnect.api.service;
 
+import com.emconnect.api.config.AuthenticatedUser;
 import com.emconnect.api.dto.AuthResponse;
 import com.emconnect.api.dto.LoginRequest;
 import com.emconnect.api.dto.RegisterRequest;
 import com.emconnect.api.dto.UserResponse;
-import com.emconnect.api.entity.LoginActivity;
 import com.emconnect.api.entity.User;
 import com.emconnect.api.event.UserLoginEvent;
 import com.emconnect.api.event.UserRegisteredEvent;
 import com.emconnect.api.exception.EmailAlreadyExistsException;
 import com.emconnect.api.exception.InvalidCredentialsException;
-import com.emconnect.api.repository.LoginActivityRepository;
 import com.emconnect.api.repository.UserRepository;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Map;
 
 @Service
 public class AuthService {
 
-    private static final int LOGIN_ACTIVITY_RETENTION_LIMIT = 100;
-
     private final UserRepository userRepository;
-    private final LoginActivityRepository loginActivityRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final LoginActivityRecorder loginActivityRecorder;
+    private final PasswordHasher passwordHasher;
     private final JwtService jwtService;
     private final EventPublisher eventPublisher;
+    private final GoogleIdTokenVerifier googleIdTokenVerifier;
+    private final RefreshTokenService refreshTokenService;
+    private final RevokedTokenRegistry revokedTokenRegistry;
+    private final UserCache userCache;
 
     @Value("${google.oauth.client-id:}")
     private String googleClientId;
 
     public AuthService(UserRepository userRepository,
-                       LoginActivityRepository loginActivityRepository,
-                       PasswordEncoder passwordEncoder,
+                       LoginActivityRecorder loginActivityRecorder,
+                       PasswordHasher passwordHasher,
                        JwtService jwtService,
-                       EventPublisher eventPublisher) {
+                       EventPublisher eventPublisher,
+                       GoogleIdTokenVerifier googleIdTokenVerifier,
+                       RefreshTokenService refreshTokenService,
+                       RevokedTokenRegistry revokedTokenRegistry,
+                       UserCache userCache) {
         this.userRepository = userRepository;
-        this.loginActivityRepository = loginActivityRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.loginActivityRecorder = loginActivityRecorder;
+        this.passwordHasher = passwordHasher;
         this.jwtService = jwtService;
         this.eventPublisher = eventPublisher;
+        this.googleIdTokenVerifier = googleIdTokenVerifier;
+        this.refreshTokenService = refreshTokenService;
+        this.revokedTokenRegistry = revokedTokenRegistry;
+        this.userCache = userCache;
     }
 
     public AuthResponse register(RegisterRequest request) {
@@ -60,7 +64,7 @@ public class AuthService {
         // Create new user
         User user = new User(
             request.getEmail(),
-            passwordEncoder.encode(request.getPassword()),
+            passwordHasher.encode(request.getPassword()),
             request.getName()
         );
 
@@ -71,7 +75,8 @@ public class AuthService {
         String token = jwtService.generateToken(
             savedUser.getId(),
             savedUser.getEmail(),
-            savedUser.getRole()
+            savedUser.getRole(),
+            savedUser.getTokenVersion()
         );
 
         // Publish welcome event
@@ -81,7 +86,8 @@ public class AuthService {
         return new AuthResponse(
             "Registration successful",
             new UserResponse(savedUser),
-            token
+            token,
+            refreshTokenService.issue(savedUser)
         );
     }
 
@@ -104,15 +110,23 @@ public class AuthService {
         }
 
         // Check password
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        if (!passwordHasher.matches(request.getPassword(), user.getPassword())) {
             throw new InvalidCredentialsException("Invalid email or password");
         }
 
+        // Rewrite hashes made with an older format or a lower cost while we have the password
+        if (passwordHasher.needsRehash(user.getPassword())) {
+            user.setPassword(passwordHasher.encode(request.getPassword()));
+            user = userRepository.save(user);
+            userCache.evict(user);
+        }
+
         // Generate JWT token
         String token = jwtService.generateToken(
             user.getId(),
             user.getEmail(),
-            user.getRole()
+            user.getRole(),
+            user.getTokenVersion()
         );
 
         // Publish login event
@@ -123,13 +137,14 @@ public class AuthService {
         return new AuthResponse(
             "Login successful",
             new UserResponse(user),
-            token
+            token,
+            refreshTokenService.issue(user)
         );
     }
 
     /**
      * Authenticate or register a user via Google OAuth2 ID token.
-     * Verifies the token with Google's tokeninfo endpoint, then finds or creates the user.
+     * Verifies the token against Google's signing keys, then finds or creates the user.
      */
     public AuthResponse googleLogin(String credential) {
         return googleLogin(credential, null, null);
@@ -140,8 +155,8 @@ public class AuthService {
             throw new IllegalStateException("Google OAuth is not configured");
         }
 
-        // Verify the ID token with Google
-        Map<String, Object> claims = verifyGoogleIdToken(credential);
+        // Verify the ID token locally against Google's cached signing keys
+        Map<String, Object> claims = googleIdTokenVerifier.verify(credential);
 
         String email = (String) claims.get("email");
         String name = (String) claims.get("name");
@@ -173,13 +188,15 @@ public class AuthService {
                 user.setAvatarUrl(picture);
             }
             user = userRepository.save(user);
+            userCache.evict(user);
         }
 
         // Generate JWT token
         String token = jwtService.generateToken(
             user.getId(),
             user.getEmail(),
-            user.getRole()
+            user.getRole(),
+            user.getTokenVersion()
         );
 
         // Publish Google login event
@@ -189,32 +206,55 @@ public class AuthService {
         return new AuthResponse(
             "Google login successful",
             new UserResponse(user),
-            token
+            token,
+            refreshTokenService.issue(user)
+        );
+    }
+
+    /**
+     * Exchange a refresh token for a new access token and the next refresh token.
+     */
+    public AuthResponse refresh(String refreshToken) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+        User user = rotation.user();
+
+        String token = jwtService.generateToken(
+            user.getId(),
+            user.getEmail(),
+            user.getRole(),
+            user.getTokenVersion()
+        );
+
+        return new AuthResponse(
+            "Token refreshed",
+            new UserResponse(user),
+            token,
+            rotation.refreshToken()
         );
     }
 
+    /**
+     * Sign out: end the refresh token's session and revoke the access token in use.
+     * Either may be missing.
+     */
+    @Transactional
+    public void logout(String refreshToken, AuthenticatedUser user) {
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenService.revoke(refreshToken);
+        }
+        if (user != null) {
+            revokedTokenRegistry.revoke(user.tokenId());
+        }
+    }
+
     private void recordLoginActivity(User user, String loginMethod, String sourceIp, String userAgent) {
-        LoginActivity activity = new LoginActivity(
-                user,
+        // Buffered and written in batches; retention is trimmed by a periodic job
+        loginActivityRecorder.record(
+                user.getId(),
                 loginMethod,
                 sanitize(sourceIp, 64),
                 sanitize(userAgent, 500)
         );
-        loginActivityRepository.save(activity);
-
-        long total = loginActivityRepository.countByUserId(user.getId());
-        if (total <= LOGIN_ACTIVITY_RETENTION_LIMIT) {
-            return;
-        }
-
-        int overflow = (int) (total - LOGIN_ACTIVITY_RETENTION_LIMIT);
-        var oldest = loginActivityRepository
-                .findByUserIdOrderByCreatedAtAsc(user.getId(), PageRequest.of(0, overflow))
-                .getContent();
-
-        if (!oldest.isEmpty()) {
-            loginActivityRepository.deleteAll(oldest);
-        }
     }
 
     private String sanitize(String value, int maxLength) {
@@ -225,43 +265,4 @@ public class AuthService {
         String trimmed = value.trim();
         return trimmed.length() <= maxLength ? trimmed : trimmed.substring(0, maxLength);
     }
-
-    /**
-     * Call Google's tokeninfo endpoint to verify the ID token.
-     * Returns the claims map if valid, throws if invalid.
-     */
-    private Map<String, Object> verifyGoogleIdToken(String idToken) {
-        try {
-            RestTemplate rest = new RestTemplate();
-            String url = "https://oauth2.googleapis.com/tokeninfo?id_token=" + idToken;
-
-            @SuppressWarnings("null")
-            ResponseEntity<Map<String, Object>> response = rest.exchange(
-                url,
-                HttpMethod.GET,
-                null,
-                new ParameterizedTypeReference<Map<String, Object>>() {}
-            );
-
-            Map<String, Object> claims = response.getBody();
-
-            if (claims == null) {
-                throw new InvalidCredentialsException("Invalid Google token");
-            }
-
-            // Verify audience matches our client ID
-            String aud = (String) claims.get("aud");
-            if (!googleClientId.equals(aud)) {
-                throw new InvalidCredentialsException(
-                    "Google token was not issued for this application"
-                );
-            }
-
-            return claims;
-        } catch (InvalidCredentialsException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new InvalidCredentialsException("Failed to verify Google token: " + e.getMessage());
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,504 @@
+package com.emconnect.api.service;
+
+import com.emconnect.api.entity.Event;
+import com.emconnect.api.entity.EventCategory;
+import com.emconnect.api.repository.EventRepository;
+import com.emconnect.api.repository.EventRepository.CatalogEntry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index of upcoming published events for search-as-you-type.
+ *
+ * Tokens from the title, description, category and tags map to sorted int posting
+ * lists of event slots, and a prefix trie over the tokens expands each typed word to
+ * the tokens it starts. A suggestion query ANDs the words together on a BitSet and
+ * picks the best few events (title matches first, then soonest start) with a bounded
+ * selection over primitive start-time keys, without touching the database. Events
+ * that have already started are never suggested.
+ *
+ * The index is rebuilt from EventRepository at startup and every
+ * catalog-index.rebuild-interval-ms, which picks up changes made through other
+ * replicas and drops events that have started since. EventService updates it after commit when an event is published,
+ * cancelled or completed. Changes that land during a rebuild are replayed onto the
+ * new index before it is swapped in.
+ */
+@Service
+public class EventCatalogIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventCatalogIndex.class);
+
+    public static final int MAX_LIMIT = 20;
+
+    private final EventRepository eventRepository;
+    private final Timer suggestTimer;
+
+    private volatile Catalog catalog = new Catalog();
+    private final Object swapLock = new Object();
+    // Changes applied while a rebuild is loading; guarded by swapLock
+    private List<Consumer<Catalog>> duringRebuild;
+
+    public EventCatalogIndex(EventRepository eventRepository, MeterRegistry meterRegistry) {
+        this.eventRepository = eventRepository;
+        Gauge.builder("emconnect.catalog_index.events", this, index -> index.catalog.size())
+                .description("Published events in the search index")
+                .register(meterRegistry);
+        this.suggestTimer = Timer.builder("emconnect.catalog_index.suggest")
+                .description("Suggestion lookups against the in-memory index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Load all upcoming published events into a fresh index and swap it in.
+     */
+    @Scheduled(fixedDelayString = "${catalog-index.rebuild-interval-ms:60000}")
+    public void rebuild() {
+        synchronized (swapLock) {
+            duringRebuild = new ArrayList<>();
+        }
+        Catalog fresh = new Catalog();
+        try {
+            for (CatalogEntry entry : eventRepository.findUpcomingCatalogEntries(LocalDateTime.now())) {
+                fresh.put(Catalog.entry(entry.getId(), entry.getTitle(), entry.getDescription(),
+                        entry.getCategory(), tagList(entry.getTags()), entry.getStartDate()));
+            }
+        } catch (Exception e) {
+            synchronized (swapLock) {
+                duringRebuild = null;
+            }
+            logger.warn("Failed to rebuild the event search index: {}", e.getMessage());
+            return;
+        }
+        synchronized (swapLock) {
+            duringRebuild.forEach(change -> change.accept(fresh));
+            duringRebuild = null;
+            catalog = fresh;
+        }
+        logger.debug("Event search index rebuilt: {} events", fresh.size());
+    }
+
+    /**
+     * Words completing the query's last word, and the best matching events.
+     */
+    public Catalog.Suggestions suggest(String query, int limit) {
+        int bounded = Math.max(1, Math.min(limit, MAX_LIMIT));
+        return suggestTimer.record(() -> catalog.suggest(query, bounded));
+    }
+
+    /**
+     * Add or refresh the event once the current transaction commits.
+     */
+    public void indexAfterCommit(Event event) {
+        Catalog.Entry entry = Catalog.entry(event.getId(), event.getTitle(), event.getDescription(),
+                event.getCategory(), event.getTagList(), event.getStartDate());
+        afterCommit(() -> apply(catalog -> catalog.put(entry)));
+    }
+
+    /**
+     * Drop the event once the current transaction commits.
+     */
+    public void removeAfterCommit(Long eventId) {
+        afterCommit(() -> apply(catalog -> catalog.remove(eventId)));
+    }
+
+    private void apply(Consumer<Catalog> change) {
+        synchronized (swapLock) {
+            change.accept(catalog);
+            if (duringRebuild != null) {
+                duringRebuild.add(change);
+            }
+        }
+    }
+
+    private static List<String> tagList(String tags) {
+        return tags == null || tags.isBlank() ? List.of() : Arrays.asList(tags.split(","));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * The index itself: slots, posting lists and the token trie, behind a read-write lock.
+     */
+    public static final class Catalog {
+
+        private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+        // Long descriptions add little to suggestions; bound their share of the index
+        private static final int MAX_DESCRIPTION_TOKENS = 200;
+        // Tokens one typed word may expand to, shortest first
+        private static final int MAX_EXPANSIONS = 64;
+
+        /**
+         * An indexed event and the tokens it was indexed under.
+         */
+        public record Entry(long id, String title, EventCategory category, LocalDateTime startDate,
+                            String[] tokens, String[] titleTokens) {
+        }
+
+        /**
+         * Completions of the last typed word (most used first) and matching events.
+         */
+        public record Suggestions(List<String> terms, List<Entry> events) {
+        }
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<Long, Integer> slots = new HashMap<>();
+        private final Map<String, Postings> postings = new HashMap<>();
+        // Same tokens, title only; used to rank title matches first
+        private final Map<String, Postings> titlePostings = new HashMap<>();
+        private final TrieNode root = new TrieNode();
+        private Entry[] entries = new Entry[64];
+        // Start time per slot in epoch seconds, the ranking key
+        private long[] startKeys = new long[64];
+        private int slotCount;
+        private int[] freeSlots = new int[16];
+        private int freeCount;
+
+        public static Entry entry(long id, String title, String description, EventCategory category,
+                                  List<String> tags, LocalDateTime startDate) {
+            Set<String> titleTokens = tokenize(title, Integer.MAX_VALUE);
+            Set<String> tokens = new LinkedHashSet<>(titleTokens);
+            tokens.addAll(tokenize(description, MAX_DESCRIPTION_TOKENS));
+            if (category != null) {
+                tokens.addAll(tokenize(category.name(), Integer.MAX_VALUE));
+            }
+            for (String tag : tags) {
+                tokens.addAll(tokenize(tag, Integer.MAX_VALUE));
+            }
+            return new Entry(id, title, category, startDate,
+                    tokens.toArray(String[]::new), titleTokens.toArray(String[]::new));
+        }
+
+        static Set<String> tokenize(String text, int max) {
+            Set<String> tokens = new LinkedHashSet<>();
+            if (text == null) {
+                return tokens;
+            }
+            for (String token : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+                if (tokens.size() >= max) {
+                    break;
+                }
+                if (!token.isEmpty()) {
+                    tokens.add(token);
+                }
+            }
+            return tokens;
+        }
+
+        public int size() {
+            lock.readLock().lock();
+            try {
+                return slots.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        public void put(Entry entry) {
+            lock.writeLock().lock();
+            try {
+                removeLocked(entry.id());
+                int slot = freeCount > 0 ? freeSlots[--freeCount] : slotCount++;
+                if (slot >= entries.length) {
+                    entries = Arrays.copyOf(entries, entries.length * 2);
+                    startKeys = Arrays.copyOf(startKeys, entries.length);
+                }
+                entries[slot] = entry;
+                startKeys[slot] = entry.startDate() != null
+                        ? entry.startDate().toEpochSecond(ZoneOffset.UTC) : Long.MAX_VALUE;
+                slots.put(entry.id(), slot);
+                for (String token : entry.tokens()) {
+                    postings.computeIfAbsent(token, t -> {
+                        root.insert(t, 0);
+                        return new Postings();
+                    }).add(slot);
+                }
+                for (String token : entry.titleTokens()) {
+                    titlePostings.computeIfAbsent(token, t -> new Postings()).add(slot);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        public void remove(long id) {
+            lock.writeLock().lock();
+            try {
+                removeLocked(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void removeLocked(long id) {
+            Integer slot = slots.remove(id);
+            if (slot == null) {
+                return;
+            }
+            for (String token : entries[slot].tokens()) {
+                Postings list = postings.get(token);
+                list.remove(slot);
+                if (list.size == 0) {
+                    postings.remove(token);
+                    root.remove(token, 0);
+                }
+            }
+            for (String token : entries[slot].titleTokens()) {
+                Postings list = titlePostings.get(token);
+                list.remove(slot);
+                if (list.size == 0) {
+                    titlePostings.remove(token);
+                }
+            }
+            entries[slot] = null;
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+        }
+
+        public Suggestions suggest(String query, int limit) {
+            // Started events wait in the index until the next rebuild; skip them
+            long now = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+            List<String> words = new ArrayList<>(tokenize(query, 8));
+            if (words.isEmpty()) {
+                return new Suggestions(List.of(), List.of());
+            }
+            lock.readLock().lock();
+            try {
+                // Every word must match (as a prefix) some token of the event
+                BitSet matches = null;
+                List<String> lastExpansion = List.of();
+                for (String word : words) {
+                    lastExpansion = root.expand(word);
+                    BitSet bits = new BitSet(slotCount);
+                    for (String token : lastExpansion) {
+                        postings.get(token).addTo(bits);
+                    }
+                    if (matches == null) {
+                        matches = bits;
+                    } else {
+                        matches.and(bits);
+                    }
+                    if (matches.isEmpty()) {
+                        break;
+                    }
+                }
+
+                // Events whose title has a token completing the last word rank first
+                BitSet titleMatches = new BitSet(slotCount);
+                for (String token : lastExpansion) {
+                    Postings list = titlePostings.get(token);
+                    if (list != null) {
+                        list.addTo(titleMatches);
+                    }
+                }
+                titleMatches.and(matches);
+                matches.andNot(titleMatches);
+
+                List<Entry> events = new ArrayList<>(limit);
+                soonest(titleMatches, now, limit, events);
+                soonest(matches, now, limit - events.size(), events);
+
+                List<String> terms = lastExpansion.stream()
+                        .sorted(Comparator.comparingInt((String token) -> -postings.get(token).size)
+                                .thenComparing(Comparator.naturalOrder()))
+                        .limit(limit)
+                        .toList();
+                return new Suggestions(terms, events);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        // Appends the `limit` soonest events in the set starting after `now`, soonest first.
+        // Slots are kept in a small array sorted by start key; most candidates are
+        // rejected by one comparison.
+        private void soonest(BitSet candidates, long now, int limit, List<Entry> out) {
+            if (limit <= 0) {
+                return;
+            }
+            int[] best = new int[limit];
+            int count = 0;
+            for (int slot = candidates.nextSetBit(0); slot >= 0; slot = candidates.nextSetBit(slot + 1)) {
+                long key = startKeys[slot];
+                if (key <= now || count == limit && key >= startKeys[best[count - 1]]) {
+                    continue;
+                }
+                int index = count < limit ? count++ : count - 1;
+                while (index > 0 && startKeys[best[index - 1]] > key) {
+                    best[index] = best[index - 1];
+                    index--;
+                }
+                best[index] = slot;
+            }
+            for (int i = 0; i < count; i++) {
+                out.add(entries[best[i]]);
+            }
+        }
+    }
+
+    /**
+     * Sorted, growable int array of slots.
+     */
+    static final class Postings {
+
+        private int[] slots = new int[4];
+        private int size;
+
+        void add(int slot) {
+            int index = Arrays.binarySearch(slots, 0, size, slot);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            System.arraycopy(slots, index, slots, index + 1, size - index);
+            slots[index] = slot;
+            size++;
+        }
+
+        void remove(int slot) {
+            int index = Arrays.binarySearch(slots, 0, size, slot);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(slots, index + 1, slots, index, size - index - 1);
+            size--;
+        }
+
+        void addTo(BitSet bits) {
+            for (int i = 0; i < size; i++) {
+                bits.set(slots[i]);
+            }
+        }
+    }
+
+    /**
+     * Character trie over indexed tokens; a node marks a token when `token` is set.
+     */
+    static final class TrieNode {
+
+        private char[] keys = new char[0];
+        private TrieNode[] children = new TrieNode[0];
+        private String token;
+
+        void insert(String word, int depth) {
+            if (depth == word.length()) {
+                token = word;
+                return;
+            }
+            char key = word.charAt(depth);
+            int index = Arrays.binarySearch(keys, key);
+            if (index < 0) {
+                index = -index - 1;
+                keys = insertAt(keys, index, key);
+                children = insertAt(children, index, new TrieNode());
+            }
+            children[index].insert(word, depth + 1);
+        }
+
+        // Returns whether this node is now empty and can be pruned
+        boolean remove(String word, int depth) {
+            if (depth == word.length()) {
+                token = null;
+            } else {
+                int index = Arrays.binarySearch(keys, word.charAt(depth));
+                if (index >= 0 && children[index].remove(word, depth + 1)) {
+                    keys = removeAt(keys, index);
+                    children = removeAt(children, index);
+                }
+            }
+            return token == null && keys.length == 0;
+        }
+
+        // Tokens starting with the prefix, shortest first, at most MAX_EXPANSIONS
+        List<String> expand(String prefix) {
+            TrieNode node = this;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                int index = Arrays.binarySearch(node.keys, prefix.charAt(i));
+                node = index >= 0 ? node.children[index] : null;
+            }
+            List<String> tokens = new ArrayList<>();
+            if (node == null) {
+                return tokens;
+            }
+            ArrayDeque<TrieNode> queue = new ArrayDeque<>();
+            queue.add(node);
+            while (!queue.isEmpty() && tokens.size() < Catalog.MAX_EXPANSIONS) {
+                TrieNode next = queue.poll();
+                if (next.token != null) {
+                    tokens.add(next.token);
+                }
+                queue.addAll(Arrays.asList(next.children));
+            }
+            return tokens;
+        }
+
+        private static char[] insertAt(char[] array, int index, char value) {
+            char[] grown = new char[array.length + 1];
+            System.arraycopy(array, 0, grown, 0, index);
+            grown[index] = value;
+            System.arraycopy(array, index, grown, index + 1, array.length - index);
+            return grown;
+        }
+
+        private static TrieNode[] insertAt(TrieNode[] array, int index, TrieNode value) {
+            TrieNode[] grown = new TrieNode[array.length + 1];
+            System.arraycopy(array, 0, grown, 0, index);
+            grown[index] = value;
+            System.arraycopy(array, index, grown, index + 1, array.length - index);
+            return grown;
+        }
+
+        private static char[] removeAt(char[] array, int index) {
+            char[] shrunk = new char[array.length - 1];
+            System.arraycopy(array, 0, shrunk, 0, index);
+            System.arraycopy(array, index + 1, shrunk, index, array.length - index - 1);
+            return shrunk;
+        }
+
+        private static TrieNode[] removeAt(TrieNode[] array, int index) {
+            TrieNode[] shrunk = new TrieNode[array.length - 1];
+            System.arraycopy(array, 0, shrunk, 0, index);
+            System.arraycopy(array, index + 1, shrunk, index, array.length - index - 1);
+            return shrunk;
+        }
+    }
+}
@@ -1,17 +1,61 @@
 package com.emconnect.api.service;
 
 import com.emconnect.api.config.RabbitMQConfig;
+import com.emconnect.api.entity.OutboxEvent;
 import com.emconnect.api.event.*;
+import com.emconnect.api.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.ShutdownSignalException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.Connection;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionListener;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service responsible for publishing domain events to RabbitMQ.
  * 
  * This is the single point of contact for all event publishing.
  * It encapsulates the routing logic and provides a clean API.
+ *
+ * Inside a read-write transaction, events are written to the outbox_events table
+ * and reach RabbitMQ through OutboxRelay after commit, so they are only sent if the
+ * state change commits and no broker I/O happens while row locks are held.
+ * Outside a transaction they are sent directly.
+ *
+ * Direct sends carry a CorrelationData (the event's id) and are tracked until
+ * RabbitMQ confirms them. At most publisher.confirms.window sends may be unconfirmed;
+ * with the spill journal disabled, callers wait for a slot when it is full. Nacked,
+ * returned and timed-out sends are retried with exponential backoff. Window size, confirm latency and
+ * confirm outcomes are exported as emconnect.publisher.* metrics.
+ *
+ * While the broker is unreachable, when the window is full, or once retries run out,
+ * direct sends are appended to the SpillJournal instead (a memory copy, so request
+ * threads never wait on the broker). As long as the journal holds anything, new
+ * sends go to it too so SpillReplayer can deliver everything in order.
  */
 @Service
 public class EventPublisher {
@@ -19,9 +63,106 @@ public class EventPublisher {
     private static final Logger logger = LoggerFactory.getLogger(EventPublisher.class);
 
     private final RabbitTemplate rabbitTemplate;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final SpillJournal spillJournal;
+
+    // Unconfirmed direct sends, keyed by correlation id
+    private final Map<String, PendingPublish> pending = new ConcurrentHashMap<>();
+    private final Semaphore window;
+    private final long acquireTimeoutMs;
+    private final long confirmTimeoutMs;
+    private final int maxRetries;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final ScheduledExecutorService retryScheduler;
+
+    // Cleared when the connection drops; set again by the connection listener or SpillReplayer
+    private volatile boolean brokerAvailable = true;
 
-    public EventPublisher(RabbitTemplate rabbitTemplate) {
+    private final Timer confirmLatency;
+    private final Counter acked;
+    private final Counter nacked;
+    private final Counter returned;
+    private final Counter retried;
+    private final Counter dropped;
+    private final Counter spilled;
+
+    public EventPublisher(RabbitTemplate rabbitTemplate,
+                          OutboxEventRepository outboxEventRepository,
+                          ObjectMapper objectMapper,
+                          SpillJournal spillJournal,
+                          MeterRegistry meterRegistry,
+                          @Value("${publisher.confirms.window:1000}") int windowSize,
+                          @Value("${publisher.confirms.acquire-timeout-ms:2000}") long acquireTimeoutMs,
+                          @Value("${publisher.confirms.timeout-ms:30000}") long confirmTimeoutMs,
+                          @Value("${publisher.retry.max-attempts:5}") int maxRetries,
+                          @Value("${publisher.retry.initial-backoff-ms:200}") long initialBackoffMs,
+                          @Value("${publisher.retry.max-backoff-ms:10000}") long maxBackoffMs) {
         this.rabbitTemplate = rabbitTemplate;
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.spillJournal = spillJournal;
+        this.window = new Semaphore(windowSize);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+        this.maxRetries = maxRetries;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-publisher-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("emconnect.publisher.inflight", pending, Map::size)
+                .description("Direct sends waiting for a publisher confirm")
+                .register(meterRegistry);
+        this.confirmLatency = Timer.builder("emconnect.publisher.confirm.latency")
+                .description("Time from send to publisher confirm")
+                .register(meterRegistry);
+        this.acked = confirmCounter(meterRegistry, "ack");
+        this.nacked = confirmCounter(meterRegistry, "nack");
+        this.returned = confirmCounter(meterRegistry, "returned");
+        this.retried = Counter.builder("emconnect.publisher.retries").register(meterRegistry);
+        this.dropped = Counter.builder("emconnect.publisher.dropped")
+                .description("Events given up on after retries or a full confirm window")
+                .register(meterRegistry);
+        this.spilled = Counter.builder("emconnect.publisher.spilled")
+                .description("Events written to the spill journal instead of the broker")
+                .register(meterRegistry);
+        Gauge.builder("emconnect.publisher.spill.pending", spillJournal, SpillJournal::pendingCount)
+                .description("Events in the spill journal waiting for replay")
+                .register(meterRegistry);
+
+        rabbitTemplate.setConfirmCallback(this::onConfirm);
+        rabbitTemplate.setReturnsCallback(this::onReturned);
+
+        ConnectionFactory connectionFactory = rabbitTemplate.getConnectionFactory();
+        if (connectionFactory != null) {
+            connectionFactory.addConnectionListener(new ConnectionListener() {
+                @Override
+                public void onCreate(Connection connection) {
+                    brokerAvailable = true;
+                }
+
+                @Override
+                public void onShutDown(ShutdownSignalException signal) {
+                    brokerAvailable = false;
+                }
+
+                @Override
+                public void onFailed(Exception exception) {
+                    brokerAvailable = false;
+                }
+            });
+        }
+    }
+
+    private static Counter confirmCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("emconnect.publisher.confirms")
+                .tag("result", result)
+                .register(meterRegistry);
     }
 
     /**
@@ -103,20 +244,218 @@ public class EventPublisher {
     }
 
     /**
-     * Internal method to send message to RabbitMQ.
+     * Internal method to route an event to the outbox or straight to RabbitMQ.
      */
     private void publish(String routingKey, Object event) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            writeToOutbox(routingKey, event);
+            return;
+        }
+        send(routingKey, event);
+    }
+
+    /**
+     * Store the event in the caller's transaction. A failed insert fails that
+     * transaction, so the state change and its event commit or roll back together.
+     */
+    private void writeToOutbox(String routingKey, Object event) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            logger.error("Failed to serialize event with routing key {}: {}", routingKey, e.getMessage(), e);
+            return;
+        }
+
+        outboxEventRepository.save(new OutboxEvent(messageId(event), routingKey, event.getClass().getName(), payload));
+    }
+
+    /**
+     * Send directly to RabbitMQ (no surrounding transaction).
+     */
+    private void send(String routingKey, Object event) {
+        send(routingKey, event, 0);
+    }
+
+    private void send(String routingKey, Object event, int attempt) {
+        // Keep order: nothing bypasses events already waiting in the journal
+        if (spillJournal.isEnabled() && (!brokerAvailable || !spillJournal.isEmpty())) {
+            spill(routingKey, event, "broker unavailable");
+            return;
+        }
+
+        // Back-pressure: wait for room in the unconfirmed window (spill instead of waiting)
+        if (!acquireWindowSlot()) {
+            if (!spill(routingKey, event, "confirm window full")) {
+                dropped.increment();
+                logger.error("Dropping event with routing key {}: {} sends still unconfirmed",
+                        routingKey, pending.size());
+            }
+            return;
+        }
+
+        String messageId = messageId(event);
+        String correlationId = messageId + "#" + attempt;
+        pending.put(correlationId, new PendingPublish(routingKey, event, attempt, System.nanoTime()));
         try {
             rabbitTemplate.convertAndSend(
                     RabbitMQConfig.EVENTS_EXCHANGE,
                     routingKey,
-                    event
+                    event,
+                    message -> {
+                        message.getMessageProperties().setMessageId(messageId);
+                        return message;
+                    },
+                    new CorrelationData(correlationId)
             );
         } catch (Exception e) {
             // Log but don't fail the main operation
-            // In production, you might use a transactional outbox pattern
+            if (pending.remove(correlationId) != null) {
+                window.release();
+            }
             logger.error("Failed to publish event with routing key {}: {}",
-                    routingKey, e.getMessage(), e);
+                    routingKey, e.getMessage());
+            if (e instanceof AmqpConnectException) {
+                brokerAvailable = false;
+                if (spill(routingKey, event, e.getMessage())) {
+                    return;
+                }
+            }
+            scheduleRetry(routingKey, event, attempt, e.getMessage());
+        }
+    }
+
+    private boolean acquireWindowSlot() {
+        if (spillJournal.isEnabled()) {
+            return window.tryAcquire();
+        }
+        try {
+            return window.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Publisher confirm callback (broker I/O thread — must not block).
+     * Confirms for the outbox relay's sends are counted but not tracked here.
+     */
+    private void onConfirm(CorrelationData correlation, boolean ack, String cause) {
+        if (correlation == null) {
+            return;
+        }
+        boolean wasReturned = correlation.getReturned() != null;
+        if (wasReturned) {
+            returned.increment();
+        } else if (ack) {
+            acked.increment();
+        } else {
+            nacked.increment();
+        }
+
+        PendingPublish publish = pending.remove(correlation.getId());
+        if (publish == null) {
+            return;
+        }
+        window.release();
+        confirmLatency.record(System.nanoTime() - publish.sentAtNanos(), TimeUnit.NANOSECONDS);
+
+        if (wasReturned) {
+            scheduleRetry(publish.routingKey(), publish.event(), publish.attempt(),
+                    "returned: " + correlation.getReturned().getReplyText());
+        } else if (!ack) {
+            scheduleRetry(publish.routingKey(), publish.event(), publish.attempt(), "nack: " + cause);
+        }
+    }
+
+    private void onReturned(ReturnedMessage returnedMessage) {
+        logger.warn("Message returned by broker: routingKey={}, replyCode={}, replyText={}",
+                returnedMessage.getRoutingKey(), returnedMessage.getReplyCode(), returnedMessage.getReplyText());
+    }
+
+    /**
+     * Treat sends that never got a confirm (e.g. lost with their channel) as nacked.
+     */
+    @Scheduled(fixedDelay = 10000)
+    public void expireUnconfirmed() {
+        long cutoff = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+        pending.forEach((correlationId, publish) -> {
+            if (publish.sentAtNanos() < cutoff && pending.remove(correlationId, publish)) {
+                window.release();
+                nacked.increment();
+                scheduleRetry(publish.routingKey(), publish.event(), publish.attempt(), "confirm timed out");
+            }
+        });
+    }
+
+    private void scheduleRetry(String routingKey, Object event, int attempt, String reason) {
+        if (attempt >= maxRetries) {
+            if (spill(routingKey, event, reason)) {
+                return;
+            }
+            dropped.increment();
+            logger.error("Giving up on event with routing key {} after {} attempts: {}",
+                    routingKey, attempt + 1, reason);
+            return;
+        }
+        retried.increment();
+        long backoff = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt, 20));
+        long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        logger.warn("Retrying event with routing key {} in {} ms (attempt {}): {}",
+                routingKey, delay, attempt + 2, reason);
+        retryScheduler.schedule(() -> send(routingKey, event, attempt + 1), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Append the event to the spill journal. Returns false if it could not be stored.
+     */
+    private boolean spill(String routingKey, Object event, String reason) {
+        if (!spillJournal.isEnabled()) {
+            return false;
+        }
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            logger.error("Failed to serialize event with routing key {}: {}", routingKey, e.getMessage(), e);
+            return false;
+        }
+        boolean stored = spillJournal.append(new SpillJournal.SpilledEvent(
+                messageId(event), routingKey, event.getClass().getName(), payload));
+        if (stored) {
+            spilled.increment();
+            logger.debug("Spilled event with routing key {} to journal: {}", routingKey, reason);
         }
+        return stored;
+    }
+
+    boolean isBrokerAvailable() {
+        return brokerAvailable;
+    }
+
+    /**
+     * Called by SpillReplayer with the outcome of its last replay.
+     */
+    void setBrokerAvailable(boolean available) {
+        this.brokerAvailable = available;
+    }
+
+    private String messageId(Object event) {
+        return event instanceof BaseEvent baseEvent
+                ? baseEvent.getRegisteredEventId()
+                : UUID.randomUUID().toString();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdown();
+    }
+
+    /**
+     * A direct send waiting for its confirm.
+     */
+    private record PendingPublish(String routingKey, Object event, int attempt, long sentAtNanos) {
     }
 }
\ No newline at end of file
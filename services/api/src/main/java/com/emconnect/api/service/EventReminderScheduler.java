@@ -3,90 +3,327 @@ package com.emconnect.api.service;
 import com.emconnect.api.entity.*;
 import com.emconnect.api.event.EventReminderEvent;
 import com.emconnect.api.repository.EventReminderRepository;
+import com.emconnect.api.repository.EventReminderRepository.ReminderTarget;
 import com.emconnect.api.repository.EventRepository;
-import com.emconnect.api.repository.RegistrationRepository;
+import com.emconnect.api.repository.EventRepository.ReminderSchedule;
+import com.emconnect.api.scheduling.Lease;
+import com.emconnect.api.scheduling.LeaseManager;
+import com.emconnect.api.scheduling.TimingWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Pageable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Sends event reminders at each event's reminder offsets (default 24h and 1h before start).
+ *
+ * Due reminders sit in an in-memory hierarchical timing wheel, ticked once a second
+ * on its own thread, so nothing touches the database until a reminder is due. The
+ * wheel is filled from upcoming published events at startup and every
+ * reminders.resync-interval-ms, and updated after commit when EventService publishes,
+ * reschedules or cancels an event. Reminders whose time passed while the app was
+ * down are sent on the first load, as long as the event hasn't started.
+ *
+ * Every replica keeps its own wheel; a fired reminder runs under a scheduler lease,
+ * so one replica sends it. Per event, an anti-join streams only the confirmed
+ * registrations without a reminder row of this type. They are recorded in JDBC
+ * batches with ON CONFLICT DO NOTHING, fenced by the lease, and only the rows this
+ * run inserted are published.
+ */
 @Service
 public class EventReminderScheduler {
 
     private static final Logger logger = LoggerFactory.getLogger(EventReminderScheduler.class);
 
+    // Upper bound for organizer-chosen offsets (7 days)
+    public static final int MAX_OFFSET_MINUTES = 10080;
+
+    private static final long TICK_MS = 1000;
+
+    // Fenced by the run's lease: a replica that lost its lease inserts nothing
+    private static final String INSERT_REMINDER_SQL =
+            "INSERT INTO event_reminders (event_id, registration_id, reminder_type) " +
+            "SELECT ?, ?, ? WHERE EXISTS (SELECT 1 FROM scheduler_leases " +
+            "WHERE name = ? AND fencing_token = ? AND expires_at > now()) " +
+            "ON CONFLICT (event_id, registration_id, reminder_type) DO NOTHING";
+
     private final EventRepository eventRepository;
-    private final RegistrationRepository registrationRepository;
     private final EventReminderRepository eventReminderRepository;
     private final EventPublisher eventPublisher;
+    private final LeaseManager leaseManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate streamTemplate;
+    private final TransactionTemplate insertTemplate;
+    private final int batchSize;
+    private final Duration leaseDuration;
+    private final List<Integer> defaultOffsets;
+
+    // 1s ticks, 60 slots, 4 levels: exact to the second, about 147 days ahead
+    private final TimingWheel<ReminderKey> wheel = new TimingWheel<>(TICK_MS, 60, 4, System.currentTimeMillis());
+    // Reminders currently expected per event; fired keys that aren't here are stale
+    private final Map<Long, Set<ReminderKey>> scheduled = new ConcurrentHashMap<>();
+    // Reminders this instance already fired, until their event starts
+    private final Set<ReminderKey> fired = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService wheelThread;
 
     public EventReminderScheduler(EventRepository eventRepository,
-                                  RegistrationRepository registrationRepository,
                                   EventReminderRepository eventReminderRepository,
-                                  EventPublisher eventPublisher) {
+                                  EventPublisher eventPublisher,
+                                  LeaseManager leaseManager,
+                                  JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${reminders.batch-size:500}") int batchSize,
+                                  @Value("${reminders.lease-ms:840000}") long leaseMs,
+                                  @Value("${reminders.default-offsets-minutes:1440,60}") int[] defaultOffsets) {
         this.eventRepository = eventRepository;
-        this.registrationRepository = registrationRepository;
         this.eventReminderRepository = eventReminderRepository;
         this.eventPublisher = eventPublisher;
+        this.leaseManager = leaseManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamTemplate = new TransactionTemplate(transactionManager);
+        this.streamTemplate.setReadOnly(true);
+        this.insertTemplate = new TransactionTemplate(transactionManager);
+        this.insertTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+        this.leaseDuration = Duration.ofMillis(leaseMs);
+        this.defaultOffsets = Arrays.stream(defaultOffsets).boxed().toList();
+        this.wheelThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reminder-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        wheelThread.scheduleAtFixedRate(this::tick, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheelThread.shutdown();
     }
 
     /**
-     * Runs every 15 minutes. Sends 24-hour reminders for events starting in ~24 hours
-     * and 1-hour reminders for events starting in ~1 hour.
+     * Load upcoming published events into the wheel. Runs at startup, then picks up
+     * changes made through other replicas.
      */
-    @Scheduled(fixedRate = 900000) // 15 minutes
-    public void sendReminders() {
+    @Scheduled(fixedRateString = "${reminders.resync-interval-ms:3600000}")
+    public void resync() {
         LocalDateTime now = LocalDateTime.now();
+        List<ReminderSchedule> schedules = eventRepository.findReminderSchedules(
+                now, now.plusMinutes(MAX_OFFSET_MINUTES).plusHours(1));
+
+        Set<Long> upcoming = new HashSet<>();
+        for (ReminderSchedule schedule : schedules) {
+            upcoming.add(schedule.getId());
+            schedule(schedule.getId(), schedule.getStartDate(), schedule.getReminderOffsets());
+        }
+        scheduled.keySet().retainAll(upcoming);
+        fired.removeIf(key -> key.startDate().isBefore(now));
+        logger.debug("Reminder wheel resynced: {} events, {} pending reminders", upcoming.size(), wheel.size());
+    }
 
-        // 24-hour reminders: events starting between 23h45m and 24h15m from now
-        sendRemindersForWindow(now.plusHours(23).plusMinutes(45), now.plusHours(24).plusMinutes(15), "24H");
+    /**
+     * (Re)schedule the event's reminders once the current transaction commits.
+     */
+    public void scheduleAfterCommit(Event event) {
+        Long eventId = event.getId();
+        LocalDateTime startDate = event.getStartDate();
+        String offsets = event.getReminderOffsets();
+        afterCommit(() -> schedule(eventId, startDate, offsets));
+    }
 
-        // 1-hour reminders: events starting between 45m and 1h15m from now
-        sendRemindersForWindow(now.plusMinutes(45), now.plusHours(1).plusMinutes(15), "1H");
+    /**
+     * Drop the event's reminders once the current transaction commits.
+     */
+    public void unscheduleAfterCommit(Long eventId) {
+        afterCommit(() -> scheduled.remove(eventId));
     }
 
-    private void sendRemindersForWindow(LocalDateTime from, LocalDateTime to, String reminderType) {
-        List<Event> events = eventRepository.findPublishedEventsBetween(from, to);
+    private void schedule(Long eventId, LocalDateTime startDate, String offsets) {
+        Set<ReminderKey> keys = offsetsOrDefault(offsets).stream()
+                .map(offset -> new ReminderKey(eventId, offset, startDate))
+                .collect(Collectors.toSet());
+        Set<ReminderKey> previous = scheduled.put(eventId, keys);
+
+        long now = System.currentTimeMillis();
+        for (ReminderKey key : keys) {
+            if (previous != null && previous.contains(key)) {
+                continue; // already in the wheel
+            }
+            long dueMs = key.dueAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            if (dueMs <= now && (!key.startDate().isAfter(LocalDateTime.now()) || fired.contains(key))) {
+                continue; // event started, or this instance already sent it
+            }
+            // Overdue keys fire on the next tick (catch-up after downtime)
+            wheel.add(dueMs, key);
+        }
+    }
 
-        for (Event event : events) {
-            List<Registration> registrations = registrationRepository
-                    .findByEventIdAndStatus(event.getId(), RegistrationStatus.CONFIRMED, Pageable.unpaged())
-                    .getContent();
+    private List<Integer> offsetsOrDefault(String offsets) {
+        if (offsets == null || offsets.isBlank()) {
+            return defaultOffsets;
+        }
+        return Arrays.stream(offsets.split(","))
+                .map(String::trim)
+                .filter(o -> !o.isEmpty())
+                .map(Integer::valueOf)
+                .toList();
+    }
 
-            int sent = 0;
-            for (Registration reg : registrations) {
-                // Skip if already sent
-                if (eventReminderRepository.existsByEventIdAndRegistrationIdAndReminderType(
-                        event.getId(), reg.getId(), reminderType)) {
-                    continue;
+    private void tick() {
+        try {
+            for (ReminderKey key : wheel.advance(System.currentTimeMillis())) {
+                Set<ReminderKey> current = scheduled.get(key.eventId());
+                if (current != null && current.contains(key) && fired.add(key)) {
+                    sendReminder(key);
                 }
+            }
+        } catch (Exception e) {
+            // Keep the wheel thread alive
+            logger.error("Reminder wheel tick failed: {}", e.getMessage(), e);
+        }
+    }
 
-                EventReminderEvent reminderEvent = new EventReminderEvent();
-                reminderEvent.setUserId(reg.getUser().getId());
-                reminderEvent.setUserEmail(reg.getUser().getEmail());
-                reminderEvent.setUserName(reg.getUser().getName());
-                reminderEvent.setEventId(event.getId());
-                reminderEvent.setEventTitle(event.getTitle());
-                reminderEvent.setEventLocation(event.getLocation());
-                reminderEvent.setEventStartDate(event.getStartDate());
-                reminderEvent.setTicketCode(reg.getTicketCode());
-                reminderEvent.setReminderType(reminderType);
-
-                eventPublisher.publishEventReminder(reminderEvent);
-
-                // Record that we sent this reminder
-                eventReminderRepository.save(new EventReminder(event.getId(), reg.getId(), reminderType));
-                sent++;
+    /**
+     * Send one due reminder, under a lease so only one replica does it.
+     */
+    private void sendReminder(ReminderKey key) {
+        String reminderType = key.reminderType();
+        String leaseName = "event-reminder:" + key.eventId() + ":" + reminderType;
+        leaseManager.runExclusively(leaseName, leaseDuration, Duration.ZERO, lease -> {
+            // The wheel may be behind the database (e.g. changed through another replica)
+            Event event = eventRepository.findById(key.eventId()).orElse(null);
+            if (event == null || event.getStatus() != EventStatus.PUBLISHED
+                    || !event.getStartDate().equals(key.startDate())
+                    || !offsetsOrDefault(event.getReminderOffsets()).contains(key.offsetMinutes())) {
+                return;
             }
 
-            if (sent > 0) {
+            Integer sent = streamTemplate.execute(status -> sendRemindersForEvent(event, reminderType, lease));
+            if (sent != null && sent > 0) {
                 logger.info("Sent {} {} reminders for event '{}' (id={})",
                         sent, reminderType, event.getTitle(), event.getId());
             }
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Stream the registrations still missing this reminder and handle them in chunks.
+     * Runs in a read-only transaction that holds the cursor open.
+     */
+    private int sendRemindersForEvent(Event event, String reminderType, Lease lease) {
+        int sent = 0;
+        List<ReminderTarget> chunk = new ArrayList<>(batchSize);
+        try (Stream<ReminderTarget> targets =
+                     eventReminderRepository.streamPendingReminders(event.getId(), reminderType)) {
+            Iterator<ReminderTarget> iterator = targets.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == batchSize) {
+                    sent += sendChunk(event, reminderType, lease, chunk);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            sent += sendChunk(event, reminderType, lease, chunk);
+        }
+        return sent;
+    }
+
+    /**
+     * Record a chunk of reminders in one JDBC batch, then publish the ones this run
+     * inserted. Rows another instance already recorded are skipped by ON CONFLICT.
+     */
+    private int sendChunk(Event event, String reminderType, Lease lease, List<ReminderTarget> chunk) {
+        // Step 1: Insert reminder rows in their own transaction (the cursor's is read-only)
+        int[][] counts = insertTemplate.execute(status -> jdbcTemplate.batchUpdate(
+                INSERT_REMINDER_SQL, chunk, chunk.size(), (ps, target) -> {
+                    ps.setLong(1, event.getId());
+                    ps.setLong(2, target.getRegistrationId());
+                    ps.setString(3, reminderType);
+                    ps.setString(4, lease.name());
+                    ps.setLong(5, lease.fencingToken());
+                }));
+
+        // Step 2: Publish only what was inserted
+        int sent = 0;
+        for (int i = 0; i < chunk.size(); i++) {
+            if (counts == null || counts[0][i] == 0) {
+                continue;
+            }
+            ReminderTarget target = chunk.get(i);
+
+            EventReminderEvent reminderEvent = new EventReminderEvent();
+            reminderEvent.setUserId(target.getUserId());
+            reminderEvent.setUserEmail(target.getUserEmail());
+            reminderEvent.setUserName(target.getUserName());
+            reminderEvent.setEventId(event.getId());
+            reminderEvent.setEventTitle(event.getTitle());
+            reminderEvent.setEventLocation(event.getLocation());
+            reminderEvent.setEventStartDate(event.getStartDate());
+            reminderEvent.setTicketCode(target.getTicketCode());
+            reminderEvent.setReminderType(reminderType);
+
+            eventPublisher.publishEventReminder(reminderEvent);
+            sent++;
+        }
+        return sent;
+    }
+
+    /**
+     * One reminder of one event, tied to the start date it was computed from.
+     */
+    private record ReminderKey(Long eventId, int offsetMinutes, LocalDateTime startDate) {
+
+        LocalDateTime dueAt() {
+            return startDate.minusMinutes(offsetMinutes);
+        }
+
+        // "24H", "1H", "30M": stored in event_reminders.reminder_type
+        String reminderType() {
+            return offsetMinutes % 60 == 0 ? (offsetMinutes / 60) + "H" : offsetMinutes + "M";
         }
     }
 }
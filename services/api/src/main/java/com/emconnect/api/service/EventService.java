@@ -1,24 +1,27 @@
 package com.emconnect.api.service;
 
 import com.emconnect.api.dto.CreateEventRequest;
+import com.emconnect.api.dto.PageCursor;
 import com.emconnect.api.dto.UpdateEventRequest;
 import com.emconnect.api.entity.Event;
 import com.emconnect.api.entity.EventCategory;
 import com.emconnect.api.entity.EventStatus;
-import com.emconnect.api.entity.RegistrationStatus;
+import com.emconnect.api.entity.RegistrationMode;
 import com.emconnect.api.entity.User;
 import com.emconnect.api.event.EventCancelledEvent;
 import com.emconnect.api.event.EventPublishedEvent;
 import com.emconnect.api.exception.InvalidStateTransitionException;
 import com.emconnect.api.exception.ResourceNotFoundException;
 import com.emconnect.api.repository.EventRepository;
-import com.emconnect.api.repository.RegistrationRepository;
-import com.emconnect.api.repository.UserRepository;
+import com.emconnect.api.repository.EventRepository.EventSummary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -31,8 +34,12 @@ import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 @SuppressWarnings("null")
 @Service
 public class EventService {
@@ -40,9 +47,22 @@ public class EventService {
     private static final Logger logger = LoggerFactory.getLogger(EventService.class);
 
     private final EventRepository eventRepository;
-    private final UserRepository userRepository;
-    private final RegistrationRepository registrationRepository;
+    private final UserCache userCache;
     private final EventPublisher eventPublisher;
+    private final WaitlistService waitlistService;
+    private final EventReminderScheduler reminderScheduler;
+    private final EventCatalogIndex catalogIndex;
+    private final double fuzzyThreshold;
+
+    /**
+     * How a search keyword is matched.
+     */
+    public enum SearchMode {
+        // Full-text, then fuzzy if full-text finds nothing
+        AUTO,
+        FULL_TEXT,
+        FUZZY
+    }
 
     private static final String BANNER_DIR = "banners";
     private static final Set<String> ALLOWED_IMAGE_TYPES = Set.of(
@@ -51,13 +71,19 @@ public class EventService {
     private static final long MAX_BANNER_SIZE = 5 * 1024 * 1024; // 5 MB
 
     public EventService(EventRepository eventRepository, 
-                        UserRepository userRepository,
-                        RegistrationRepository registrationRepository,
-                        EventPublisher eventPublisher) {
+                        UserCache userCache,
+                        EventPublisher eventPublisher,
+                        WaitlistService waitlistService,
+                        EventReminderScheduler reminderScheduler,
+                        EventCatalogIndex catalogIndex,
+                        @Value("${search.fuzzy.threshold:0.4}") double fuzzyThreshold) {
         this.eventRepository = eventRepository;
-        this.userRepository = userRepository;
-        this.registrationRepository = registrationRepository;
+        this.userCache = userCache;
         this.eventPublisher = eventPublisher;
+        this.waitlistService = waitlistService;
+        this.reminderScheduler = reminderScheduler;
+        this.catalogIndex = catalogIndex;
+        this.fuzzyThreshold = fuzzyThreshold;
     }
 
     /**
@@ -65,7 +91,7 @@ public class EventService {
      */
     @Transactional
     public Event createEvent(CreateEventRequest request, String organizerEmail) {
-        User organizer = userRepository.findByEmail(organizerEmail)
+        User organizer = userCache.findByEmail(organizerEmail)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
         Event event = new Event();
@@ -92,6 +118,15 @@ public class EventService {
             event.setTagList(request.getTags());
         }
 
+        // Opt into queued (flash-sale) registration if requested
+        if (request.getRegistrationMode() != null && !request.getRegistrationMode().isBlank()) {
+            event.setRegistrationMode(RegistrationMode.valueOf(request.getRegistrationMode().toUpperCase()));
+        }
+
+        if (request.getReminderOffsets() != null) {
+            event.setReminderOffsetList(request.getReminderOffsets());
+        }
+
         return eventRepository.save(event);
     }
 
@@ -99,8 +134,21 @@ public class EventService {
      * Update an event
      */
     @Transactional
-    public Event updateEvent(Long eventId, UpdateEventRequest request, String userEmail) {
-        Event event = getEventForOrganizer(eventId, userEmail);
+    public Event updateEvent(Long eventId, UpdateEventRequest request, Long userId) {
+        Event event = getEventForOrganizer(eventId, userId);
+
+        // Published events may only change capacity (e.g. to release seats to the waitlist)
+        if (event.getStatus() == EventStatus.PUBLISHED && isCapacityOnly(request)) {
+            return updatePublishedCapacity(event, request.getCapacity());
+        }
+
+        // ...or only their reminder offsets
+        if (event.getStatus() == EventStatus.PUBLISHED && isReminderOffsetsOnly(request)) {
+            event.setReminderOffsetList(request.getReminderOffsets());
+            event = eventRepository.save(event);
+            reminderScheduler.scheduleAfterCommit(event);
+            return event;
+        }
 
         // Only allow updates if event is in DRAFT status
         if (event.getStatus() != EventStatus.DRAFT) {
@@ -140,16 +188,71 @@ public class EventService {
         if (request.getTags() != null) {
             event.setTagList(request.getTags());
         }
+        if (request.getRegistrationMode() != null && !request.getRegistrationMode().isBlank()) {
+            event.setRegistrationMode(RegistrationMode.valueOf(request.getRegistrationMode().toUpperCase()));
+        }
+        if (request.getReminderOffsets() != null) {
+            event.setReminderOffsetList(request.getReminderOffsets());
+        }
 
         return eventRepository.save(event);
     }
 
+    private boolean isCapacityOnly(UpdateEventRequest request) {
+        return request.getCapacity() != null
+                && request.getTitle() == null
+                && request.getDescription() == null
+                && request.getLocation() == null
+                && request.getStartDate() == null
+                && request.getEndDate() == null
+                && request.getCategory() == null
+                && request.getTags() == null
+                && request.getRegistrationMode() == null
+                && request.getReminderOffsets() == null;
+    }
+
+    private boolean isReminderOffsetsOnly(UpdateEventRequest request) {
+        return request.getReminderOffsets() != null
+                && request.getCapacity() == null
+                && request.getTitle() == null
+                && request.getDescription() == null
+                && request.getLocation() == null
+                && request.getStartDate() == null
+                && request.getEndDate() == null
+                && request.getCategory() == null
+                && request.getTags() == null
+                && request.getRegistrationMode() == null;
+    }
+
+    /**
+     * Change the capacity of a published event. Added seats go to the head of the
+     * waitlist in the same transaction.
+     */
+    private Event updatePublishedCapacity(Event event, int capacity) {
+        // Conditional UPDATE, so seats reserved after the event was loaded are counted too
+        Integer confirmed = eventRepository.updateCapacity(event.getId(), capacity).orElse(null);
+        if (confirmed == null) {
+            int current = eventRepository.findConfirmedCountById(event.getId()).orElse(0);
+            throw new IllegalArgumentException(
+                    "Capacity cannot be lower than the " + current + " confirmed registrations");
+        }
+
+        int freeSeats = capacity - confirmed;
+        event.setCapacity(capacity);
+
+        if (freeSeats > 0) {
+            waitlistService.promoteWaitlisted(event.getId(), freeSeats);
+        }
+        logger.info("Capacity of published event {} changed to {}", event.getId(), capacity);
+        return event;
+    }
+
     /**
      * Publish an event (DRAFT → PUBLISHED)
      */
     @Transactional
-    public Event publishEvent(Long eventId, String userEmail) {
-        Event event = getEventForOrganizer(eventId, userEmail);
+    public Event publishEvent(Long eventId, Long userId) {
+        Event event = getEventForOrganizer(eventId, userId);
 
         if (!event.getStatus().canTransitionTo(EventStatus.PUBLISHED)) {
             throw new InvalidStateTransitionException(
@@ -163,6 +266,8 @@ public class EventService {
 
         event.setStatus(EventStatus.PUBLISHED);
         event = eventRepository.save(event);
+        reminderScheduler.scheduleAfterCommit(event);
+        catalogIndex.indexAfterCommit(event);
 
         // Publish domain event
         try {
@@ -179,21 +284,21 @@ public class EventService {
      * Cancel an event (any status → CANCELLED)
      */
     @Transactional
-    public Event cancelEvent(Long eventId, String userEmail) {
-        Event event = getEventForOrganizer(eventId, userEmail);
+    public Event cancelEvent(Long eventId, Long userId) {
+        Event event = getEventForOrganizer(eventId, userId);
 
         if (!event.getStatus().canTransitionTo(EventStatus.CANCELLED)) {
             throw new InvalidStateTransitionException(
                     "Cannot cancel event from " + event.getStatus() + " status");
         }
 
-        // Count affected registrations before cancelling
-        int affectedRegistrations = (int) registrationRepository.countByEventIdAndStatus(
-            eventId, RegistrationStatus.CONFIRMED
-        );
+        // Affected registrations come from the maintained confirmed counter
+        int affectedRegistrations = event.getConfirmedCount();
 
         event.setStatus(EventStatus.CANCELLED);
         event = eventRepository.save(event);
+        reminderScheduler.unscheduleAfterCommit(event.getId());
+        catalogIndex.removeAfterCommit(event.getId());
 
         // Publish domain event
         try {
@@ -217,9 +322,8 @@ public class EventService {
     /**
      * Get published events (public listing)
      */
-    public Page<Event> getPublishedEvents(int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("startDate").ascending());
-        return eventRepository.findByStatus(EventStatus.PUBLISHED, pageable);
+    public Page<EventSummary> getPublishedEvents(int page, int size) {
+        return eventRepository.findSummariesByStatus(EventStatus.PUBLISHED, PageRequest.of(page, size));
     }
 
     /**
@@ -231,41 +335,87 @@ public class EventService {
     }
 
     /**
-     * Get events organized by a specific user
+     * Cursor page of published events by start date (upcoming only, or all), with no count query
      */
-    public Page<Event> getEventsByOrganizer(String organizerEmail, int page, int size) {
-        User organizer = userRepository.findByEmail(organizerEmail)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    public Slice<EventSummary> scrollPublishedEvents(boolean upcomingOnly, PageCursor after, int size) {
+        LocalDateTime from = upcomingOnly ? LocalDateTime.now() : PageCursor.FIRST_ASCENDING.at();
+        return eventRepository.findSummariesAfterCursor(
+                EventStatus.PUBLISHED, from, after.at(), after.id(), PageCursor.limit(size));
+    }
 
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        return eventRepository.findByOrganizerId(organizer.getId(), pageable);
+    /**
+     * Get events organized by a specific user
+     */
+    public Page<EventSummary> getEventsByOrganizer(Long organizerId, int page, int size) {
+        return eventRepository.findSummariesByOrganizerId(organizerId, PageRequest.of(page, size));
     }
 
     /**
-     * Search events by title with optional category and tag filters
+     * Search published events with optional category and tag filters.
+     *
+     * The keyword is matched with Postgres full-text search over title, tags, location
+     * and description (web-search syntax: quoted phrases, OR, -word) and results are
+     * ranked by relevance. In FUZZY mode, or in AUTO mode when full-text search finds
+     * nothing, it is matched by trigram word similarity against title and location
+     * instead, so misspellings still find the event. Without a keyword, events are
+     * listed by start date.
      */
-    public Page<Event> searchEvents(String query, String category, String tag, int page, int size) {
+    @Transactional(readOnly = true)
+    public Page<EventSummary> searchEvents(String query, String category, String tag, SearchMode mode,
+                                           int page, int size) {
         String keyword = (query != null) ? query.trim() : "";
         String cat = (category != null) ? category.trim() : "";
-        String t = (tag != null) ? tag.trim() : "";
+        String t = Event.normalizeTag(tag);
 
-        // If no filters at all, return published events (JPQL — uses Java property names)
+        // If no filters at all, return published events (JPQL summaries, ordered by the query)
         if (keyword.isEmpty() && cat.isEmpty() && t.isEmpty()) {
-            Pageable pageable = PageRequest.of(page, size, Sort.by("startDate").ascending());
-            return eventRepository.findByStatus(EventStatus.PUBLISHED, pageable);
+            return eventRepository.findSummariesByStatus(EventStatus.PUBLISHED, PageRequest.of(page, size));
+        }
+
+        // Ranked queries order their own results
+        if (!keyword.isEmpty()) {
+            if (mode != SearchMode.FUZZY) {
+                Page<Long> matches = eventRepository.searchEventIds(
+                        EventStatus.PUBLISHED.name(), keyword, cat, t, PageRequest.of(page, size));
+                if (mode == SearchMode.FULL_TEXT || matches.getTotalElements() > 0) {
+                    return summaries(matches);
+                }
+            }
+            eventRepository.setWordSimilarityThreshold(fuzzyThreshold);
+            return summaries(eventRepository.fuzzySearchEventIds(
+                    EventStatus.PUBLISHED.name(), keyword, cat, t, PageRequest.of(page, size)));
+        }
+
+        // Tag and category queries order their own results too
+        Pageable pageable = PageRequest.of(page, size);
+        if (!t.isEmpty()) {
+            return summaries(eventRepository.findIdsByStatusAndTag(EventStatus.PUBLISHED.name(), t, cat, pageable));
         }
+        return summaries(eventRepository.filterIdsByCategory(EventStatus.PUBLISHED.name(), cat, pageable));
+    }
 
-        // Native SQL query — must use actual column names for sort
-        Pageable pageable = PageRequest.of(page, size, Sort.by("start_date").ascending());
-        return eventRepository.searchEvents(
-                EventStatus.PUBLISHED.name(), keyword, cat, t, pageable);
+    /**
+     * Load list-view summaries for a page of ids from a native search query, in the page's order.
+     * One query for the whole page; ids deleted in between are dropped.
+     */
+    private Page<EventSummary> summaries(Page<Long> ids) {
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), ids.getPageable(), ids.getTotalElements());
+        }
+        Map<Long, EventSummary> byId = eventRepository.findSummariesByIdIn(ids.getContent()).stream()
+                .collect(Collectors.toMap(EventSummary::getId, Function.identity()));
+        List<EventSummary> ordered = ids.getContent().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(ordered, ids.getPageable(), ids.getTotalElements());
     }
 
     /**
-     * Search events by title (backwards-compatible)
+     * Search events by keyword only (backwards-compatible)
      */
-    public Page<Event> searchEvents(String query, int page, int size) {
-        return searchEvents(query, null, null, page, size);
+    public Page<EventSummary> searchEvents(String query, int page, int size) {
+        return searchEvents(query, null, null, SearchMode.AUTO, page, size);
     }
 
     /**
@@ -275,12 +425,19 @@ public class EventService {
         return eventRepository.findDistinctCategories();
     }
 
+    /**
+     * Tags used by published events, with event counts, most used first
+     */
+    public List<EventRepository.TagCount> getTagCounts(int limit) {
+        return eventRepository.findPublishedTagCounts(Math.max(1, Math.min(limit, 200)));
+    }
+
     /**
      * Upload a banner image for an event
      */
     @Transactional
-    public Event uploadBanner(Long eventId, String userEmail, MultipartFile file) throws IOException {
-        Event event = getEventForOrganizer(eventId, userEmail);
+    public Event uploadBanner(Long eventId, Long userId, MultipartFile file) throws IOException {
+        Event event = getEventForOrganizer(eventId, userId);
 
         if (file.isEmpty()) {
             throw new IllegalArgumentException("File is empty");
@@ -333,8 +490,8 @@ public class EventService {
      * Delete an event (only DRAFT or CANCELLED)
      */
     @Transactional
-    public void deleteEvent(Long eventId, String userEmail) {
-        Event event = getEventForOrganizer(eventId, userEmail);
+    public void deleteEvent(Long eventId, Long userId) {
+        Event event = getEventForOrganizer(eventId, userId);
 
         if (event.getStatus() == EventStatus.PUBLISHED) {
             throw new InvalidStateTransitionException(
@@ -345,8 +502,8 @@ public class EventService {
     }
 
     @Transactional
-    public Event completeEvent(Long eventId, String userEmail) {
-        Event event = getEventForOrganizer(eventId, userEmail);
+    public Event completeEvent(Long eventId, Long userId) {
+        Event event = getEventForOrganizer(eventId, userId);
 
         if (!event.getStatus().canTransitionTo(EventStatus.COMPLETED)) {
             throw new InvalidStateTransitionException(
@@ -354,6 +511,8 @@ public class EventService {
         }
 
         event.setStatus(EventStatus.COMPLETED);
+        reminderScheduler.unscheduleAfterCommit(event.getId());
+        catalogIndex.removeAfterCommit(event.getId());
         return eventRepository.save(event);
     }
 
@@ -363,16 +522,15 @@ public class EventService {
      * Get confirmed participant count for an event
      */
     public long getParticipantCount(Long eventId) {
-        // Verify event exists
-        getEventById(eventId);
-        return registrationRepository.countByEventIdAndStatus(eventId, RegistrationStatus.CONFIRMED);
+        return getEventById(eventId).getConfirmedCount();
     }
 
-    private Event getEventForOrganizer(Long eventId, String userEmail) {
+    private Event getEventForOrganizer(Long eventId, Long userId) {
         Event event = eventRepository.findById(eventId)
                 .orElseThrow(() -> new ResourceNotFoundException("Event not found with id: " + eventId));
 
-        if (!event.getOrganizer().getEmail().equals(userEmail)) {
+        // The organizer is a lazy proxy; its id is known without loading the user
+        if (!event.getOrganizer().getId().equals(userId)) {
             throw new org.springframework.security.access.AccessDeniedException(
                     "You are not the organizer of this event");
         }
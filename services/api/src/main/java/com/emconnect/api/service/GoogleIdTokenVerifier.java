@@ -0,0 +1,133 @@
+package com.emconnect.api.service;
+
+import com.emconnect.api.exception.InvalidCredentialsException;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.JwtParserBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.security.Key;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Verifies Google ID tokens locally against Google's published signing keys.
+ *
+ * Keys are cached for the max-age the key source reports (default-max-age if it
+ * reports none). A token signed with an unknown kid triggers a refresh, at most once
+ * per min-refresh-interval so forged kids can't make us hammer the endpoint. If a
+ * refresh fails, the previous keys stay in use.
+ */
+@Component
+public class GoogleIdTokenVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(GoogleIdTokenVerifier.class);
+
+    private static final Set<String> ISSUERS = Set.of("accounts.google.com", "https://accounts.google.com");
+
+    private final GoogleKeySource keySource;
+    private final String clientId;
+    private final Duration defaultMaxAge;
+    private final Duration minRefreshInterval;
+    private final JwtParser parser;
+
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private volatile long expiresAtMs;
+    private long lastRefreshMs;
+
+    public GoogleIdTokenVerifier(GoogleKeySource keySource,
+                                 @Value("${google.oauth.client-id:}") String clientId,
+                                 @Value("${google.oauth.keys.default-max-age-seconds:3600}") long defaultMaxAgeSeconds,
+                                 @Value("${google.oauth.keys.min-refresh-interval-seconds:60}") long minRefreshIntervalSeconds) {
+        this.keySource = keySource;
+        this.clientId = clientId;
+        this.defaultMaxAge = Duration.ofSeconds(defaultMaxAgeSeconds);
+        this.minRefreshInterval = Duration.ofSeconds(minRefreshIntervalSeconds);
+        JwtParserBuilder builder = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        return keyFor(header.getKeyId());
+                    }
+                })
+                .clockSkewSeconds(30);
+        if (StringUtils.hasText(clientId)) {
+            builder.requireAudience(clientId);
+        }
+        this.parser = builder.build();
+    }
+
+    /**
+     * Check signature, aud, iss and exp, and return the token's claims.
+     */
+    public Map<String, Object> verify(String idToken) {
+        if (!StringUtils.hasText(clientId)) {
+            throw new IllegalStateException("Google OAuth is not configured");
+        }
+
+        Claims claims;
+        try {
+            claims = parser.parseSignedClaims(idToken).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new InvalidCredentialsException("Invalid Google token: " + e.getMessage());
+        }
+
+        if (!ISSUERS.contains(claims.getIssuer())) {
+            throw new InvalidCredentialsException("Google token has an unexpected issuer");
+        }
+        return claims;
+    }
+
+    private Key keyFor(String kid) {
+        if (System.currentTimeMillis() >= expiresAtMs) {
+            refresh(false);
+        }
+        PublicKey key = keys.get(kid);
+        if (key == null && refresh(true)) {
+            // Google may have rotated keys before our copy expired
+            key = keys.get(kid);
+        }
+        if (key == null) {
+            throw new InvalidCredentialsException("Google token signed with an unknown key");
+        }
+        return key;
+    }
+
+    /**
+     * Reload the key set. An unknown-kid refresh is rate limited.
+     * Returns true if new keys were loaded.
+     */
+    private synchronized boolean refresh(boolean unknownKid) {
+        long now = System.currentTimeMillis();
+        if (!unknownKid && now < expiresAtMs) {
+            return false; // another thread already refreshed
+        }
+        if (unknownKid && now - lastRefreshMs < minRefreshInterval.toMillis()) {
+            return false;
+        }
+        lastRefreshMs = now;
+        try {
+            GoogleKeySource.KeySet keySet = keySource.fetchKeys();
+            Duration maxAge = keySet.maxAge() != null ? keySet.maxAge() : defaultMaxAge;
+            keys = Map.copyOf(keySet.keys());
+            expiresAtMs = now + maxAge.toMillis();
+            logger.info("Loaded {} Google signing keys, cached for {}s", keys.size(), maxAge.toSeconds());
+            return true;
+        } catch (Exception e) {
+            // Keep the old keys; retry after the rate limit
+            expiresAtMs = now + minRefreshInterval.toMillis();
+            logger.warn("Failed to refresh Google signing keys: {}", e.getMessage());
+            return false;
+        }
+    }
+}
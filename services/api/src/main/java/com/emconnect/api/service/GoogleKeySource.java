@@ -0,0 +1,24 @@
+package com.emconnect.api.service;
+
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Supplies the public keys Google signs ID tokens with.
+ *
+ * HttpGoogleKeySource fetches Google's JWKS endpoint; tests can supply a fixed key set.
+ */
+public interface GoogleKeySource {
+
+    /**
+     * Fetch the current key set. Throws if it cannot be retrieved.
+     */
+    KeySet fetchKeys();
+
+    /**
+     * Keys by kid, and how long they may be cached (null if the source does not say).
+     */
+    record KeySet(Map<String, PublicKey> keys, Duration maxAge) {
+    }
+}
@@ -0,0 +1,63 @@
+package com.emconnect.api.service;
+
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.security.Key;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads Google's signing keys from its JWKS endpoint. The max-age of the response's
+ * Cache-Control header says how long they may be cached.
+ */
+@Component
+public class HttpGoogleKeySource implements GoogleKeySource {
+
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final String jwksUri;
+
+    public HttpGoogleKeySource(
+            @Value("${google.oauth.jwks-uri:https://www.googleapis.com/oauth2/v3/certs}") String jwksUri) {
+        this.jwksUri = jwksUri;
+    }
+
+    @Override
+    public KeySet fetchKeys() {
+        ResponseEntity<String> response = restTemplate.getForEntity(jwksUri, String.class);
+        if (response.getBody() == null) {
+            throw new IllegalStateException("Empty JWKS response from " + jwksUri);
+        }
+
+        JwkSet jwkSet = Jwks.setParser().ignoreUnsupported(true).build().parse(response.getBody());
+        Map<String, PublicKey> keys = new HashMap<>();
+        for (Jwk<?> jwk : jwkSet.getKeys()) {
+            Key key = jwk.toKey();
+            if (jwk.getId() != null && key instanceof PublicKey publicKey) {
+                keys.put(jwk.getId(), publicKey);
+            }
+        }
+        return new KeySet(keys, maxAge(response.getHeaders()));
+    }
+
+    private static Duration maxAge(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl == null) {
+            return null;
+        }
+        Matcher matcher = MAX_AGE.matcher(cacheControl);
+        return matcher.find() ? Duration.ofSeconds(Long.parseLong(matcher.group(1))) : null;
+    }
+}
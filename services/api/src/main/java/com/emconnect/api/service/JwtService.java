@@ -1,77 +1,171 @@
 package com.emconnect.api.service;
 
+import com.emconnect.api.config.AuthenticatedUser;
 import com.emconnect.api.entity.Role;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Issues and verifies the API's JWTs.
+ *
+ * Tokens are signed with ES256 by SigningKeyRegistry's current key and name it in
+ * the kid header, so other services can verify them with the keys published at
+ * /.well-known/jwks.json. HS256 tokens signed with jwt.secret are still accepted
+ * while jwt.accept-hs256 is set, so tokens issued before the switch keep working
+ * until they expire.
+ *
+ * The parser is built once. Verified tokens are cached by their
+ * SHA-256 digest until they expire, so a client sending the same token on every
+ * request pays for one signature check and claims parse, not one per request. The
+ * digest covers the signature, so a tampered token never matches a cached entry.
+ */
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    // Entries looked at per eviction when the token cache is full
+    private static final int EVICTION_SAMPLE = 16;
 
-    @Value("${jwt.expiration}")
-    private long jwtExpiration;
+    private final SigningKeyRegistry signingKeys;
+    private final SecretKey legacyHmacKey;
+    private final boolean acceptHs256;
+    private final JwtParser parser;
+    private final long jwtExpiration;
+    private final int cacheMaxEntries;
 
-    // Generate the signing key from secret
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    // Token digest -> principal, until the token's exp
+    private final Map<String, CachedUser> verifiedTokens = new ConcurrentHashMap<>();
+
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Timer verifyTimer;
+
+    public JwtService(SigningKeyRegistry signingKeys,
+                      @Value("${jwt.secret}") String jwtSecret,
+                      @Value("${jwt.accept-hs256:true}") boolean acceptHs256,
+                      @Value("${jwt.expiration}") long jwtExpiration,
+                      @Value("${jwt.cache.max-entries:10000}") int cacheMaxEntries,
+                      MeterRegistry meterRegistry) {
+        this.signingKeys = signingKeys;
+        this.legacyHmacKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.acceptHs256 = acceptHs256;
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        return verificationKey(header);
+                    }
+                })
+                .build();
+        this.jwtExpiration = jwtExpiration;
+        this.cacheMaxEntries = cacheMaxEntries;
+
+        this.cacheHits = cacheCounter(meterRegistry, "hit");
+        this.cacheMisses = cacheCounter(meterRegistry, "miss");
+        Gauge.builder("emconnect.auth.token.cache.size", verifiedTokens, Map::size)
+                .description("Verified tokens held in the cache")
+                .register(meterRegistry);
+        this.verifyTimer = Timer.builder("emconnect.auth.token.verify")
+                .description("Signature verification and claims parsing on a cache miss")
+                .register(meterRegistry);
+    }
+
+    private static Counter cacheCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("emconnect.auth.token.cache")
+                .tag("result", result)
+                .register(meterRegistry);
     }
 
     // Generate JWT token for a user
-    public String generateToken(Long userId, String email, Role role) {
+    public String generateToken(Long userId, String email, Role role, int tokenVersion) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("email", email);
         claims.put("role", role.name());
+        claims.put("ver", tokenVersion);
 
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
+        SigningKeyRegistry.SigningKey key = signingKeys.current();
 
         return Jwts.builder()
+                .header().keyId(key.kid()).and()
                 .claims(claims)
                 .subject(String.valueOf(userId))
+                .id(UUID.randomUUID().toString())
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(key.privateKey(), Jwts.SIG.ES256)
                 .compact();
     }
 
+    // Verify the token and build the principal from its claims.
+    // Throws JwtException if the token is invalid or expired.
+    public AuthenticatedUser parseAuthenticatedUser(String token) {
+        String key = digest(token);
+        CachedUser cached = verifiedTokens.get(key);
+        if (cached != null) {
+            if (cached.expiresAtMs() > System.currentTimeMillis()) {
+                cacheHits.increment();
+                return cached.user();
+            }
+            verifiedTokens.remove(key, cached);
+        }
+
+        cacheMisses.increment();
+        Claims claims = verifyTimer.record(() -> parseToken(token));
+        AuthenticatedUser user = toAuthenticatedUser(claims);
+        if (claims.getExpiration() != null) {
+            cache(key, new CachedUser(user, claims.getExpiration().getTime()));
+        }
+        return user;
+    }
+
     // Extract user ID from token
     public Long getUserIdFromToken(String token) {
-        Claims claims = parseToken(token);
-        return Long.parseLong(claims.getSubject());
+        return parseAuthenticatedUser(token).id();
     }
 
     // Extract email from token
     public String getEmailFromToken(String token) {
-        Claims claims = parseToken(token);
-        return claims.get("email", String.class);
+        return parseAuthenticatedUser(token).email();
     }
 
     // Extract role from token
     public String getRoleFromToken(String token) {
-        Claims claims = parseToken(token);
-        return claims.get("role", String.class);
+        return parseAuthenticatedUser(token).role().name();
     }
 
     // Validate token
     public boolean validateToken(String token) {
         try {
-            parseToken(token);
+            parseAuthenticatedUser(token);
             return true;
         } catch (SignatureException e) {
             System.err.println("Invalid JWT signature: " + e.getMessage());
@@ -89,10 +183,77 @@ public class JwtService {
 
     // Parse and get claims from token
     private Claims parseToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    private Key verificationKey(JwsHeader header) {
+        if ("HS256".equals(header.getAlgorithm())) {
+            if (!acceptHs256) {
+                throw new UnsupportedJwtException("HS256 tokens are no longer accepted");
+            }
+            return legacyHmacKey;
+        }
+        PublicKey key = header.getKeyId() != null ? signingKeys.publicKey(header.getKeyId()) : null;
+        if (key == null) {
+            throw new UnsupportedJwtException("Token signed with an unknown key");
+        }
+        return key;
+    }
+
+    private AuthenticatedUser toAuthenticatedUser(Claims claims) {
+        Integer version = claims.get("ver", Integer.class);
+        return new AuthenticatedUser(
+                Long.parseLong(claims.getSubject()),
+                claims.get("email", String.class),
+                Role.valueOf(claims.get("role", String.class)),
+                version != null ? version : 0,
+                claims.getId()
+        );
+    }
+
+    private void cache(String key, CachedUser user) {
+        if (cacheMaxEntries <= 0) {
+            return;
+        }
+        if (verifiedTokens.size() >= cacheMaxEntries) {
+            evictOne();
+        }
+        verifiedTokens.put(key, user);
+    }
+
+    /**
+     * Make room in a full cache by looking at a small sample of entries: expired ones
+     * are dropped, and if none was, the one expiring soonest goes. The rest of the
+     * cache, and so the hit rate, is left alone.
+     */
+    private void evictOne() {
+        long now = System.currentTimeMillis();
+        Map.Entry<String, CachedUser> soonest = null;
+        boolean removedExpired = false;
+        Iterator<Map.Entry<String, CachedUser>> entries = verifiedTokens.entrySet().iterator();
+        for (int i = 0; i < EVICTION_SAMPLE && entries.hasNext(); i++) {
+            Map.Entry<String, CachedUser> entry = entries.next();
+            if (entry.getValue().expiresAtMs() <= now) {
+                entries.remove();
+                removedExpired = true;
+            } else if (soonest == null || entry.getValue().expiresAtMs() < soonest.getValue().expiresAtMs()) {
+                soonest = entry;
+            }
+        }
+        if (!removedExpired && soonest != null) {
+            verifiedTokens.remove(soonest.getKey(), soonest.getValue());
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record CachedUser(AuthenticatedUser user, long expiresAtMs) {
     }
-}
\ No newline at end of file
+}
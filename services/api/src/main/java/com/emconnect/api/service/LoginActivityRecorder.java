@@ -0,0 +1,228 @@
+package com.emconnect.api.service;
+
+import com.emconnect.api.repository.LoginActivityRepository;
+import com.emconnect.api.scheduling.LeaseManager;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind buffer for the login activity timeline.
+ *
+ * Logins are queued in memory and written by a background thread in multi-row
+ * INSERTs, so a login does not wait on the login_activity table. Rows keep the
+ * timestamp taken at login. Entries not yet written are returned by pendingFor(),
+ * which the timeline merges with the stored rows. When the buffer is full the
+ * caller flushes it inline rather than dropping the entry.
+ *
+ * Retention (the latest N rows per user) is enforced by an hourly set-based
+ * delete instead of on every login.
+ */
+@Component
+public class LoginActivityRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginActivityRecorder.class);
+
+    // Multi-row insert; rows of users deleted since their login are skipped instead of
+    // failing the whole batch on the foreign key
+    private static final String INSERT_PREFIX =
+            "INSERT INTO login_activity (user_id, login_method, source_ip, user_agent, created_at) " +
+            "SELECT v.user_id, v.login_method, v.source_ip, v.user_agent, v.created_at FROM (VALUES ";
+    private static final String INSERT_ROW = "(CAST(? AS BIGINT), ?, ?, ?, CAST(? AS TIMESTAMP))";
+    private static final String INSERT_SUFFIX =
+            ") AS v(user_id, login_method, source_ip, user_agent, created_at) " +
+            "WHERE EXISTS (SELECT 1 FROM users u WHERE u.id = v.user_id)";
+
+    /**
+     * A login waiting to be written.
+     */
+    public record PendingLogin(Long userId, String loginMethod, String sourceIp, String userAgent,
+                               LocalDateTime createdAt) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LoginActivityRepository loginActivityRepository;
+    private final LeaseManager leaseManager;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingLogin> buffer;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final int retentionPerUser;
+    private final Counter failed;
+    private final ScheduledExecutorService writerThread;
+    private final Object flushLock = new Object();
+
+    // Drained from the buffer but not committed yet; guarded by this
+    private List<PendingLogin> inFlight = Collections.emptyList();
+
+    public LoginActivityRecorder(JdbcTemplate jdbcTemplate,
+                                 LoginActivityRepository loginActivityRepository,
+                                 LeaseManager leaseManager,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${login-activity.buffer-capacity:10000}") int bufferCapacity,
+                                 @Value("${login-activity.batch-size:500}") int batchSize,
+                                 @Value("${login-activity.flush-interval-ms:1000}") long flushIntervalMs,
+                                 @Value("${login-activity.retention-per-user:100}") int retentionPerUser) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.loginActivityRepository = loginActivityRepository;
+        this.leaseManager = leaseManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.retentionPerUser = retentionPerUser;
+        this.writerThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "login-activity-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("emconnect.login_activity.pending", buffer, BlockingQueue::size)
+                .description("Logins buffered but not yet written")
+                .register(meterRegistry);
+        this.failed = Counter.builder("emconnect.login_activity.failed")
+                .description("Logins lost because their batch could not be written")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        writerThread.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writerThread.shutdown();
+        try {
+            writerThread.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+
+    /**
+     * Queue a login. Flushes inline if the buffer is full.
+     */
+    public void record(Long userId, String loginMethod, String sourceIp, String userAgent) {
+        // Postgres keeps microseconds; truncate so the merged timeline matches stored rows
+        PendingLogin login = new PendingLogin(userId, loginMethod, sourceIp, userAgent,
+                LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        while (!buffer.offer(login)) {
+            flush();
+        }
+    }
+
+    /**
+     * The user's logins that are not in login_activity yet, newest first.
+     * Read this before querying the table: an entry is always in one or the other.
+     */
+    public List<PendingLogin> pendingFor(Long userId) {
+        List<PendingLogin> pending = new ArrayList<>();
+        synchronized (this) {
+            for (PendingLogin login : inFlight) {
+                if (login.userId().equals(userId)) {
+                    pending.add(login);
+                }
+            }
+            for (PendingLogin login : buffer) {
+                if (login.userId().equals(userId)) {
+                    pending.add(login);
+                }
+            }
+        }
+        Collections.reverse(pending);
+        return pending;
+    }
+
+    /**
+     * Write everything buffered, in batches.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            while (true) {
+                List<PendingLogin> batch = new ArrayList<>(batchSize);
+                // Move entries to inFlight atomically so pendingFor() never misses one
+                synchronized (this) {
+                    buffer.drainTo(batch, batchSize);
+                    inFlight = batch;
+                }
+                if (batch.isEmpty()) {
+                    return;
+                }
+                try {
+                    insert(batch);
+                } catch (Exception e) {
+                    failed.increment(batch.size());
+                    logger.error("Failed to write {} login activity rows: {}", batch.size(), e.getMessage());
+                } finally {
+                    synchronized (this) {
+                        inFlight = Collections.emptyList();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Keep only the latest rows per user. One window-function delete across all users.
+     */
+    @Scheduled(fixedDelay = 3600000) // 1 hour
+    public void trimRetention() {
+        leaseManager.runExclusively("login-activity-retention", Duration.ofMinutes(30), Duration.ofMinutes(30), lease -> {
+            Integer deleted = transactionTemplate.execute(
+                    status -> loginActivityRepository.deleteBeyondLatest(retentionPerUser));
+            if (deleted != null && deleted > 0) {
+                logger.info("Trimmed {} login activity rows beyond the latest {} per user", deleted, retentionPerUser);
+            }
+        });
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Login activity flush failed: {}", e.getMessage());
+        }
+    }
+
+    private void insert(List<PendingLogin> batch) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX);
+        Object[] args = new Object[batch.size() * 5];
+        for (int i = 0; i < batch.size(); i++) {
+            PendingLogin login = batch.get(i);
+            sql.append(i == 0 ? INSERT_ROW : ", " + INSERT_ROW);
+            args[i * 5] = login.userId();
+            args[i * 5 + 1] = login.loginMethod();
+            args[i * 5 + 2] = login.sourceIp();
+            args[i * 5 + 3] = login.userAgent();
+            args[i * 5 + 4] = Timestamp.valueOf(login.createdAt());
+        }
+        sql.append(INSERT_SUFFIX);
+        jdbcTemplate.update(sql.toString(), args);
+    }
+}
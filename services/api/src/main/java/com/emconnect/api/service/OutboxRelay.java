@@ -0,0 +1,171 @@
+package com.emconnect.api.service;
+
+import com.emconnect.api.config.RabbitMQConfig;
+import com.emconnect.api.entity.OutboxEvent;
+import com.emconnect.api.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Relays outbox_events rows to RabbitMQ.
+ *
+ * Each batch is locked with FOR UPDATE SKIP LOCKED (so several API instances can
+ * relay side by side), published in id order with publisher confirms, and the
+ * confirmed rows are marked sent in the same transaction. The whole batch shares one
+ * outbox.relay.confirm-timeout-ms deadline, so the row locks are held for at most that
+ * long after publishing. Rows are marked sent only up to the first one that is nacked
+ * or times out; that row counts a failed attempt and it and everything after it are
+ * retried in order on the next poll, up to outbox.relay.max-attempts; rows past that
+ * stay in the table (reset attempts to requeue them). An unreachable broker pauses
+ * the relay without using up attempts.
+ * Delivery is at-least-once: consumers may see a message twice after a crash.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long confirmTimeoutMs;
+    private final long retentionHours;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       RabbitTemplate rabbitTemplate,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${outbox.relay.batch-size:200}") int batchSize,
+                       @Value("${outbox.relay.max-attempts:20}") int maxAttempts,
+                       @Value("${outbox.relay.confirm-timeout-ms:5000}") long confirmTimeoutMs,
+                       @Value("${outbox.retention-hours:24}") long retentionHours) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+        this.retentionHours = retentionHours;
+    }
+
+    /**
+     * Drain the outbox until a batch comes back short.
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-interval-ms:250}")
+    public void relay() {
+        Integer relayed;
+        do {
+            relayed = transactionTemplate.execute(status -> relayBatch());
+        } while (relayed != null && relayed == batchSize);
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.lockUnsentBatch(batchSize, maxAttempts);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        // Step 1: Publish the whole batch, then wait for confirms
+        List<CorrelationData> confirms = new ArrayList<>(batch.size());
+        for (OutboxEvent row : batch) {
+            CorrelationData correlation = new CorrelationData(row.getMessageId());
+            try {
+                rabbitTemplate.send(RabbitMQConfig.EVENTS_EXCHANGE, row.getRoutingKey(), toMessage(row), correlation);
+            } catch (Exception e) {
+                // Broker unreachable: keep the rest for the next poll without counting an attempt
+                logger.warn("Outbox relay paused, broker unavailable: {}", e.getMessage());
+                batch = batch.subList(0, confirms.size());
+                break;
+            }
+            confirms.add(correlation);
+        }
+
+        // Step 2: Mark rows sent in order up to the first one not confirmed by the batch deadline.
+        // That row counts a failed attempt; it and the rows after it are retried in order.
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+        List<Long> sent = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent row = batch.get(i);
+            String error = awaitConfirm(confirms.get(i), deadline);
+            if (error != null) {
+                outboxEventRepository.markFailed(row.getId(), truncate(error));
+                if (row.getAttempts() + 1 >= maxAttempts) {
+                    logger.error("Outbox event {} ({}) parked after {} attempts: {}",
+                            row.getId(), row.getRoutingKey(), maxAttempts, error);
+                }
+                break;
+            }
+            sent.add(row.getId());
+        }
+        if (!sent.isEmpty()) {
+            outboxEventRepository.markSent(sent, LocalDateTime.now());
+        }
+        if (sent.size() < batch.size()) {
+            logger.warn("Outbox relay: {} of {} events not confirmed, will retry", batch.size() - sent.size(), batch.size());
+        }
+        // A short batch (including an interrupted or unconfirmed one) ends this drain
+        return sent.size();
+    }
+
+    private String awaitConfirm(CorrelationData correlation, long deadlineNanos) {
+        try {
+            long remaining = Math.max(0, deadlineNanos - System.nanoTime());
+            CorrelationData.Confirm confirm = correlation.getFuture().get(remaining, TimeUnit.NANOSECONDS);
+            if (!confirm.isAck()) {
+                return "nack: " + confirm.getReason();
+            }
+            if (correlation.getReturned() != null) {
+                return "returned: " + correlation.getReturned().getReplyText();
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "interrupted";
+        } catch (Exception e) {
+            return e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+
+    private Message toMessage(OutboxEvent row) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setContentEncoding(StandardCharsets.UTF_8.name());
+        properties.setMessageId(row.getMessageId());
+        properties.setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+        properties.setHeader("__TypeId__", row.getEventType());
+        return new Message(row.getPayload().getBytes(StandardCharsets.UTF_8), properties);
+    }
+
+    private String truncate(String error) {
+        return error.length() <= 500 ? error : error.substring(0, 500);
+    }
+
+    /**
+     * Delete relayed rows after the retention window.
+     */
+    @Scheduled(fixedDelay = 3600000) // 1 hour
+    public void purgeSentEvents() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        Integer deleted = transactionTemplate.execute(status -> outboxEventRepository.deleteSentBefore(cutoff));
+        if (deleted != null && deleted > 0) {
+            logger.info("Purged {} relayed outbox events older than {}", deleted, cutoff);
+        }
+    }
+}
@@ -8,7 +8,6 @@ import com.emconnect.api.repository.PasswordResetCodeRepository;
 import com.emconnect.api.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,18 +25,24 @@ public class PasswordResetService {
 
     private final UserRepository userRepository;
     private final PasswordResetCodeRepository resetCodeRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final EventPublisher eventPublisher;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final UserCache userCache;
     private final SecureRandom secureRandom = new SecureRandom();
 
     public PasswordResetService(UserRepository userRepository,
                                 PasswordResetCodeRepository resetCodeRepository,
-                                PasswordEncoder passwordEncoder,
-                                EventPublisher eventPublisher) {
+                                PasswordHasher passwordHasher,
+                                EventPublisher eventPublisher,
+                                TokenVersionRegistry tokenVersionRegistry,
+                                UserCache userCache) {
         this.userRepository = userRepository;
         this.resetCodeRepository = resetCodeRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
         this.eventPublisher = eventPublisher;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.userCache = userCache;
     }
 
     /**
@@ -146,9 +151,11 @@ public class PasswordResetService {
         resetCode.setUsed(true);
         resetCodeRepository.save(resetCode);
 
-        // Update password
-        user.setPassword(passwordEncoder.encode(newPassword));
+        // Update password and sign out existing sessions
+        user.setPassword(passwordHasher.encode(newPassword));
+        tokenVersionRegistry.revokeTokens(user);
         userRepository.save(user);
+        userCache.evict(user);
 
         // Invalidate any other unused codes
         resetCodeRepository.invalidateAllForUser(user.getId());
@@ -0,0 +1,158 @@
+package com.emconnect.api.service;
+
+import com.emconnect.api.entity.RefreshToken;
+import com.emconnect.api.entity.User;
+import com.emconnect.api.exception.InvalidCredentialsException;
+import com.emconnect.api.repository.RefreshTokenRepository;
+import com.emconnect.api.repository.UserRepository;
+import com.emconnect.api.scheduling.LeaseManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Issues and rotates refresh tokens.
+ *
+ * A refresh token is 32 random bytes handed to the client once; only its SHA-256 is
+ * stored. Every refresh revokes the presented token and issues the next one in the
+ * same family. A revoked token presented again means it was copied, so the whole
+ * family is revoked and the user has to sign in again. Tokens issued before the
+ * user's current token version (role or password change) are refused.
+ *
+ * The exception is a token rotated less than jwt.refresh.reuse-grace-seconds ago
+ * while its family is still live: that is another browser tab refreshing with the
+ * same stored token, and it gets its own token in the family instead of signing
+ * every tab out.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    /**
+     * The user a refresh token belongs to, and the token replacing it.
+     */
+    public record Rotation(User user, String refreshToken) {
+    }
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final LeaseManager leaseManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration lifetime;
+    private final Duration reuseGrace;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserRepository userRepository,
+                               LeaseManager leaseManager,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${jwt.refresh.expiration-days:30}") long lifetimeDays,
+                               @Value("${jwt.refresh.reuse-grace-seconds:10}") long reuseGraceSeconds) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.leaseManager = leaseManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lifetime = Duration.ofDays(lifetimeDays);
+        this.reuseGrace = Duration.ofSeconds(reuseGraceSeconds);
+    }
+
+    /**
+     * Start a new token family for a sign-in.
+     */
+    @Transactional
+    public String issue(User user) {
+        return issue(user, UUID.randomUUID());
+    }
+
+    /**
+     * Exchange a refresh token for the next one in its family.
+     * The family revocation on reuse must survive the exception, hence noRollbackFor.
+     */
+    @Transactional(noRollbackFor = InvalidCredentialsException.class)
+    public Rotation rotate(String refreshToken) {
+        String hash = hash(refreshToken);
+
+        // Step 1: Take the token; fails if it is unknown, expired or already used.
+        // A token another tab rotated moments ago still gets a successor.
+        Optional<RefreshToken> consumed = refreshTokenRepository.consume(hash)
+                .or(() -> refreshTokenRepository.findRecentlyRotated(hash, reuseGrace.toMillis()));
+        if (consumed.isEmpty()) {
+            refreshTokenRepository.findByTokenHash(hash)
+                    .filter(token -> token.getRevokedAt() != null)
+                    .ifPresent(token -> {
+                        logger.warn("Revoked refresh token reused for user {}; revoking its family", token.getUserId());
+                        refreshTokenRepository.revokeFamily(token.getFamilyId());
+                    });
+            throw new InvalidCredentialsException("Invalid or expired refresh token");
+        }
+        RefreshToken token = consumed.get();
+
+        // Step 2: Refuse tokens from before a role or password change
+        User user = userRepository.findById(token.getUserId())
+                .orElseThrow(() -> new InvalidCredentialsException("Invalid or expired refresh token"));
+        if (token.getTokenVersion() < user.getTokenVersion()) {
+            refreshTokenRepository.revokeFamily(token.getFamilyId());
+            throw new InvalidCredentialsException("Session was signed out, please sign in again");
+        }
+
+        // Step 3: Issue the next token in the family
+        return new Rotation(user, issue(user, token.getFamilyId()));
+    }
+
+    /**
+     * Sign out the session the token belongs to. Unknown tokens are ignored.
+     */
+    @Transactional
+    public void revoke(String refreshToken) {
+        refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId()));
+    }
+
+    @Scheduled(fixedDelay = 3600000) // 1 hour
+    public void purgeExpired() {
+        leaseManager.runExclusively("refresh-token-purge", Duration.ofMinutes(30), Duration.ofMinutes(30), lease -> {
+            Integer deleted = transactionTemplate.execute(
+                    status -> refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now()));
+            if (deleted != null && deleted > 0) {
+                logger.info("Purged {} expired refresh tokens", deleted);
+            }
+        });
+    }
+
+    private String issue(User user, UUID familyId) {
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(new RefreshToken(
+                user.getId(), hash(refreshToken), familyId, user.getTokenVersion(),
+                LocalDateTime.now().plus(lifetime)));
+        return refreshToken;
+    }
+
+    private static String hash(String refreshToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(refreshToken.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.emconnect.api.service;
+
+import com.emconnect.api.entity.RegistrationAttempt;
+import com.emconnect.api.entity.RegistrationAttemptStatus;
+import com.emconnect.api.entity.RegistrationMode;
+import com.emconnect.api.entity.Registration;
+import com.emconnect.api.exception.DuplicateRegistrationException;
+import com.emconnect.api.exception.EventNotAvailableException;
+import com.emconnect.api.exception.ResourceNotFoundException;
+import com.emconnect.api.exception.ServiceBusyException;
+import com.emconnect.api.repository.EventRepository;
+import com.emconnect.api.repository.RegistrationAttemptRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Queued ("flash-sale") registration for events with registrationMode = QUEUED.
+ *
+ * POST /register only records an attempt in registration_attempts and returns 202.
+ * A scheduled consumer settles pending attempts oldest-first through
+ * RegistrationService, one short transaction per attempt. Several API instances
+ * can consume together: attempts are claimed with FOR UPDATE SKIP LOCKED.
+ */
+@Service
+public class RegistrationAttemptService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegistrationAttemptService.class);
+
+    private final RegistrationAttemptRepository attemptRepository;
+    private final EventRepository eventRepository;
+    private final RegistrationService registrationService;
+    private final TransactionTemplate transactionTemplate;
+    private final long queueCapacity;
+    private final int batchSize;
+    private final long retentionHours;
+
+    // Pending attempts across all instances, refreshed from the table on every poll
+    private final AtomicLong pendingEstimate = new AtomicLong();
+
+    public RegistrationAttemptService(RegistrationAttemptRepository attemptRepository,
+                                      EventRepository eventRepository,
+                                      RegistrationService registrationService,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${registration.queue.capacity:10000}") long queueCapacity,
+                                      @Value("${registration.queue.batch-size:100}") int batchSize,
+                                      @Value("${registration.queue.retention-hours:24}") long retentionHours) {
+        this.attemptRepository = attemptRepository;
+        this.eventRepository = eventRepository;
+        this.registrationService = registrationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.retentionHours = retentionHours;
+    }
+
+    /**
+     * Whether registrations for this event go through the attempt queue.
+     * Unknown events return false so the standard path reports the 404.
+     */
+    public boolean isQueued(Long eventId) {
+        return eventRepository.findRegistrationModeById(eventId)
+                .map(mode -> mode == RegistrationMode.QUEUED)
+                .orElse(false);
+    }
+
+    /**
+     * Accept a registration attempt. Returns the user's existing pending attempt
+     * for the event if there is one. Sheds load with 503 when the queue is full.
+     */
+    @Transactional
+    public RegistrationAttempt submit(Long eventId, Long userId) {
+        if (pendingEstimate.get() >= queueCapacity) {
+            logger.warn("Registration queue is full ({} pending). Shedding attempt for event {}",
+                    pendingEstimate.get(), eventId);
+            throw new ServiceBusyException("Registration queue is full, please retry shortly", 2);
+        }
+
+        Optional<Long> id = attemptRepository.enqueue(UUID.randomUUID(), eventId, userId);
+        if (id.isEmpty()) {
+            return attemptRepository.findByEventIdAndUserIdAndStatus(
+                            eventId, userId, RegistrationAttemptStatus.PENDING)
+                    .orElseThrow(() -> new ServiceBusyException(
+                            "Previous attempt is being processed, please retry", 1));
+        }
+
+        pendingEstimate.incrementAndGet();
+        return attemptRepository.findById(id.get())
+                .orElseThrow(() -> new IllegalStateException("Attempt " + id.get() + " vanished after insert"));
+    }
+
+    /**
+     * Get an attempt owned by the user. Other users' attempts are reported as not found.
+     */
+    @Transactional(readOnly = true)
+    public RegistrationAttempt getAttempt(UUID attemptId, Long userId) {
+        return attemptRepository.findByAttemptId(attemptId)
+                .filter(attempt -> attempt.getUserId().equals(userId))
+                .orElseThrow(() -> new ResourceNotFoundException("Registration attempt not found: " + attemptId));
+    }
+
+    /**
+     * Settle pending attempts in arrival order.
+     */
+    @Scheduled(fixedDelayString = "${registration.queue.poll-interval-ms:200}")
+    public void processPendingAttempts() {
+        pendingEstimate.set(attemptRepository.countByStatus(RegistrationAttemptStatus.PENDING));
+        if (pendingEstimate.get() == 0) {
+            return;
+        }
+
+        List<Long> ids = attemptRepository.findPendingIds(batchSize);
+        int settled = 0;
+        for (Long id : ids) {
+            if (settle(id)) {
+                settled++;
+            }
+        }
+        if (settled > 0) {
+            logger.info("Settled {} registration attempts ({} were pending)", settled, pendingEstimate.get());
+        }
+    }
+
+    /**
+     * Settle one attempt. Claiming the attempt, creating the registration and
+     * marking it CONFIRMED commit together; a business rejection rolls that back
+     * and records REJECTED in a second transaction. Unexpected errors leave the
+     * attempt PENDING for the next poll.
+     */
+    private boolean settle(Long id) {
+        try {
+            Boolean claimed = transactionTemplate.execute(status -> {
+                Optional<RegistrationAttempt> claim = attemptRepository.claimPending(id);
+                if (claim.isEmpty()) {
+                    return false; // settled already or held by another instance
+                }
+                RegistrationAttempt attempt = claim.get();
+                Registration registration = registrationService.registerQueuedAttempt(
+                        attempt.getEventId(), attempt.getUserId());
+                attemptRepository.settle(id, RegistrationAttemptStatus.CONFIRMED, null,
+                        registration.getId(), LocalDateTime.now());
+                return true;
+            });
+            return Boolean.TRUE.equals(claimed);
+        } catch (EventNotAvailableException e) {
+            return reject(id, e.getReason());
+        } catch (DuplicateRegistrationException | ResourceNotFoundException e) {
+            return reject(id, e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Failed to settle registration attempt {}, will retry: {}", id, e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean reject(Long id, String reason) {
+        transactionTemplate.executeWithoutResult(status ->
+                attemptRepository.settle(id, RegistrationAttemptStatus.REJECTED, reason, null, LocalDateTime.now()));
+        return true;
+    }
+
+    /**
+     * Drop settled attempts once clients have had time to poll them.
+     */
+    @Scheduled(fixedDelay = 3600000) // 1 hour
+    public void purgeSettledAttempts() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        Integer deleted = transactionTemplate.execute(status -> attemptRepository.deleteSettledBefore(cutoff));
+        if (deleted != null && deleted > 0) {
+            logger.info("Purged {} settled registration attempts older than {}", deleted, cutoff);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.emconnect.api.service;
+
+import com.emconnect.api.entity.Registration;
+import com.emconnect.api.exception.ServiceBusyException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Per-event single-writer registration lanes.
+ *
+ * Requests for the same event are queued on that event's lane. A lane is drained
+ * by at most one worker at a time, in micro-batches: the whole batch is committed
+ * in one transaction with one capacity check (see RegistrationService#processLaneBatch),
+ * then every caller's future is completed. This replaces one lock + one transaction
+ * per request with one per batch during flash crowds.
+ *
+ * Enabled with registration.lanes.enabled=true.
+ */
+@Component
+public class RegistrationLaneEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegistrationLaneEngine.class);
+
+    private static final long IDLE_LANE_EVICTION_MS = 10 * 60 * 1000;
+
+    /**
+     * Settles one batch of requests for one event. Implementations must complete
+     * every request's future.
+     */
+    interface BatchProcessor {
+        void process(Long eventId, List<LaneRequest> batch);
+    }
+
+    /**
+     * A caller waiting on a lane. Claimed exactly once: by the worker that takes it
+     * into a batch, or by the caller giving up before that.
+     */
+    record LaneRequest(String userEmail, CompletableFuture<Registration> result, AtomicBoolean claimed) {
+
+        LaneRequest(String userEmail) {
+            this(userEmail, new CompletableFuture<>(), new AtomicBoolean(false));
+        }
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final long timeoutMs;
+    private final ExecutorService workers;
+    private final ConcurrentHashMap<Long, Lane> lanes = new ConcurrentHashMap<>();
+
+    private volatile BatchProcessor processor;
+
+    public RegistrationLaneEngine(
+            @Value("${registration.lanes.enabled:false}") boolean enabled,
+            @Value("${registration.lanes.workers:4}") int workerCount,
+            @Value("${registration.lanes.batch-size:64}") int batchSize,
+            @Value("${registration.lanes.queue-capacity:5000}") int queueCapacity,
+            @Value("${registration.lanes.timeout-ms:10000}") long timeoutMs) {
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        this.timeoutMs = timeoutMs;
+        this.workers = enabled
+                ? Executors.newFixedThreadPool(workerCount, daemonThreads("registration-lane-"))
+                : null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    void setBatchProcessor(BatchProcessor processor) {
+        this.processor = processor;
+    }
+
+    /**
+     * Queue a registration on the event's lane and wait for its batch to settle.
+     * Business exceptions from the batch are rethrown on the caller's thread.
+     *
+     * The timeout only applies while the request is still queued. Once a batch has
+     * taken it the caller waits for that batch, since a "please retry" answer could
+     * race a commit and the retry would then be told it is already registered.
+     */
+    public Registration submit(Long eventId, String userEmail) {
+        Lane lane = lanes.computeIfAbsent(eventId, Lane::new);
+        LaneRequest request = new LaneRequest(userEmail);
+
+        if (!lane.queue.offer(request)) {
+            logger.warn("Registration lane for event {} is full ({} waiting)", eventId, queueCapacity);
+            throw new ServiceBusyException("Registration is busy for this event, please retry shortly", 1);
+        }
+        lane.lastActivity = System.currentTimeMillis();
+        schedule(lane);
+
+        try {
+            return request.result().get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw failure(e.getCause());
+        } catch (TimeoutException e) {
+            if (request.claim()) {
+                // Still queued, so no batch will ever pick it up
+                throw new ServiceBusyException("Registration is taking longer than expected, please retry", 2);
+            }
+            // Already in a batch that may commit; its outcome is the answer
+            try {
+                return request.result().join();
+            } catch (CompletionException ex) {
+                throw failure(ex.getCause());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            request.claim();
+            throw new ServiceBusyException("Registration was interrupted, please retry", 1);
+        }
+    }
+
+    private static RuntimeException failure(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        return new IllegalStateException("Registration failed", cause);
+    }
+
+    private void schedule(Lane lane) {
+        if (lane.draining.compareAndSet(false, true)) {
+            workers.execute(() -> drain(lane));
+        }
+    }
+
+    private void drain(Lane lane) {
+        List<LaneRequest> batch = new ArrayList<>(batchSize);
+        try {
+            lane.queue.drainTo(batch, batchSize);
+            // Callers that already gave up are not registered
+            batch.removeIf(request -> !request.claim());
+            if (!batch.isEmpty()) {
+                processor.process(lane.eventId, batch);
+            }
+        } catch (Exception e) {
+            logger.error("Registration lane for event {} failed a batch of {}: {}",
+                    lane.eventId, batch.size(), e.getMessage(), e);
+            batch.forEach(request -> request.result().completeExceptionally(e));
+        } finally {
+            lane.draining.set(false);
+            // Re-queue instead of looping so one hot event can't starve the other lanes
+            if (!lane.queue.isEmpty()) {
+                schedule(lane);
+            }
+        }
+    }
+
+    /**
+     * Drop lanes that have been idle for a while so the map only holds active events.
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdleLanes() {
+        if (!enabled) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - IDLE_LANE_EVICTION_MS;
+        lanes.values().removeIf(lane ->
+                lane.queue.isEmpty() && !lane.draining.get() && lane.lastActivity < cutoff);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (workers != null) {
+            workers.shutdown();
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        ThreadFactory defaults = Executors.defaultThreadFactory();
+        return runnable -> {
+            Thread thread = defaults.newThread(runnable);
+            thread.setName(prefix + thread.getName());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private final class Lane {
+        private final Long eventId;
+        private final BlockingQueue<LaneRequest> queue = new LinkedBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+        private volatile long lastActivity = System.currentTimeMillis();
+
+        private Lane(Long eventId) {
+            this.eventId = eventId;
+        }
+    }
+}
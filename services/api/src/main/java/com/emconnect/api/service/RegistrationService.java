@@ -1,22 +1,28 @@
 package com.emconnect.api.service;
 
+import com.emconnect.api.dto.PageCursor;
 import com.emconnect.api.entity.*;
 import com.emconnect.api.event.RegistrationCancelledEvent;
 import com.emconnect.api.event.RegistrationConfirmedEvent;
 import com.emconnect.api.exception.*;
 import com.emconnect.api.repository.EventRepository;
 import com.emconnect.api.repository.RegistrationRepository;
-import com.emconnect.api.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.List;
 @SuppressWarnings("null")
 @Service
 public class RegistrationService {
@@ -25,88 +31,175 @@ public class RegistrationService {
 
     private final RegistrationRepository registrationRepository;
     private final EventRepository eventRepository;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
     private final EventPublisher eventPublisher;
+    private final RegistrationLaneEngine laneEngine;
+    private final WaitlistService waitlistService;
+    private final TransactionTemplate transactionTemplate;
 
     public RegistrationService(RegistrationRepository registrationRepository,
                                EventRepository eventRepository,
-                               UserRepository userRepository,
-                               EventPublisher eventPublisher) {
+                               UserCache userCache,
+                               EventPublisher eventPublisher,
+                               RegistrationLaneEngine laneEngine,
+                               WaitlistService waitlistService,
+                               PlatformTransactionManager transactionManager) {
         this.registrationRepository = registrationRepository;
         this.eventRepository = eventRepository;
-        this.userRepository = userRepository;
+        this.userCache = userCache;
         this.eventPublisher = eventPublisher;
+        this.laneEngine = laneEngine;
+        this.waitlistService = waitlistService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        laneEngine.setBatchProcessor(this::processLaneBatch);
     }
 
     /**
-     * Register a user for an event (with pessimistic locking for capacity safety).
+     * Register a user for an event.
+     *
+     * Capacity is enforced by a conditional increment of events.confirmed_count
+     * (EventRepository.reserveSeat) instead of locking the event row, so concurrent
+     * registrants only contend on that single short UPDATE before commit.
+     *
+     * With registration.lanes.enabled the request is queued on the event's lane
+     * instead and committed together with other registrations for the same event.
+     * No transaction (or connection) is held while waiting on the lane.
      */
-    @Transactional
     public Registration registerForEvent(Long eventId, String userEmail) {
+        if (laneEngine.isEnabled()) {
+            return laneEngine.submit(eventId, userEmail);
+        }
+        return transactionTemplate.execute(status -> registerDirect(eventId, userEmail));
+    }
+
+    /**
+     * Register within the caller's transaction, bypassing lanes. Used by the
+     * queued-registration consumer, which already holds the attempt row.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Registration registerQueuedAttempt(Long eventId, Long userId) {
+        User user = userCache.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        return register(eventId, user);
+    }
+
+    private Registration registerDirect(Long eventId, String userEmail) {
         // Step 1: Find the user
-        User user = userRepository.findByEmail(userEmail)
+        User user = userCache.findByEmail(userEmail)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        return register(eventId, user);
+    }
 
-        // Step 2: Lock the event row
-        Event event = eventRepository.findByIdWithLock(eventId)
+    private Registration register(Long eventId, User user) {
+        // Step 2: Load the event (no lock — capacity is reserved atomically in step 5)
+        Event event = eventRepository.findById(eventId)
                 .orElseThrow(() -> new ResourceNotFoundException("Event not found with id: " + eventId));
 
-        logger.info("Locked event {} for registration by user {}", eventId, userEmail);
-
         // Step 3: Validate business rules
         validateRegistration(event, user);
 
-        // Step 4: Check if user has a cancelled registration (reactivate it)
-        var existingRegistration = registrationRepository.findByUserIdAndEventId(
-            user.getId(), event.getId()
-        );
+        // Step 4: Create a new registration or reactivate a cancelled one
+        Registration registration = confirmRegistration(event, user);
 
-        Registration registration;
-        if (existingRegistration.isPresent() && 
-            existingRegistration.get().getStatus() == RegistrationStatus.CANCELLED) {
-            // Reactivate the cancelled registration
-            registration = existingRegistration.get();
-            registration.setStatus(RegistrationStatus.CONFIRMED);
-            registration.setRegisteredAt(LocalDateTime.now());
-            registration.setCancelledAt(null);
-            logger.info("Reactivated registration {} for user {} on event {}", 
-                registration.getId(), userEmail, eventId);
-        } else {
-            // Create new registration
-            registration = new Registration(user, event);
-            logger.info("Created new registration for user {} on event {}", userEmail, eventId);
-        }
+        // Step 5: Reserve a seat — rolls the registration back if the event filled up meanwhile
+        int currentParticipants = eventRepository.reserveSeat(eventId)
+                .orElseThrow(() -> {
+                    logger.warn("Event {} is full. Rejecting registration for user {}", eventId, user.getEmail());
+                    return eventFull(event);
+                });
 
-        // Step 5: Save
-        registration = registrationRepository.save(registration);
+        // Step 6: Publish domain event (after successful save)
+        publishRegistrationConfirmed(registration, currentParticipants);
+
+        return registration;
+    }
 
-        // Step 6: Get updated participant count (after this registration)
-        long currentParticipants = registrationRepository.countByEventIdAndStatus(
-                event.getId(), RegistrationStatus.CONFIRMED);
+    /**
+     * Settle one lane batch in a single transaction: lock the event row once,
+     * admit as many valid requests as there are free seats, and bump
+     * confirmed_count by the number admitted. If the batch can't commit (e.g. a
+     * constraint race with another node) each request is retried on the direct path.
+     */
+    private void processLaneBatch(Long eventId, List<RegistrationLaneEngine.LaneRequest> batch) {
+        Object[] outcomes = new Object[batch.size()];
 
-        // Step 7: Publish domain event (after successful save)
         try {
-            RegistrationConfirmedEvent domainEvent = RegistrationConfirmedEvent.fromRegistration(
-                    registration, currentParticipants);
-            eventPublisher.publishRegistrationConfirmed(domainEvent);
-        } catch (Exception e) {
-            // Log but don't fail — the registration was successful
-            logger.error("Failed to publish registration confirmed event: {}", e.getMessage());
+            transactionTemplate.executeWithoutResult(status -> {
+                Event event = eventRepository.findByIdWithLock(eventId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Event not found with id: " + eventId));
+
+                int confirmed = event.getConfirmedCount();
+                int admitted = 0;
+                for (int i = 0; i < batch.size(); i++) {
+                    try {
+                        User user = userCache.findByEmail(batch.get(i).userEmail())
+                                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+                        validateRegistration(event, user);
+                        if (confirmed + admitted >= event.getCapacity()) {
+                            throw eventFull(event);
+                        }
+                        outcomes[i] = confirmRegistration(event, user);
+                        admitted++;
+                    } catch (EventNotAvailableException | DuplicateRegistrationException
+                             | ResourceNotFoundException e) {
+                        outcomes[i] = e;
+                    }
+                }
+
+                // One capacity update for the whole batch
+                if (admitted > 0) {
+                    final int seats = admitted;
+                    eventRepository.reserveSeats(eventId, seats)
+                            .orElseThrow(() -> new IllegalStateException(
+                                "Could not reserve " + seats + " seats on locked event " + eventId));
+                }
+
+                int participants = confirmed;
+                for (Object outcome : outcomes) {
+                    if (outcome instanceof Registration registration) {
+                        publishRegistrationConfirmed(registration, ++participants);
+                    }
+                }
+                logger.info("Lane batch for event {}: {} admitted, {} rejected",
+                        eventId, admitted, batch.size() - admitted);
+            });
+        } catch (ResourceNotFoundException e) {
+            batch.forEach(request -> request.result().completeExceptionally(e));
+            return;
+        } catch (RuntimeException e) {
+            logger.warn("Lane batch for event {} rolled back ({}); settling {} requests individually",
+                    eventId, e.getMessage(), batch.size());
+            for (RegistrationLaneEngine.LaneRequest request : batch) {
+                try {
+                    request.result().complete(transactionTemplate.execute(
+                            status -> registerDirect(eventId, request.userEmail())));
+                } catch (RuntimeException ex) {
+                    request.result().completeExceptionally(ex);
+                }
+            }
+            return;
         }
 
-        return registration;
+        for (int i = 0; i < batch.size(); i++) {
+            if (outcomes[i] instanceof Registration registration) {
+                batch.get(i).result().complete(registration);
+            } else {
+                batch.get(i).result().completeExceptionally((RuntimeException) outcomes[i]);
+            }
+        }
     }
 
     /**
      * Cancel a registration
      */
     @Transactional
-    public Registration cancelRegistration(Long registrationId, String userEmail) {
-        Registration registration = registrationRepository.findById(registrationId)
+    public Registration cancelRegistration(Long registrationId, Long userId) {
+        // Lock the row so two concurrent cancels can't both release a seat
+        Registration registration = registrationRepository.findByIdWithLock(registrationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Registration not found"));
 
         // Verify the user owns this registration
-        if (!registration.getUser().getEmail().equals(userEmail)) {
+        if (!registration.getUser().getId().equals(userId)) {
             throw new org.springframework.security.access.AccessDeniedException(
                 "You can only cancel your own registrations"
             );
@@ -124,15 +217,25 @@ public class RegistrationService {
             );
         }
 
+        // Leaving the waitlist frees no seat
+        if (registration.getStatus() == RegistrationStatus.WAITLISTED) {
+            long waitlistSeq = registration.getWaitlistSeq();
+            registration.cancel();
+            logger.info("Removed registration {} for user {} from the waitlist", registrationId, userId);
+            waitlistService.onWaitlistCancelled(registration.getEvent().getId(), waitlistSeq);
+            return registrationRepository.save(registration);
+        }
+
         // Cancel the registration
         registration.cancel();
-        logger.info("Cancelled registration {} for user {}", registrationId, userEmail);
+        logger.info("Cancelled registration {} for user {}", registrationId, userId);
 
         registration = registrationRepository.save(registration);
 
-        // Get updated participant count (after cancellation)
-        long currentParticipants = registrationRepository.countByEventIdAndStatus(
-                registration.getEvent().getId(), RegistrationStatus.CONFIRMED);
+        // Give the seat back and get the updated participant count
+        Long eventId = registration.getEvent().getId();
+        long currentParticipants = eventRepository.releaseSeat(eventId)
+                .orElse(0);
 
         // Publish domain event
         try {
@@ -143,6 +246,9 @@ public class RegistrationService {
             logger.error("Failed to publish registration cancelled event: {}", e.getMessage());
         }
 
+        // Hand the freed seat to the head of the waitlist, in this transaction
+        waitlistService.promoteWaitlisted(eventId, 1);
+
         return registration;
     }
 
@@ -166,24 +272,18 @@ public class RegistrationService {
     /**
      * Get user's registrations
      */
-    public Page<Registration> getUserRegistrations(String userEmail, int page, int size) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-
+    public Page<Registration> getUserRegistrations(Long userId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("registeredAt").descending());
-        return registrationRepository.findByUserId(user.getId(), pageable);
+        return registrationRepository.findByUserId(userId, pageable);
     }
 
     /**
      * Get user's active registrations only
      */
-    public Page<Registration> getUserActiveRegistrations(String userEmail, int page, int size) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-
+    public Page<Registration> getUserActiveRegistrations(Long userId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("registeredAt").descending());
         return registrationRepository.findByUserIdAndStatus(
-            user.getId(), 
+            userId, 
             RegistrationStatus.CONFIRMED, 
             pageable
         );
@@ -192,12 +292,9 @@ public class RegistrationService {
     /**
      * Get user's registrations filtered by status
      */
-    public Page<Registration> getUserRegistrationsByStatus(String userEmail, RegistrationStatus status, int page, int size) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-
+    public Page<Registration> getUserRegistrationsByStatus(Long userId, RegistrationStatus status, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("registeredAt").descending());
-        return registrationRepository.findByUserIdAndStatus(user.getId(), status, pageable);
+        return registrationRepository.findByUserIdAndStatus(userId, status, pageable);
     }
 
     /**
@@ -213,24 +310,52 @@ public class RegistrationService {
     }
 
     /**
-     * Check if user is registered for an event
+     * Cursor page of an event's registrations, oldest first, with no count query
      */
-    public boolean isUserRegistered(Long eventId, String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    public Slice<Registration> scrollEventRegistrations(Long eventId, PageCursor after, int size) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new ResourceNotFoundException("Event not found with id: " + eventId);
+        }
+        return registrationRepository.findByEventIdAfterCursor(
+                eventId, after.at(), after.id(), PageCursor.limit(size));
+    }
 
+    /**
+     * Cursor page of a user's registrations (optionally one status), newest first
+     */
+    public Slice<Registration> scrollUserRegistrations(Long userId, RegistrationStatus status,
+                                                       PageCursor before, int size) {
+        return registrationRepository.findByUserIdBeforeCursor(
+                userId, status, before.at(), before.id(), PageCursor.limit(size));
+    }
+
+    /**
+     * Check if user is registered for an event
+     */
+    public boolean isUserRegistered(Long eventId, Long userId) {
         return registrationRepository.existsByUserIdAndEventIdAndStatus(
-            user.getId(), 
+            userId, 
             eventId, 
             RegistrationStatus.CONFIRMED
         );
     }
 
+    /**
+     * Check if user is on the waitlist for an event
+     */
+    public boolean isUserWaitlisted(Long eventId, Long userId) {
+        return registrationRepository.existsByUserIdAndEventIdAndStatus(
+            userId,
+            eventId,
+            RegistrationStatus.WAITLISTED
+        );
+    }
+
     /**
      * Get registration count for an event (only confirmed)
      */
     public long getEventRegistrationCount(Long eventId) {
-        return registrationRepository.countByEventIdAndStatus(eventId, RegistrationStatus.CONFIRMED);
+        return eventRepository.findConfirmedCountById(eventId).orElse(0);
     }
 
     // ==================== Private Helper Methods ====================
@@ -250,11 +375,9 @@ public class RegistrationService {
             );
         }
 
-        long currentRegistrations = registrationRepository.countByEventIdAndStatus(
-            event.getId(), 
-            RegistrationStatus.CONFIRMED
-        );
-        
+        // Fast rejection from the maintained counter; the authoritative check is reserveSeat
+        long currentRegistrations = event.getConfirmedCount();
+
         if (currentRegistrations >= event.getCapacity()) {
             logger.warn("Event {} is full ({}/{}). Rejecting registration for user {}", 
                 event.getId(), currentRegistrations, event.getCapacity(), user.getEmail());
@@ -273,4 +396,66 @@ public class RegistrationService {
             );
         }
     }
+
+    /**
+     * Create a new CONFIRMED registration, or reactivate the user's cancelled one.
+     * The existing row is locked so two concurrent re-registrations can't both succeed.
+     */
+    private Registration confirmRegistration(Event event, User user) {
+        var existingRegistration = registrationRepository.findByUserIdAndEventIdWithLock(
+            user.getId(), event.getId()
+        );
+
+        Registration registration;
+        if (existingRegistration.isPresent()) {
+            registration = existingRegistration.get();
+            if (registration.getStatus() == RegistrationStatus.WAITLISTED) {
+                throw new DuplicateRegistrationException(
+                    "You are already on the waitlist for this event"
+                );
+            }
+            if (registration.getStatus() != RegistrationStatus.CANCELLED) {
+                throw new DuplicateRegistrationException(
+                    "You are already registered for this event"
+                );
+            }
+            // Reactivate the cancelled registration
+            registration.setStatus(RegistrationStatus.CONFIRMED);
+            registration.setRegisteredAt(LocalDateTime.now());
+            registration.setCancelledAt(null);
+            logger.info("Reactivated registration {} for user {} on event {}",
+                registration.getId(), user.getEmail(), event.getId());
+        } else {
+            // Create new registration
+            registration = new Registration(user, event);
+            logger.info("Created new registration for user {} on event {}", user.getEmail(), event.getId());
+        }
+
+        try {
+            return registrationRepository.saveAndFlush(registration);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request inserted the same (user, event) row first
+            throw new DuplicateRegistrationException(
+                "You are already registered for this event"
+            );
+        }
+    }
+
+    private EventNotAvailableException eventFull(Event event) {
+        return new EventNotAvailableException(
+            "Cannot register for this event",
+            "Event is at full capacity (" + event.getCapacity() + "/" + event.getCapacity() + ")"
+        );
+    }
+
+    private void publishRegistrationConfirmed(Registration registration, long currentParticipants) {
+        try {
+            RegistrationConfirmedEvent domainEvent = RegistrationConfirmedEvent.fromRegistration(
+                    registration, currentParticipants);
+            eventPublisher.publishRegistrationConfirmed(domainEvent);
+        } catch (Exception e) {
+            // Log but don't fail — the registration was successful
+            logger.error("Failed to publish registration confirmed event: {}", e.getMessage());
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,221 @@
+package com.emconnect.api.service;
+
+import com.emconnect.api.entity.RevokedAccessToken;
+import com.emconnect.api.repository.RevokedAccessTokenRepository;
+import com.emconnect.api.scheduling.LeaseManager;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Access tokens revoked before their expiry (logout), by jti.
+ *
+ * JwtAuthenticationFilter asks isRevoked() on every request. The answer comes from
+ * a bloom filter first, which rules out almost every token with a few bit reads and
+ * no allocation; only a bloom hit is confirmed against the exact set. Revocations
+ * made here apply once they commit, those from other instances are polled from
+ * revoked_access_tokens every jwt.revocation-refresh-ms. Entries are dropped when
+ * the token would have expired anyway, and the bloom filter is rebuilt without them.
+ */
+@Service
+public class RevokedTokenRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevokedTokenRegistry.class);
+
+    // Same reasoning as TokenVersionRegistry: cover clock skew and slow commits
+    private static final long POLL_OVERLAP_SECONDS = 30;
+
+    private final RevokedAccessTokenRepository revokedAccessTokenRepository;
+    private final LeaseManager leaseManager;
+    private final TransactionTemplate transactionTemplate;
+    private final long accessTokenLifetimeMs;
+    private final int expectedEntries;
+
+    // jti -> when the token expires
+    private final Map<String, LocalDateTime> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloomFilter;
+    private volatile LocalDateTime lastPoll;
+
+    public RevokedTokenRegistry(RevokedAccessTokenRepository revokedAccessTokenRepository,
+                                LeaseManager leaseManager,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${jwt.expiration}") long accessTokenLifetimeMs,
+                                @Value("${jwt.revocation.expected-entries:10000}") int expectedEntries) {
+        this.revokedAccessTokenRepository = revokedAccessTokenRepository;
+        this.leaseManager = leaseManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.accessTokenLifetimeMs = accessTokenLifetimeMs;
+        this.expectedEntries = expectedEntries;
+        this.bloomFilter = new BloomFilter(expectedEntries);
+
+        Gauge.builder("emconnect.auth.revoked_tokens", revoked, Map::size)
+                .description("Revoked access tokens that have not expired yet")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void load() {
+        LocalDateTime started = LocalDateTime.now();
+        List<RevokedAccessToken> live = revokedAccessTokenRepository.findByExpiresAtAfter(started);
+        live.forEach(token -> record(token.getJti(), token.getExpiresAt()));
+        lastPoll = started;
+        logger.info("Loaded {} revoked access tokens", live.size());
+    }
+
+    /**
+     * Whether the access token with this jti was revoked. Tokens without a jti
+     * (issued before jti was added) are never reported as revoked.
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null || !bloomFilter.mightContain(jti)) {
+            return false;
+        }
+        return revoked.containsKey(jti);
+    }
+
+    /**
+     * Revoke one access token until it would have expired. Applies on this instance
+     * once the surrounding transaction commits.
+     */
+    public void revoke(String jti) {
+        if (jti == null) {
+            return;
+        }
+        // A token can't outlive jwt.expiration from now, so that bounds how long to keep it
+        LocalDateTime expiresAt = LocalDateTime.now().plus(Duration.ofMillis(accessTokenLifetimeMs));
+        revokedAccessTokenRepository.save(new RevokedAccessToken(jti, expiresAt));
+        afterCommit(() -> record(jti, expiresAt));
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation-refresh-ms:5000}")
+    public void refresh() {
+        LocalDateTime started = LocalDateTime.now();
+        try {
+            revokedAccessTokenRepository
+                    .findByRevokedAtAfterAndExpiresAtAfter(lastPoll.minusSeconds(POLL_OVERLAP_SECONDS), started)
+                    .forEach(token -> record(token.getJti(), token.getExpiresAt()));
+            lastPoll = started;
+        } catch (Exception e) {
+            logger.warn("Failed to refresh revoked access tokens: {}", e.getMessage());
+        }
+        dropExpired(started);
+    }
+
+    @Scheduled(fixedDelay = 3600000) // 1 hour
+    public void purgeExpired() {
+        leaseManager.runExclusively("revoked-access-token-purge", Duration.ofMinutes(30), Duration.ofMinutes(30), lease -> {
+            Integer deleted = transactionTemplate.execute(
+                    status -> revokedAccessTokenRepository.deleteExpiredBefore(LocalDateTime.now()));
+            if (deleted != null && deleted > 0) {
+                logger.info("Purged {} expired access token revocations", deleted);
+            }
+        });
+    }
+
+    private synchronized void record(String jti, LocalDateTime expiresAt) {
+        if (revoked.put(jti, expiresAt) == null) {
+            bloomFilter.add(jti);
+        }
+    }
+
+    // Bloom filters can't remove entries, so build a fresh one from what is left
+    private synchronized void dropExpired(LocalDateTime now) {
+        if (!revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now))) {
+            return;
+        }
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, revoked.size()));
+        revoked.keySet().forEach(rebuilt::add);
+        bloomFilter = rebuilt;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Bloom filter over jti strings, sized for about 1% false positives at the
+     * expected number of entries. Adds are serialized by the registry; reads are
+     * lock-free.
+     */
+    static final class BloomFilter {
+
+        private static final int HASHES = 7;
+
+        private final AtomicLongArray bits;
+        private final long bitCount;
+
+        BloomFilter(int expectedEntries) {
+            // m = -n ln(p) / ln(2)^2 with p = 0.01, about 9.6 bits per entry
+            long words = Math.max(1, ((long) Math.ceil(Math.max(expectedEntries, 1) * 9.6) + 63) / 64);
+            this.bits = new AtomicLongArray((int) Math.min(words, Integer.MAX_VALUE));
+            this.bitCount = (long) bits.length() * 64;
+        }
+
+        void add(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < HASHES; i++) {
+                long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = bits.get(word);
+                } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < HASHES; i++) {
+                long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // 64-bit FNV-1a over the chars, finished with a murmur3 mix
+        private static long hash(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.emconnect.api.service;
+
+import com.emconnect.api.entity.JwtSigningKey;
+import com.emconnect.api.repository.JwtSigningKeyRepository;
+import com.emconnect.api.scheduling.LeaseManager;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * ES256 signing keys for access tokens, kept in jwt_signing_keys so every replica
+ * signs with the same key and can verify the others' tokens.
+ *
+ * The newest key whose activates_at has passed signs new tokens. Rotation creates
+ * the next key publish-ahead before it activates, longer than the JWKS max-age, so
+ * services caching the key set see it before the first token it signs. A replaced
+ * key stays published until tokens it signed have expired, then is deleted.
+ *
+ * Keys are reloaded every jwt.signing.refresh-ms, and early (rate limited) when a
+ * token names an unknown kid.
+ */
+@Service
+public class SigningKeyRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(SigningKeyRegistry.class);
+
+    private static final String ALGORITHM = "ES256";
+    private static final long MIN_RELOAD_INTERVAL_MS = 10_000;
+    private static final int GCM_IV_BYTES = 12;
+
+    /**
+     * A key pair and when it starts signing.
+     */
+    public record SigningKey(String kid, PrivateKey privateKey, PublicKey publicKey, LocalDateTime activatesAt) {
+    }
+
+    private final JwtSigningKeyRepository keyRepository;
+    private final LeaseManager leaseManager;
+    private final SecretKeySpec encryptionKey;
+    private final Duration tokenLifetime;
+    private final Duration rotationPeriod;
+    private final Duration publishAhead;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    // Ordered by activates_at
+    private volatile List<SigningKey> keys = List.of();
+    private volatile Map<String, PublicKey> publicKeys = Map.of();
+    private long lastReloadMs;
+
+    public SigningKeyRegistry(JwtSigningKeyRepository keyRepository,
+                              LeaseManager leaseManager,
+                              @Value("${jwt.signing.encryption-secret:${jwt.secret}}") String encryptionSecret,
+                              @Value("${jwt.expiration}") long tokenLifetimeMs,
+                              @Value("${jwt.signing.rotation-days:30}") long rotationDays,
+                              @Value("${jwt.signing.publish-ahead-minutes:15}") long publishAheadMinutes) {
+        this.keyRepository = keyRepository;
+        this.leaseManager = leaseManager;
+        this.encryptionKey = new SecretKeySpec(sha256(encryptionSecret), "AES");
+        this.tokenLifetime = Duration.ofMillis(tokenLifetimeMs);
+        this.rotationPeriod = Duration.ofDays(rotationDays);
+        this.publishAhead = Duration.ofMinutes(publishAheadMinutes);
+    }
+
+    @PostConstruct
+    public void load() {
+        reload();
+        if (activeKey() == null) {
+            // First start: nothing to pre-publish for, so the key signs right away
+            createKey(LocalDateTime.now());
+            reload();
+        }
+        logger.info("Loaded {} JWT signing keys, signing with {}", keys.size(), current().kid());
+    }
+
+    /**
+     * The key that signs new tokens.
+     */
+    public SigningKey current() {
+        SigningKey active = activeKey();
+        if (active == null) {
+            throw new IllegalStateException("No active JWT signing key");
+        }
+        return active;
+    }
+
+    /**
+     * Public key for a kid, or null if there is none. An unknown kid triggers a
+     * reload, at most once per MIN_RELOAD_INTERVAL_MS.
+     */
+    public PublicKey publicKey(String kid) {
+        PublicKey key = publicKeys.get(kid);
+        if (key == null && reloadEarly()) {
+            key = publicKeys.get(kid);
+        }
+        return key;
+    }
+
+    /**
+     * Keys to publish in the JWKS: upcoming, current, and replaced keys whose tokens
+     * may not have expired yet.
+     */
+    public List<SigningKey> published() {
+        LocalDateTime now = LocalDateTime.now();
+        List<SigningKey> snapshot = keys;
+        List<SigningKey> published = new ArrayList<>();
+        for (int i = 0; i < snapshot.size(); i++) {
+            LocalDateTime retiredAt = retiredAt(snapshot, i, now);
+            if (retiredAt == null || retiredAt.plus(tokenLifetime).isAfter(now)) {
+                published.add(snapshot.get(i));
+            }
+        }
+        return published;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.signing.refresh-ms:60000}")
+    public void refresh() {
+        try {
+            reload();
+        } catch (Exception e) {
+            logger.warn("Failed to reload JWT signing keys: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Create the next key when the current one is due for replacement, and delete
+     * keys no token can be signed with anymore.
+     */
+    @Scheduled(fixedDelay = 3600000) // 1 hour
+    public void rotate() {
+        leaseManager.runExclusively("jwt-signing-key-rotation", Duration.ofMinutes(10), Duration.ofMinutes(30), lease -> {
+            reload();
+            LocalDateTime now = LocalDateTime.now();
+            List<SigningKey> snapshot = keys;
+            SigningKey newest = snapshot.isEmpty() ? null : snapshot.get(snapshot.size() - 1);
+
+            // Step 1: Pre-publish the next key once the newest one is old enough
+            if (newest != null && !newest.activatesAt().plus(rotationPeriod).minus(publishAhead).isAfter(now)) {
+                createKey(now.plus(publishAhead));
+                logger.info("Created next JWT signing key, active from {}", now.plus(publishAhead));
+            }
+
+            // Step 2: Delete replaced keys once tokens they signed have expired (plus a day of slack)
+            for (int i = 0; i < snapshot.size(); i++) {
+                LocalDateTime retiredAt = retiredAt(snapshot, i, now);
+                if (retiredAt != null && retiredAt.plus(tokenLifetime).plusDays(1).isBefore(now)) {
+                    keyRepository.deleteById(snapshot.get(i).kid());
+                    logger.info("Deleted retired JWT signing key {}", snapshot.get(i).kid());
+                }
+            }
+            reload();
+        });
+    }
+
+    private SigningKey activeKey() {
+        LocalDateTime now = LocalDateTime.now();
+        List<SigningKey> snapshot = keys;
+        for (int i = snapshot.size() - 1; i >= 0; i--) {
+            if (!snapshot.get(i).activatesAt().isAfter(now)) {
+                return snapshot.get(i);
+            }
+        }
+        return null;
+    }
+
+    // A key is retired once a newer key has activated
+    private static LocalDateTime retiredAt(List<SigningKey> snapshot, int index, LocalDateTime now) {
+        if (index + 1 < snapshot.size() && !snapshot.get(index + 1).activatesAt().isAfter(now)) {
+            return snapshot.get(index + 1).activatesAt();
+        }
+        return null;
+    }
+
+    private synchronized boolean reloadEarly() {
+        if (System.currentTimeMillis() - lastReloadMs < MIN_RELOAD_INTERVAL_MS) {
+            return false;
+        }
+        refresh();
+        return true;
+    }
+
+    private synchronized void reload() {
+        lastReloadMs = System.currentTimeMillis();
+        List<SigningKey> loaded = new ArrayList<>();
+        Map<String, PublicKey> byKid = new HashMap<>();
+        for (JwtSigningKey row : keyRepository.findAllByOrderByActivatesAtAsc()) {
+            try {
+                SigningKey key = decode(row);
+                loaded.add(key);
+                byKid.put(key.kid(), key.publicKey());
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                // Most likely jwt.secret changed; the key can't be used for signing or verifying
+                logger.error("Skipping JWT signing key {}: {}", row.getKid(), e.getMessage());
+            }
+        }
+        keys = List.copyOf(loaded);
+        publicKeys = Map.copyOf(byKid);
+    }
+
+    private void createKey(LocalDateTime activatesAt) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"), secureRandom);
+            KeyPair pair = generator.generateKeyPair();
+            keyRepository.save(new JwtSigningKey(
+                    UUID.randomUUID().toString(),
+                    ALGORITHM,
+                    Base64.getEncoder().encodeToString(pair.getPublic().getEncoded()),
+                    encrypt(pair.getPrivate().getEncoded()),
+                    activatesAt));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not create JWT signing key", e);
+        }
+    }
+
+    private SigningKey decode(JwtSigningKey row) throws GeneralSecurityException {
+        KeyFactory keyFactory = KeyFactory.getInstance("EC");
+        PublicKey publicKey = keyFactory.generatePublic(
+                new X509EncodedKeySpec(Base64.getDecoder().decode(row.getPublicKey())));
+        PrivateKey privateKey = keyFactory.generatePrivate(
+                new PKCS8EncodedKeySpec(decrypt(row.getPrivateKey())));
+        return new SigningKey(row.getKid(), privateKey, publicKey, row.getActivatesAt());
+    }
+
+    // AES-GCM; stored as Base64(iv || ciphertext)
+    private String encrypt(byte[] plaintext) throws GeneralSecurityException {
+        byte[] iv = new byte[GCM_IV_BYTES];
+        secureRandom.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(128, iv));
+        byte[] ciphertext = cipher.doFinal(plaintext);
+        return Base64.getEncoder().encodeToString(
+                ByteBuffer.allocate(iv.length + ciphertext.length).put(iv).put(ciphertext).array());
+    }
+
+    private byte[] decrypt(String stored) throws GeneralSecurityException {
+        byte[] bytes = Base64.getDecoder().decode(stored);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, encryptionKey, new GCMParameterSpec(128, bytes, 0, GCM_IV_BYTES));
+        return cipher.doFinal(bytes, GCM_IV_BYTES, bytes.length - GCM_IV_BYTES);
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
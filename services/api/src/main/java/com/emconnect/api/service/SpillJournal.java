@@ -0,0 +1,368 @@
+package com.emconnect.api.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Local append-only journal for domain events that could not be handed to RabbitMQ.
+ *
+ * The journal is a directory of fixed-size, memory-mapped segment files
+ * (segment-&lt;seq&gt;.log). Each record is [int length][int crc32][body]; a zero length
+ * marks the end of the written part of a segment. Appending is a memory copy, so
+ * request threads stay fast while the broker is down. The page cache is forced to
+ * disk on every replay tick (the active segment and any rotated out since the last
+ * tick), outside the journal lock so appends never wait for the disk.
+ *
+ * SpillReplayer reads records in order and acknowledges them once confirmed. A
+ * segment is deleted as soon as all its records are acknowledged. Records in the
+ * segment being read when the process stops are replayed again on restart
+ * (at-least-once; messageId allows consumers to de-duplicate).
+ */
+@Component
+public class SpillJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpillJournal.class);
+
+    private static final int HEADER_BYTES = 8;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    /**
+     * An event waiting to be published.
+     */
+    public record SpilledEvent(String messageId, String routingKey, String eventType, byte[] payload) {
+    }
+
+    /**
+     * A record read from the journal, with the position to acknowledge.
+     */
+    public record JournalRecord(SpilledEvent event, long segmentSeq, int nextOffset) {
+    }
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+
+    // Oldest first; the last one is appended to
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private int readOffset;
+    private long pendingRecords;
+
+    // Segments rotated out since the last flush; forced by the next one
+    private final List<Segment> unflushed = new ArrayList<>();
+
+    public SpillJournal(@Value("${publisher.spill.enabled:true}") boolean enabled,
+                        @Value("${publisher.spill.directory:./data/publisher-spill}") String directory,
+                        @Value("${publisher.spill.segment-size-mb:16}") int segmentSizeMb) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.segmentSize = segmentSizeMb * 1024 * 1024;
+    }
+
+    /**
+     * Open existing segments (left by a previous run) or start a new one.
+     */
+    @PostConstruct
+    public synchronized void open() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> stream = Files.list(directory)) {
+                files = stream.filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                        .sorted()
+                        .toList();
+            }
+            for (Path file : files) {
+                Segment segment = Segment.open(file, parseSeq(file), segmentSize);
+                pendingRecords += segment.recoverEnd();
+                segments.addLast(segment);
+            }
+            if (segments.isEmpty()) {
+                segments.addLast(Segment.open(segmentPath(1), 1, segmentSize));
+            }
+            if (pendingRecords > 0) {
+                logger.warn("Spill journal has {} events from a previous run in {}", pendingRecords, directory);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open spill journal in " + directory, e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized boolean isEmpty() {
+        return pendingRecords == 0;
+    }
+
+    public synchronized long pendingCount() {
+        return pendingRecords;
+    }
+
+    /**
+     * Append an event. Returns false if the journal is disabled or the write failed.
+     */
+    public synchronized boolean append(SpilledEvent event) {
+        if (!enabled) {
+            return false;
+        }
+        byte[] body = encode(event);
+        int recordBytes = HEADER_BYTES + body.length;
+        if (recordBytes + 4 > segmentSize) {
+            logger.error("Event {} is too large for a spill segment ({} bytes)", event.messageId(), recordBytes);
+            return false;
+        }
+
+        try {
+            Segment active = segments.peekLast();
+            if (active.writeOffset + recordBytes + 4 > segmentSize) {
+                active = rotate();
+            }
+            active.write(body);
+            pendingRecords++;
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to append event {} to spill journal: {}", event.messageId(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Read up to max unacknowledged records in order, starting at the read position.
+     */
+    public synchronized List<JournalRecord> read(int max) {
+        List<JournalRecord> records = new ArrayList<>();
+        int offset = readOffset;
+        Iterator<Segment> iterator = segments.iterator();
+        while (iterator.hasNext() && records.size() < max) {
+            Segment segment = iterator.next();
+            while (offset < segment.writeOffset && records.size() < max) {
+                int length = segment.buffer.getInt(offset);
+                byte[] body = new byte[length];
+                segment.buffer.get(offset + HEADER_BYTES, body);
+                offset += HEADER_BYTES + length;
+                records.add(new JournalRecord(decode(body), segment.seq, offset));
+            }
+            offset = 0;
+        }
+        return records;
+    }
+
+    /**
+     * Acknowledge everything up to and including the record. Fully acknowledged
+     * segments are deleted; a drained active segment is rotated out first.
+     */
+    public synchronized void acknowledge(JournalRecord record) {
+        // Drop segments before the record's one (all their records were acknowledged)
+        while (segments.peekFirst().seq < record.segmentSeq()) {
+            deleteOldest();
+        }
+        readOffset = record.nextOffset();
+        pendingRecords = Math.max(0, pendingRecords - 1);
+
+        Segment first = segments.peekFirst();
+        if (readOffset < first.writeOffset) {
+            return;
+        }
+        try {
+            if (first == segments.peekLast()) {
+                rotate();
+            }
+            deleteOldest();
+        } catch (IOException e) {
+            logger.error("Failed to compact spill journal: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Force written records to disk. The msync runs outside the lock; appends made
+     * meanwhile go to the page cache and are forced by the next flush.
+     */
+    public void flush() {
+        List<MappedByteBuffer> buffers = new ArrayList<>();
+        synchronized (this) {
+            if (!enabled || segments.isEmpty()) {
+                return;
+            }
+            for (Segment segment : unflushed) {
+                buffers.add(segment.buffer);
+            }
+            unflushed.clear();
+            buffers.add(segments.peekLast().buffer);
+        }
+        // A mapping stays valid after its channel is closed, so a segment deleted meanwhile is harmless
+        for (MappedByteBuffer buffer : buffers) {
+            buffer.force();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        flush();
+        for (Segment segment : segments) {
+            segment.close();
+        }
+    }
+
+    private Segment rotate() throws IOException {
+        Segment current = segments.peekLast();
+        unflushed.add(current);
+        Segment next = Segment.open(segmentPath(current.seq + 1), current.seq + 1, segmentSize);
+        segments.addLast(next);
+        return next;
+    }
+
+    private void deleteOldest() {
+        Segment oldest = segments.pollFirst();
+        unflushed.remove(oldest);
+        oldest.close();
+        readOffset = 0;
+        try {
+            Files.deleteIfExists(oldest.path);
+        } catch (IOException e) {
+            logger.error("Failed to delete spill segment {}: {}", oldest.path, e.getMessage());
+        }
+    }
+
+    private Path segmentPath(long seq) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, seq, SEGMENT_SUFFIX));
+    }
+
+    private static long parseSeq(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    // Body: [short len][messageId][short len][routingKey][short len][eventType][payload...]
+    private static byte[] encode(SpilledEvent event) {
+        byte[] messageId = event.messageId().getBytes(StandardCharsets.UTF_8);
+        byte[] routingKey = event.routingKey().getBytes(StandardCharsets.UTF_8);
+        byte[] eventType = event.eventType().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer body = ByteBuffer.allocate(6 + messageId.length + routingKey.length + eventType.length
+                + event.payload().length);
+        body.putShort((short) messageId.length).put(messageId);
+        body.putShort((short) routingKey.length).put(routingKey);
+        body.putShort((short) eventType.length).put(eventType);
+        body.put(event.payload());
+        return body.array();
+    }
+
+    private static SpilledEvent decode(byte[] bytes) {
+        ByteBuffer body = ByteBuffer.wrap(bytes);
+        String messageId = readString(body);
+        String routingKey = readString(body);
+        String eventType = readString(body);
+        byte[] payload = new byte[body.remaining()];
+        body.get(payload);
+        return new SpilledEvent(messageId, routingKey, eventType, payload);
+    }
+
+    private static String readString(ByteBuffer body) {
+        byte[] bytes = new byte[body.getShort()];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int crc(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * One memory-mapped segment file.
+     */
+    private static final class Segment {
+
+        private final Path path;
+        private final long seq;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int writeOffset;
+
+        private Segment(Path path, long seq, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.seq = seq;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment open(Path path, long seq, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            // Mapping past the end grows the file; the new region reads as zeros
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            return new Segment(path, seq, channel, buffer);
+        }
+
+        /**
+         * Find the end of the valid records. A record with a bad CRC (torn write)
+         * and everything after it is discarded. Returns the number of valid records.
+         */
+        int recoverEnd() {
+            int offset = 0;
+            int records = 0;
+            while (offset + HEADER_BYTES <= buffer.capacity()) {
+                int length = buffer.getInt(offset);
+                if (length <= 0 || offset + HEADER_BYTES + length > buffer.capacity()) {
+                    break;
+                }
+                byte[] body = new byte[length];
+                buffer.get(offset + HEADER_BYTES, body);
+                if (crc(body) != buffer.getInt(offset + 4)) {
+                    logger.warn("Spill segment {} has a corrupt record at offset {}; discarding the rest", path, offset);
+                    buffer.putInt(offset, 0);
+                    break;
+                }
+                offset += HEADER_BYTES + length;
+                records++;
+            }
+            writeOffset = offset;
+            return records;
+        }
+
+        /**
+         * Write body, then CRC, then length; a record only counts once its length is set.
+         */
+        void write(byte[] body) {
+            buffer.put(writeOffset + HEADER_BYTES, body);
+            buffer.putInt(writeOffset + 4, crc(body));
+            buffer.putInt(writeOffset, body.length);
+            writeOffset += HEADER_BYTES + body.length;
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close spill segment {}: {}", path, e.getMessage());
+            }
+        }
+    }
+}
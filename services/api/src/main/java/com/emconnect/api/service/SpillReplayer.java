@@ -0,0 +1,156 @@
+package com.emconnect.api.service;
+
+import com.emconnect.api.config.RabbitMQConfig;
+import com.emconnect.api.service.SpillJournal.JournalRecord;
+import com.emconnect.api.service.SpillJournal.SpilledEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the SpillJournal to RabbitMQ in order.
+ *
+ * Each tick publishes a batch of journal records with publisher confirms and
+ * acknowledges the confirmed prefix; the first failure stops the tick and the rest
+ * is retried on the next one. A batch waits at most publisher.confirms.timeout-ms in
+ * total for its confirms. EventPublisher keeps writing to the journal until it
+ * is empty, then switches back to direct sends.
+ */
+@Component
+public class SpillReplayer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpillReplayer.class);
+
+    private final SpillJournal spillJournal;
+    private final EventPublisher eventPublisher;
+    private final RabbitTemplate rabbitTemplate;
+    private final int batchSize;
+    private final long confirmTimeoutMs;
+
+    public SpillReplayer(SpillJournal spillJournal,
+                         EventPublisher eventPublisher,
+                         RabbitTemplate rabbitTemplate,
+                         @Value("${publisher.spill.replay-batch-size:200}") int batchSize,
+                         @Value("${publisher.confirms.timeout-ms:30000}") long confirmTimeoutMs) {
+        this.spillJournal = spillJournal;
+        this.eventPublisher = eventPublisher;
+        this.rabbitTemplate = rabbitTemplate;
+        this.batchSize = batchSize;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+    }
+
+    @Scheduled(fixedDelayString = "${publisher.spill.replay-interval-ms:1000}")
+    public void replay() {
+        if (!spillJournal.isEnabled()) {
+            return;
+        }
+        spillJournal.flush();
+        if (spillJournal.isEmpty()) {
+            // Nothing to replay: probe the broker here so request threads don't have to
+            if (!eventPublisher.isBrokerAvailable()) {
+                eventPublisher.setBrokerAvailable(brokerReachable());
+            }
+            return;
+        }
+
+        long replayed = 0;
+        List<JournalRecord> batch;
+        do {
+            batch = spillJournal.read(batchSize);
+            int confirmed = replayBatch(batch);
+            replayed += confirmed;
+            if (confirmed < batch.size()) {
+                eventPublisher.setBrokerAvailable(false);
+                logger.warn("Spill replay paused after {} events, {} still journaled",
+                        replayed, spillJournal.pendingCount());
+                return;
+            }
+        } while (batch.size() == batchSize);
+
+        if (replayed > 0) {
+            logger.info("Replayed {} spilled events to RabbitMQ", replayed);
+        }
+        eventPublisher.setBrokerAvailable(true);
+    }
+
+    /**
+     * Publish the batch and acknowledge records up to the first unconfirmed one.
+     * Returns the number acknowledged.
+     */
+    private int replayBatch(List<JournalRecord> batch) {
+        // Step 1: Publish the whole batch, then wait for confirms
+        List<CorrelationData> confirms = new ArrayList<>(batch.size());
+        for (JournalRecord record : batch) {
+            SpilledEvent event = record.event();
+            CorrelationData correlation = new CorrelationData(event.messageId());
+            try {
+                rabbitTemplate.send(RabbitMQConfig.EVENTS_EXCHANGE, event.routingKey(), toMessage(event), correlation);
+            } catch (Exception e) {
+                logger.warn("Spill replay: broker unavailable: {}", e.getMessage());
+                break;
+            }
+            confirms.add(correlation);
+        }
+
+        // Step 2: Acknowledge the prefix confirmed before the batch deadline
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+        for (int i = 0; i < confirms.size(); i++) {
+            String error = awaitConfirm(confirms.get(i), deadline);
+            if (error != null) {
+                logger.warn("Spill replay: event {} not confirmed: {}", batch.get(i).event().messageId(), error);
+                return i;
+            }
+            spillJournal.acknowledge(batch.get(i));
+        }
+        return confirms.size();
+    }
+
+    private boolean brokerReachable() {
+        try {
+            return Boolean.TRUE.equals(rabbitTemplate.execute(channel -> channel.isOpen()));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private String awaitConfirm(CorrelationData correlation, long deadlineNanos) {
+        try {
+            long remaining = Math.max(0, deadlineNanos - System.nanoTime());
+            CorrelationData.Confirm confirm = correlation.getFuture().get(remaining, TimeUnit.NANOSECONDS);
+            if (!confirm.isAck()) {
+                return "nack: " + confirm.getReason();
+            }
+            if (correlation.getReturned() != null) {
+                return "returned: " + correlation.getReturned().getReplyText();
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "interrupted";
+        } catch (Exception e) {
+            return e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+
+    private Message toMessage(SpilledEvent event) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setContentEncoding(StandardCharsets.UTF_8.name());
+        properties.setMessageId(event.messageId());
+        properties.setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+        properties.setHeader("__TypeId__", event.eventType());
+        return new Message(event.payload(), properties);
+    }
+}
@@ -1,5 +1,6 @@
 package com.emconnect.api.service;
 
+import com.emconnect.api.config.AuthenticatedUser;
 import com.emconnect.api.dto.TicketResponse;
 import com.emconnect.api.dto.TicketValidationResponse;
 import com.emconnect.api.entity.Event;
@@ -41,9 +42,9 @@ public class TicketService {
     /**
      * Get all tickets for the current user
      */
-    public List<TicketResponse> getMyTickets(User userid) {
+    public List<TicketResponse> getMyTickets(Long userId) {
         List<Registration> registrations = registrationRepository
-                .findByUserId(userid.getId(), Pageable.unpaged()).getContent();
+                .findByUserId(userId, Pageable.unpaged()).getContent();
         return registrations.stream()
                 .map(this::toTicketResponse)
                 .collect(Collectors.toList());
@@ -52,14 +53,14 @@ public class TicketService {
     /**
      * Get a single ticket by code (user must own it or be ADMIN/ORGANIZER)
      */
-    public TicketResponse getTicketByCode(String ticketCode, User user) {
+    public TicketResponse getTicketByCode(String ticketCode, AuthenticatedUser user) {
         Registration registration = registrationRepository.findByTicketCode(ticketCode)
                 .orElseThrow(() -> new IllegalArgumentException("Ticket not found: " + ticketCode));
 
         // Check ownership: user must own the ticket OR be ADMIN
-        boolean isOwner = registration.getUser().getId().equals(user.getId());
-        boolean isAdmin = user.getRole().name().equals("ADMIN");
-        boolean isOrganizer = registration.getEvent().getOrganizer().getId().equals(user.getId());
+        boolean isOwner = registration.getUser().getId().equals(user.id());
+        boolean isAdmin = user.isAdmin();
+        boolean isOrganizer = registration.getEvent().getOrganizer().getId().equals(user.id());
 
         if (!isOwner && !isAdmin && !isOrganizer) {
             throw new SecurityException("You don't have permission to view this ticket");
@@ -71,13 +72,13 @@ public class TicketService {
     /**
      * Get QR code image for a ticket
      */
-    public Resource getQRCodeImage(String ticketCode, User user) {
+    public Resource getQRCodeImage(String ticketCode, AuthenticatedUser user) {
         // First verify the ticket exists and user has access
         Registration registration = registrationRepository.findByTicketCode(ticketCode)
                 .orElseThrow(() -> new IllegalArgumentException("Ticket not found: " + ticketCode));
 
-        boolean isOwner = registration.getUser().getId().equals(user.getId());
-        boolean isAdmin = user.getRole().name().equals("ADMIN");
+        boolean isOwner = registration.getUser().getId().equals(user.id());
+        boolean isAdmin = user.isAdmin();
 
         if (!isOwner && !isAdmin) {
             throw new SecurityException("You don't have permission to view this QR code");
@@ -87,6 +88,9 @@ public class TicketService {
         if (registration.getStatus() == RegistrationStatus.CANCELLED) {
             throw new IllegalStateException("Cannot get QR code for cancelled registration");
         }
+        if (registration.getStatus() == RegistrationStatus.WAITLISTED) {
+            throw new IllegalStateException("Cannot get QR code while on the waitlist");
+        }
 
         // Load the QR image file
         try {
@@ -127,6 +131,12 @@ public class TicketService {
                     "This registration has been cancelled.");
         }
 
+        // Step 2b: Waitlisted registrations don't hold a seat yet
+        if (registration.getStatus() == RegistrationStatus.WAITLISTED) {
+            return TicketValidationResponse.invalid(ticketCode,
+                    "This registration is still on the waitlist.");
+        }
+
         // Step 3: Check if ticket is already used (idempotent!)
         if (registration.getCheckedInAt() != null) {
             return TicketValidationResponse.alreadyUsed(
@@ -0,0 +1,121 @@
+package com.emconnect.api.service;
+
+import com.emconnect.api.entity.User;
+import com.emconnect.api.repository.UserRepository;
+import com.emconnect.api.repository.UserRepository.TokenVersion;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of users.token_version, used by JwtAuthenticationFilter to reject
+ * tokens issued before a role change, password change or reset without a database
+ * query per request.
+ *
+ * Only users whose version was bumped recently are held. This instance's own bumps
+ * apply as soon as they commit; bumps made by other instances are polled from the
+ * users table every jwt.token-version-refresh-ms. A bump is forgotten once every
+ * token issued before it has expired (jwt.expiration plus the poll overlap).
+ */
+@Service
+public class TokenVersionRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenVersionRegistry.class);
+
+    // updated_at is stamped by the writing instance's clock before commit; look back
+    // far enough to cover skew between instances and slow commits
+    private static final long POLL_OVERLAP_SECONDS = 30;
+
+    private final UserRepository userRepository;
+    private final long retentionMs;
+    private final Map<Long, Bump> versions = new ConcurrentHashMap<>();
+    private volatile LocalDateTime lastPoll;
+
+    public TokenVersionRegistry(UserRepository userRepository,
+                                @Value("${jwt.expiration}") long jwtExpiration) {
+        this.userRepository = userRepository;
+        this.retentionMs = jwtExpiration + POLL_OVERLAP_SECONDS * 1000;
+    }
+
+    @PostConstruct
+    public void load() {
+        LocalDateTime started = LocalDateTime.now();
+        // Tokens from before older bumps have expired
+        List<TokenVersion> bumped = userRepository.findBumpedTokenVersionsSince(
+                started.minusNanos(retentionMs * 1_000_000));
+        bumped.forEach(v -> record(v.getId(), v.getTokenVersion()));
+        lastPoll = started;
+        logger.info("Loaded token versions for {} users", bumped.size());
+    }
+
+    /**
+     * Whether a token issued with this version is still valid for the user.
+     */
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        Bump bump = versions.get(userId);
+        return bump == null || tokenVersion >= bump.version();
+    }
+
+    /**
+     * Invalidate every token issued to the user so far. The caller saves the user;
+     * this instance starts rejecting the old tokens once the transaction commits.
+     */
+    public void revokeTokens(User user) {
+        user.bumpTokenVersion();
+        Long userId = user.getId();
+        int version = user.getTokenVersion();
+        afterCommit(() -> record(userId, version));
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.token-version-refresh-ms:5000}")
+    public void refresh() {
+        LocalDateTime started = LocalDateTime.now();
+        try {
+            userRepository.findBumpedTokenVersionsSince(lastPoll.minusSeconds(POLL_OVERLAP_SECONDS))
+                    .forEach(v -> record(v.getId(), v.getTokenVersion()));
+            lastPoll = started;
+        } catch (Exception e) {
+            logger.warn("Failed to refresh token versions: {}", e.getMessage());
+        }
+        prune(System.currentTimeMillis());
+    }
+
+    /**
+     * Forget bumps older than the retention; every token issued before them has expired.
+     */
+    void prune(long nowMs) {
+        versions.values().removeIf(bump -> bump.recordedAtMs() < nowMs - retentionMs);
+    }
+
+    // Seen now, which is never before the bump itself, so pruning is never early
+    private void record(Long userId, int version) {
+        Bump seen = new Bump(version, System.currentTimeMillis());
+        versions.merge(userId, seen, (old, next) -> new Bump(Math.max(old.version(), next.version()), next.recordedAtMs()));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record Bump(int version, long recordedAtMs) {
+    }
+}
@@ -0,0 +1,226 @@
+package com.emconnect.api.service;
+
+import com.emconnect.api.config.RabbitMQConfig;
+import com.emconnect.api.entity.User;
+import com.emconnect.api.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, TTL-limited cache of user rows, looked up by id or email.
+ *
+ * Cached users are detached snapshots: read them, or use them as a reference on
+ * another entity, but load the user from UserRepository to change it. Whoever saves
+ * a change calls evict(); once the transaction commits the entry is dropped here and
+ * the invalidation is broadcast on the em.users.cache fanout exchange so every other
+ * instance drops it too. If the broadcast is lost, user-cache.ttl-seconds bounds how
+ * long another instance can serve the old row.
+ */
+@Service
+public class UserCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserCache.class);
+
+    // Entries looked at per eviction when the cache is full
+    private static final int EVICTION_SAMPLE = 16;
+
+    /**
+     * Broadcast to every instance when a user row changes.
+     */
+    public record Invalidation(Long userId, String email) {
+    }
+
+    private final UserRepository userRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final long ttlMs;
+    private final int maxEntries;
+
+    private final Map<Long, CachedUser> byId = new ConcurrentHashMap<>();
+    private final Map<String, Long> idsByEmail = new ConcurrentHashMap<>();
+
+    // Bumped by every eviction; a load that raced with one is not cached
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter localInvalidations;
+    private final Counter remoteInvalidations;
+
+    public UserCache(UserRepository userRepository,
+                     RabbitTemplate rabbitTemplate,
+                     MeterRegistry meterRegistry,
+                     @Value("${user-cache.ttl-seconds:300}") long ttlSeconds,
+                     @Value("${user-cache.max-entries:10000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.ttlMs = ttlSeconds * 1000;
+        this.maxEntries = maxEntries;
+
+        this.hits = lookupCounter(meterRegistry, "hit");
+        this.misses = lookupCounter(meterRegistry, "miss");
+        Gauge.builder("emconnect.user_cache.size", byId, Map::size)
+                .description("Users held in the cache")
+                .register(meterRegistry);
+        this.localInvalidations = invalidationCounter(meterRegistry, "local");
+        this.remoteInvalidations = invalidationCounter(meterRegistry, "remote");
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("emconnect.user_cache.lookups")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Counter invalidationCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("emconnect.user_cache.invalidations")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    public Optional<User> findById(Long id) {
+        User cached = cached(id);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+        misses.increment();
+        long epoch = evictions.get();
+        Optional<User> user = userRepository.findById(id);
+        user.ifPresent(u -> cache(u, epoch));
+        return user;
+    }
+
+    public Optional<User> findByEmail(String email) {
+        Long id = idsByEmail.get(email);
+        User cached = id != null ? cached(id) : null;
+        if (cached != null && cached.getEmail().equals(email)) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+        misses.increment();
+        long epoch = evictions.get();
+        Optional<User> user = userRepository.findByEmail(email);
+        user.ifPresent(u -> cache(u, epoch));
+        return user;
+    }
+
+    /**
+     * Drop the user on every instance once the caller's transaction commits
+     * (immediately outside a transaction).
+     */
+    public void evict(User user) {
+        Invalidation invalidation = new Invalidation(user.getId(), user.getEmail());
+        afterCommit(() -> {
+            remove(invalidation);
+            localInvalidations.increment();
+            broadcast(invalidation);
+        });
+    }
+
+    @RabbitListener(queues = "#{userCacheQueue.name}")
+    public void onInvalidation(Invalidation invalidation) {
+        remove(invalidation);
+        remoteInvalidations.increment();
+    }
+
+    private User cached(Long id) {
+        CachedUser entry = byId.get(id);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtMs() <= System.currentTimeMillis()) {
+            byId.remove(id, entry);
+            return null;
+        }
+        return entry.user();
+    }
+
+    private void cache(User user, long epoch) {
+        if (maxEntries <= 0) {
+            return;
+        }
+        if (byId.size() >= maxEntries) {
+            evictOne();
+        }
+        byId.put(user.getId(), new CachedUser(user, System.currentTimeMillis() + ttlMs));
+        idsByEmail.put(user.getEmail(), user.getId());
+        // An eviction may have landed while the row was loading; the row may be stale
+        if (evictions.get() != epoch) {
+            byId.remove(user.getId());
+        }
+    }
+
+    /**
+     * Make room in a full cache by looking at a small sample of entries: expired ones
+     * are dropped, and if none was, the one expiring soonest (the oldest load) goes.
+     */
+    private void evictOne() {
+        long now = System.currentTimeMillis();
+        Map.Entry<Long, CachedUser> soonest = null;
+        boolean removedExpired = false;
+        Iterator<Map.Entry<Long, CachedUser>> entries = byId.entrySet().iterator();
+        for (int i = 0; i < EVICTION_SAMPLE && entries.hasNext(); i++) {
+            Map.Entry<Long, CachedUser> entry = entries.next();
+            if (entry.getValue().expiresAtMs() <= now) {
+                entries.remove();
+                idsByEmail.remove(entry.getValue().user().getEmail(), entry.getKey());
+                removedExpired = true;
+            } else if (soonest == null || entry.getValue().expiresAtMs() < soonest.getValue().expiresAtMs()) {
+                soonest = entry;
+            }
+        }
+        if (!removedExpired && soonest != null && byId.remove(soonest.getKey(), soonest.getValue())) {
+            idsByEmail.remove(soonest.getValue().user().getEmail(), soonest.getKey());
+        }
+    }
+
+    private void remove(Invalidation invalidation) {
+        evictions.incrementAndGet();
+        if (invalidation.userId() != null) {
+            byId.remove(invalidation.userId());
+        }
+        if (invalidation.email() != null) {
+            idsByEmail.remove(invalidation.email());
+        }
+    }
+
+    private void broadcast(Invalidation invalidation) {
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.USER_CACHE_EXCHANGE, "", invalidation);
+        } catch (Exception e) {
+            logger.warn("Failed to broadcast user cache invalidation for user {}: {}",
+                    invalidation.userId(), e.getMessage());
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record CachedUser(User user, long expiresAtMs) {
+    }
+}
@@ -1,15 +1,18 @@
 package com.emconnect.api.service;
 
+import com.emconnect.api.dto.AuthResponse;
 import com.emconnect.api.dto.ChangePasswordRequest;
 import com.emconnect.api.dto.LoginActivityResponse;
 import com.emconnect.api.dto.UpdateProfileRequest;
 import com.emconnect.api.dto.UserResponse;
+import com.emconnect.api.entity.LoginActivity;
 import com.emconnect.api.entity.User;
 import com.emconnect.api.event.UserPasswordChangedEvent;
 import com.emconnect.api.repository.LoginActivityRepository;
 import com.emconnect.api.repository.UserRepository;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import com.emconnect.api.service.LoginActivityRecorder.PendingLogin;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -17,17 +20,26 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class UserService {
 
     private final UserRepository userRepository;
     private final LoginActivityRepository loginActivityRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final LoginActivityRecorder loginActivityRecorder;
+    private final PasswordHasher passwordHasher;
     private final EventPublisher eventPublisher;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final JwtService jwtService;
+    private final RefreshTokenService refreshTokenService;
+    private final UserCache userCache;
 
     private static final String AVATAR_DIR = "avatars";
     private static final Set<String> ALLOWED_TYPES = Set.of(
@@ -37,12 +49,22 @@ public class UserService {
 
     public UserService(UserRepository userRepository,
                        LoginActivityRepository loginActivityRepository,
-                       PasswordEncoder passwordEncoder,
-                       EventPublisher eventPublisher) {
+                       LoginActivityRecorder loginActivityRecorder,
+                       PasswordHasher passwordHasher,
+                       EventPublisher eventPublisher,
+                       TokenVersionRegistry tokenVersionRegistry,
+                       JwtService jwtService,
+                       RefreshTokenService refreshTokenService,
+                       UserCache userCache) {
         this.userRepository = userRepository;
         this.loginActivityRepository = loginActivityRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.loginActivityRecorder = loginActivityRecorder;
+        this.passwordHasher = passwordHasher;
         this.eventPublisher = eventPublisher;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.jwtService = jwtService;
+        this.refreshTokenService = refreshTokenService;
+        this.userCache = userCache;
     }
 
     public UserResponse getProfile(String email) {
@@ -51,25 +73,44 @@ public class UserService {
     }
 
     public UserResponse updateProfile(String email, UpdateProfileRequest request) {
-        User user = findByEmail(email);
+        User user = loadForUpdate(email);
         user.setName(request.getName().trim());
         User saved = userRepository.save(user);
+        userCache.evict(saved);
         return new UserResponse(saved);
     }
 
     public List<LoginActivityResponse> getLoginActivity(String email) {
         User user = findByEmail(email);
 
-        return loginActivityRepository.findTop10ByUserIdOrderByCreatedAtDesc(user.getId())
-                .stream()
-                .map(LoginActivityResponse::new)
+        // Logins still buffered by the recorder are merged in; read them before the table
+        // so none is missed while a batch is being written
+        List<PendingLogin> pending = loginActivityRecorder.pendingFor(user.getId());
+        List<LoginActivity> stored = loginActivityRepository.findTop10ByUserIdOrderByCreatedAtDesc(user.getId());
+
+        Set<LocalDateTime> storedTimes = stored.stream()
+                .map(LoginActivity::getCreatedAt)
+                .collect(Collectors.toSet());
+        return Stream.concat(
+                        pending.stream()
+                                .filter(login -> !storedTimes.contains(login.createdAt()))
+                                .map(login -> new LoginActivityResponse(login.createdAt(), login.loginMethod(),
+                                        login.sourceIp(), login.userAgent())),
+                        stored.stream().map(LoginActivityResponse::new))
+                .sorted(Comparator.comparing(LoginActivityResponse::getTimestamp).reversed())
+                .limit(10)
                 .toList();
     }
 
-    public void changePassword(String email, ChangePasswordRequest request) {
-        User user = findByEmail(email);
+    /**
+     * Change the password and revoke all existing tokens.
+     * Returns fresh access and refresh tokens so the current session can continue.
+     */
+    @Transactional
+    public AuthResponse changePassword(String email, ChangePasswordRequest request) {
+        User user = loadForUpdate(email);
 
-        if (!passwordEncoder.matches(request.getCurrentPassword(), user.getPassword())) {
+        if (!passwordHasher.matches(request.getCurrentPassword(), user.getPassword())) {
             throw new IllegalArgumentException("Current password is incorrect");
         }
 
@@ -77,11 +118,17 @@ public class UserService {
             throw new IllegalArgumentException("New password must be different from current password");
         }
 
-        user.setPassword(passwordEncoder.encode(request.getNewPassword()));
+        user.setPassword(passwordHasher.encode(request.getNewPassword()));
+        tokenVersionRegistry.revokeTokens(user);
         userRepository.save(user);
+        userCache.evict(user);
 
         // Publish password changed event
         eventPublisher.publishUserPasswordChanged(UserPasswordChangedEvent.fromUser(user));
+
+        String token = jwtService.generateToken(user.getId(), user.getEmail(), user.getRole(), user.getTokenVersion());
+        return new AuthResponse("Password changed successfully", new UserResponse(user), token,
+                refreshTokenService.issue(user));
     }
 
     public UserResponse uploadAvatar(String email, MultipartFile file) throws IOException {
@@ -98,7 +145,7 @@ public class UserService {
             throw new IllegalArgumentException("Only JPEG, PNG, GIF, and WebP images are allowed");
         }
 
-        User user = findByEmail(email);
+        User user = loadForUpdate(email);
 
         // Create avatar directory if it doesn't exist
         Path avatarDir = Paths.get(AVATAR_DIR);
@@ -123,6 +170,7 @@ public class UserService {
         // Update user
         user.setAvatarUrl(AVATAR_DIR + "/" + filename);
         User saved = userRepository.save(user);
+        userCache.evict(saved);
 
         return new UserResponse(saved);
     }
@@ -136,7 +184,14 @@ public class UserService {
         return path;
     }
 
+    // Cached snapshot, for reads only
     private User findByEmail(String email) {
+        return userCache.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    // Current row, for changes; evict it from the cache after saving
+    private User loadForUpdate(String email) {
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
@@ -0,0 +1,185 @@
+package com.emconnect.api.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * In-memory waitlist order per event, for O(log n) position lookups.
+ *
+ * Each event keeps its waitlisted registrations' waitlist_seq values in ascending
+ * order with a Fenwick (binary indexed) tree of live slots over them. A position is
+ * a prefix sum; joins append a slot and promotions/cancellations clear one.
+ *
+ * The database stays the source of truth. An event's list is loaded lazily and
+ * rebuilt after a TTL, so changes made by other API instances show up within
+ * registration.waitlist.index-ttl-ms. Out-of-order appends drop the list instead.
+ */
+@Component
+public class WaitlistIndex {
+
+    private final long ttlMs;
+    private final ConcurrentHashMap<Long, EventWaitlist> waitlists = new ConcurrentHashMap<>();
+
+    public WaitlistIndex(@Value("${registration.waitlist.index-ttl-ms:30000}") long ttlMs) {
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * 1-based position of waitlistSeq on the event's waitlist, or 0 if it isn't on it.
+     */
+    public long position(Long eventId, long waitlistSeq, Supplier<List<Long>> loader) {
+        long position = current(eventId, loader).position(waitlistSeq);
+        if (position == 0) {
+            // Possibly appended by another instance since the last load
+            waitlists.remove(eventId);
+            position = current(eventId, loader).position(waitlistSeq);
+        }
+        return position;
+    }
+
+    /**
+     * Number of registrations currently on the event's waitlist.
+     */
+    public long size(Long eventId, Supplier<List<Long>> loader) {
+        return current(eventId, loader).size();
+    }
+
+    /**
+     * Record a committed join. Ignored if the event isn't loaded.
+     */
+    public void added(Long eventId, long waitlistSeq) {
+        EventWaitlist waitlist = waitlists.get(eventId);
+        if (waitlist != null && !waitlist.append(waitlistSeq)) {
+            waitlists.remove(eventId, waitlist);
+        }
+    }
+
+    /**
+     * Record a committed promotion or cancellation.
+     */
+    public void removed(Long eventId, long waitlistSeq) {
+        EventWaitlist waitlist = waitlists.get(eventId);
+        if (waitlist != null) {
+            waitlist.remove(waitlistSeq);
+        }
+    }
+
+    public void invalidate(Long eventId) {
+        waitlists.remove(eventId);
+    }
+
+    private EventWaitlist current(Long eventId, Supplier<List<Long>> loader) {
+        long now = System.currentTimeMillis();
+        EventWaitlist waitlist = waitlists.get(eventId);
+        if (waitlist == null || now - waitlist.loadedAt > ttlMs) {
+            waitlist = new EventWaitlist(loader.get(), now);
+            waitlists.put(eventId, waitlist);
+        }
+        return waitlist;
+    }
+
+    /**
+     * Sorted slots plus a Fenwick tree counting the live ones.
+     */
+    static final class EventWaitlist {
+
+        private final long loadedAt;
+        private long[] seqs;
+        private boolean[] live;
+        private int[] tree;   // 1-based
+        private int slots;
+        private int liveCount;
+
+        EventWaitlist(List<Long> sortedSeqs, long loadedAt) {
+            this.loadedAt = loadedAt;
+            int capacity = Math.max(16, sortedSeqs.size() * 2);
+            this.seqs = new long[capacity];
+            this.live = new boolean[capacity];
+            for (Long seq : sortedSeqs) {
+                seqs[slots] = seq;
+                live[slots] = true;
+                slots++;
+            }
+            this.liveCount = slots;
+            rebuildTree();
+        }
+
+        synchronized long position(long seq) {
+            int slot = Arrays.binarySearch(seqs, 0, slots, seq);
+            if (slot < 0 || !live[slot]) {
+                return 0;
+            }
+            return prefixSum(slot + 1);
+        }
+
+        synchronized long size() {
+            return liveCount;
+        }
+
+        /**
+         * Append a seq larger than every seq seen so far. Returns false if it is out
+         * of order (another instance's join committed late) and the list must be reloaded.
+         */
+        synchronized boolean append(long seq) {
+            if (slots > 0 && seq <= seqs[slots - 1]) {
+                return Arrays.binarySearch(seqs, 0, slots, seq) >= 0;
+            }
+            if (slots == seqs.length) {
+                seqs = Arrays.copyOf(seqs, slots * 2);
+                live = Arrays.copyOf(live, slots * 2);
+                seqs[slots] = seq;
+                live[slots] = true;
+                slots++;
+                liveCount++;
+                // A larger tree covers different ranges, so rebuild it (amortized O(1))
+                rebuildTree();
+                return true;
+            }
+            seqs[slots] = seq;
+            live[slots] = true;
+            slots++;
+            liveCount++;
+            update(slots, 1);
+            return true;
+        }
+
+        synchronized void remove(long seq) {
+            int slot = Arrays.binarySearch(seqs, 0, slots, seq);
+            if (slot >= 0 && live[slot]) {
+                live[slot] = false;
+                liveCount--;
+                update(slot + 1, -1);
+            }
+        }
+
+        private void rebuildTree() {
+            tree = new int[seqs.length + 1];
+            for (int i = 1; i <= seqs.length; i++) {
+                tree[i] += (i <= slots && live[i - 1]) ? 1 : 0;
+                int parent = i + (i & -i);
+                if (parent <= seqs.length) {
+                    tree[parent] += tree[i];
+                }
+            }
+        }
+
+        private void update(int index, int delta) {
+            for (int i = index; i < tree.length; i += i & -i) {
+                tree[i] += delta;
+            }
+        }
+
+        private long prefixSum(int index) {
+            long sum = 0;
+            for (int i = index; i > 0; i -= i & -i) {
+                sum += tree[i];
+            }
+            return sum;
+        }
+    }
+}
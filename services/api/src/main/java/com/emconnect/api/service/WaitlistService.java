@@ -0,0 +1,206 @@
+package com.emconnect.api.service;
+
+import com.emconnect.api.entity.Event;
+import com.emconnect.api.entity.Registration;
+import com.emconnect.api.entity.RegistrationStatus;
+import com.emconnect.api.entity.User;
+import com.emconnect.api.event.RegistrationConfirmedEvent;
+import com.emconnect.api.exception.DuplicateRegistrationException;
+import com.emconnect.api.exception.EventNotAvailableException;
+import com.emconnect.api.exception.ResourceNotFoundException;
+import com.emconnect.api.repository.EventRepository;
+import com.emconnect.api.repository.RegistrationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Waitlist for full events.
+ *
+ * Joining assigns the next waitlist_seq; the event's waitlist is ordered by it.
+ * Seats freed by a cancellation or a capacity increase are handed to the head of
+ * the waitlist inside the same transaction (promoteWaitlisted), so a freed seat is
+ * never open to a racing registrant while people are waiting.
+ */
+@Service
+public class WaitlistService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WaitlistService.class);
+
+    private final RegistrationRepository registrationRepository;
+    private final EventRepository eventRepository;
+    private final UserCache userCache;
+    private final EventPublisher eventPublisher;
+    private final WaitlistIndex waitlistIndex;
+
+    public WaitlistService(RegistrationRepository registrationRepository,
+                           EventRepository eventRepository,
+                           UserCache userCache,
+                           EventPublisher eventPublisher,
+                           WaitlistIndex waitlistIndex) {
+        this.registrationRepository = registrationRepository;
+        this.eventRepository = eventRepository;
+        this.userCache = userCache;
+        this.eventPublisher = eventPublisher;
+        this.waitlistIndex = waitlistIndex;
+    }
+
+    /**
+     * Join the waitlist of a full event.
+     */
+    @Transactional
+    public Registration joinWaitlist(Long eventId, String userEmail) {
+        // Step 1: Find the user and event
+        User user = userCache.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Event event = eventRepository.findById(eventId)
+                .orElseThrow(() -> new ResourceNotFoundException("Event not found with id: " + eventId));
+
+        // Step 2: Validate business rules
+        if (!event.getStatus().acceptsRegistrations()) {
+            throw new EventNotAvailableException(
+                "Cannot join the waitlist for this event",
+                "Event is not accepting registrations (status: " + event.getStatus() + ")"
+            );
+        }
+        if (event.getStartDate().isBefore(LocalDateTime.now())) {
+            throw new EventNotAvailableException(
+                "Cannot join the waitlist for this event",
+                "Event has already started"
+            );
+        }
+        if (event.getConfirmedCount() < event.getCapacity()) {
+            throw new EventNotAvailableException(
+                "Cannot join the waitlist for this event",
+                "Event still has open seats, register instead"
+            );
+        }
+
+        // Step 3: Reuse a cancelled registration row, or create one
+        Optional<Registration> existing = registrationRepository.findByUserIdAndEventIdWithLock(
+            user.getId(), eventId
+        );
+        Registration registration;
+        if (existing.isPresent()) {
+            registration = existing.get();
+            if (registration.getStatus() == RegistrationStatus.WAITLISTED) {
+                throw new DuplicateRegistrationException("You are already on the waitlist for this event");
+            }
+            if (registration.getStatus() != RegistrationStatus.CANCELLED) {
+                throw new DuplicateRegistrationException("You are already registered for this event");
+            }
+        } else {
+            registration = new Registration(user, event);
+        }
+        registration.joinWaitlist(registrationRepository.nextWaitlistSeq());
+
+        try {
+            registration = registrationRepository.saveAndFlush(registration);
+        } catch (DataIntegrityViolationException e) {
+            throw new DuplicateRegistrationException("You are already registered for this event");
+        }
+        logger.info("User {} joined the waitlist for event {} (seq {})",
+            userEmail, eventId, registration.getWaitlistSeq());
+
+        long waitlistSeq = registration.getWaitlistSeq();
+        afterCommit(() -> waitlistIndex.added(eventId, waitlistSeq));
+
+        // Step 4: A seat may have been freed between the capacity check and the join
+        int freeSeats = event.getCapacity() - eventRepository.findConfirmedCountById(eventId).orElse(0);
+        if (freeSeats > 0) {
+            promoteWaitlisted(eventId, freeSeats);
+        }
+
+        return registration;
+    }
+
+    /**
+     * 1-based waitlist position of the user's registration for the event.
+     */
+    @Transactional(readOnly = true)
+    public WaitlistPosition getWaitlistPosition(Long eventId, Long userId) {
+        Registration registration = registrationRepository.findByUserIdAndEventId(userId, eventId)
+                .filter(r -> r.getStatus() == RegistrationStatus.WAITLISTED)
+                .orElseThrow(() -> new ResourceNotFoundException("You are not on the waitlist for this event"));
+
+        long position = waitlistIndex.position(eventId, registration.getWaitlistSeq(),
+                () -> registrationRepository.findWaitlistSeqs(eventId));
+        long size = waitlistIndex.size(eventId, () -> registrationRepository.findWaitlistSeqs(eventId));
+        return new WaitlistPosition(registration.getId(), position, size);
+    }
+
+    /**
+     * Promote up to freeSeats registrations from the head of the waitlist.
+     * Must run in the transaction that freed the seats.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int promoteWaitlisted(Long eventId, int freeSeats) {
+        if (freeSeats <= 0) {
+            return 0;
+        }
+
+        List<Registration> head = registrationRepository.findWaitlistHeadForUpdate(eventId, freeSeats);
+        int promoted = 0;
+        for (Registration registration : head) {
+            Optional<Integer> participants = eventRepository.reserveSeat(eventId);
+            if (participants.isEmpty()) {
+                break; // seats were taken by a concurrent registration
+            }
+
+            long waitlistSeq = registration.getWaitlistSeq();
+            registration.promoteFromWaitlist();
+            registration = registrationRepository.save(registration);
+            afterCommit(() -> waitlistIndex.removed(eventId, waitlistSeq));
+            promoted++;
+
+            try {
+                RegistrationConfirmedEvent domainEvent = RegistrationConfirmedEvent.fromRegistration(
+                        registration, participants.get());
+                eventPublisher.publishRegistrationConfirmed(domainEvent);
+            } catch (Exception e) {
+                // Log but don't fail — the promotion was successful
+                logger.error("Failed to publish registration confirmed event: {}", e.getMessage());
+            }
+        }
+
+        if (promoted > 0) {
+            logger.info("Promoted {} waitlisted registrations for event {}", promoted, eventId);
+        }
+        return promoted;
+    }
+
+    /**
+     * Take a cancelled waitlist entry out of the in-memory order once committed.
+     */
+    void onWaitlistCancelled(Long eventId, long waitlistSeq) {
+        afterCommit(() -> waitlistIndex.removed(eventId, waitlistSeq));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * A user's place on an event's waitlist.
+     */
+    public record WaitlistPosition(Long registrationId, long position, long waitlistSize) {
+    }
+}
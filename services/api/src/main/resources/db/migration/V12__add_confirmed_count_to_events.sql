@@ -0,0 +1,17 @@
+-- V12: Maintain a confirmed-registration counter on events
+-- Seats are reserved with a single conditional UPDATE instead of locking the
+-- event row and counting registrations on every attempt.
+
+ALTER TABLE events ADD COLUMN confirmed_count INTEGER NOT NULL DEFAULT 0;
+
+-- Backfill from existing confirmed registrations
+UPDATE events e
+SET confirmed_count = (
+    SELECT COUNT(*)
+    FROM registrations r
+    WHERE r.event_id = e.id AND r.status = 'CONFIRMED'
+);
+
+ALTER TABLE events ADD CONSTRAINT chk_events_confirmed_count_non_negative
+    CHECK (confirmed_count >= 0);
+
@@ -0,0 +1,30 @@
+-- Opt-in queued ("flash-sale") registration mode per event
+ALTER TABLE events
+    ADD COLUMN registration_mode VARCHAR(20) NOT NULL DEFAULT 'STANDARD';
+
+-- Durable queue of registration attempts for QUEUED events, settled in id (arrival) order
+CREATE TABLE registration_attempts (
+    id              BIGSERIAL PRIMARY KEY,
+    attempt_id      UUID         NOT NULL UNIQUE,
+    event_id        BIGINT       NOT NULL REFERENCES events(id) ON DELETE CASCADE,
+    user_id         BIGINT       NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    status          VARCHAR(20)  NOT NULL DEFAULT 'PENDING',
+    reason          VARCHAR(255),
+    registration_id BIGINT       REFERENCES registrations(id) ON DELETE SET NULL,
+    created_at      TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at    TIMESTAMP
+);
+
+-- Consumer scan: only pending rows, oldest first
+CREATE INDEX idx_registration_attempts_pending
+    ON registration_attempts(id)
+    WHERE status = 'PENDING';
+
+-- At most one pending attempt per user and event; retries return the existing one
+CREATE UNIQUE INDEX uq_registration_attempts_pending_user_event
+    ON registration_attempts(event_id, user_id)
+    WHERE status = 'PENDING';
+
+CREATE INDEX idx_registration_attempts_processed
+    ON registration_attempts(processed_at)
+    WHERE status <> 'PENDING';
@@ -0,0 +1,10 @@
+-- Waitlist for full events: WAITLISTED registrations are promoted in waitlist_seq order
+CREATE SEQUENCE registration_waitlist_seq;
+
+ALTER TABLE registrations
+    ADD COLUMN waitlist_seq BIGINT;
+
+-- Head-of-waitlist lookups and ordered rebuilds per event
+CREATE INDEX idx_registrations_waitlist
+    ON registrations(event_id, waitlist_seq)
+    WHERE status = 'WAITLISTED';
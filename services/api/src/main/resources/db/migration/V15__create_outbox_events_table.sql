@@ -0,0 +1,23 @@
+-- Transactional outbox: domain events are written in the same transaction as the
+-- state change and relayed to RabbitMQ afterwards
+CREATE TABLE outbox_events (
+    id          BIGSERIAL PRIMARY KEY,
+    message_id  VARCHAR(64)  NOT NULL,
+    routing_key VARCHAR(100) NOT NULL,
+    event_type  VARCHAR(255) NOT NULL,
+    payload     TEXT         NOT NULL,
+    attempts    INTEGER      NOT NULL DEFAULT 0,
+    last_error  VARCHAR(500),
+    created_at  TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    sent_at     TIMESTAMP
+);
+
+-- Relay scan: unsent rows in insertion order
+CREATE INDEX idx_outbox_events_unsent
+    ON outbox_events(id)
+    WHERE sent_at IS NULL;
+
+-- Purge of relayed rows
+CREATE INDEX idx_outbox_events_sent_at
+    ON outbox_events(sent_at)
+    WHERE sent_at IS NOT NULL;
@@ -0,0 +1,10 @@
+-- Leases for cluster-wide scheduled jobs: one row per job (or job partition).
+-- fencing_token grows on every acquisition so a holder whose lease expired can be
+-- told apart from the current one.
+CREATE TABLE scheduler_leases (
+    name          VARCHAR(100) PRIMARY KEY,
+    owner         VARCHAR(255) NOT NULL,
+    fencing_token BIGINT       NOT NULL,
+    acquired_at   TIMESTAMP    NOT NULL,
+    expires_at    TIMESTAMP    NOT NULL
+);
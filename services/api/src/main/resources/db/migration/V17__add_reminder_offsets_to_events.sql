@@ -0,0 +1,3 @@
+-- Organizer-chosen reminder offsets in minutes before start, comma separated
+-- (e.g. '1440,60'). NULL means the default offsets (reminders.default-offsets-minutes).
+ALTER TABLE events ADD COLUMN reminder_offsets VARCHAR(100);
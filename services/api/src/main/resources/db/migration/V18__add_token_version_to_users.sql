@@ -0,0 +1,6 @@
+-- Bumped whenever a user's issued tokens must stop working (role change, password
+-- change or reset). Tokens carry the version they were issued with in the "ver" claim.
+ALTER TABLE users ADD COLUMN token_version INTEGER NOT NULL DEFAULT 0;
+
+-- The API polls for recently bumped versions
+CREATE INDEX idx_users_updated_at ON users(updated_at);
@@ -0,0 +1,11 @@
+-- Token buckets for the shared rate-limit mode (rate-limit.mode=shared): one row per
+-- policy and client. allowed records whether the last request took a token.
+CREATE TABLE rate_limit_buckets (
+    bucket_key  VARCHAR(200)     PRIMARY KEY,
+    tokens      DOUBLE PRECISION NOT NULL,
+    allowed     BOOLEAN          NOT NULL,
+    refilled_at TIMESTAMP        NOT NULL
+);
+
+-- Hourly purge of idle buckets
+CREATE INDEX idx_rate_limit_buckets_refilled_at ON rate_limit_buckets(refilled_at);
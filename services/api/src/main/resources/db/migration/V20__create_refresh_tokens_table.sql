@@ -0,0 +1,28 @@
+-- Refresh tokens, stored as SHA-256 hashes. Each refresh revokes the presented token
+-- and issues a new one in the same family; presenting a revoked token again revokes
+-- the whole family. token_version is the user's version at issue, so a role or
+-- password change also ends refresh.
+CREATE TABLE refresh_tokens (
+    id            BIGSERIAL   PRIMARY KEY,
+    user_id       BIGINT      NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    token_hash    VARCHAR(64) NOT NULL UNIQUE,
+    family_id     UUID        NOT NULL,
+    token_version INTEGER     NOT NULL,
+    expires_at    TIMESTAMP   NOT NULL,
+    created_at    TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    revoked_at    TIMESTAMP
+);
+
+CREATE INDEX idx_refresh_tokens_family_id ON refresh_tokens(family_id);
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens(expires_at);
+
+-- Access tokens revoked before they expire (logout), by jti. Rows are only needed
+-- until the token would have expired anyway.
+CREATE TABLE revoked_access_tokens (
+    jti        VARCHAR(36) PRIMARY KEY,
+    expires_at TIMESTAMP   NOT NULL,
+    revoked_at TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_revoked_access_tokens_revoked_at ON revoked_access_tokens(revoked_at);
+CREATE INDEX idx_revoked_access_tokens_expires_at ON revoked_access_tokens(expires_at);
@@ -0,0 +1,15 @@
+-- ES256 key pairs for signing access tokens, shared by all API replicas. A key signs
+-- from activates_at until the next key activates, and is published in
+-- /.well-known/jwks.json until tokens it signed have expired. New keys are created
+-- ahead of activation so JWKS caches pick them up first. The private key is
+-- encrypted with a key derived from jwt.secret.
+CREATE TABLE jwt_signing_keys (
+    kid          VARCHAR(64) PRIMARY KEY,
+    algorithm    VARCHAR(10) NOT NULL,
+    public_key   TEXT        NOT NULL,
+    private_key  TEXT        NOT NULL,
+    created_at   TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    activates_at TIMESTAMP   NOT NULL
+);
+
+CREATE INDEX idx_jwt_signing_keys_activates_at ON jwt_signing_keys(activates_at);
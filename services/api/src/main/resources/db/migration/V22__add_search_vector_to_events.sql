@@ -0,0 +1,12 @@
+-- Full-text search over events. A stored generated column keeps the document in
+-- step with every insert and update, and the ALTER fills it for existing rows.
+-- Weights rank title matches above tags, location and then description.
+ALTER TABLE events ADD COLUMN search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(tags, '')), 'B') ||
+        setweight(to_tsvector('english', coalesce(location, '')), 'C') ||
+        setweight(to_tsvector('english', coalesce(description, '')), 'D')
+    ) STORED;
+
+CREATE INDEX idx_events_search_vector ON events USING GIN (search_vector);
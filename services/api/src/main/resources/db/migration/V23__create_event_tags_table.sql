@@ -0,0 +1,17 @@
+-- One row per (event, normalized tag), so tag filters are an index lookup and an
+-- exact match. events.tags stays as a denormalized copy for display and the
+-- search_vector column; the entity writes both.
+CREATE TABLE event_tags (
+    event_id BIGINT      NOT NULL REFERENCES events(id) ON DELETE CASCADE,
+    tag      VARCHAR(50) NOT NULL,
+    PRIMARY KEY (event_id, tag)
+);
+
+CREATE INDEX idx_event_tags_tag_event ON event_tags(tag, event_id);
+
+-- Backfill from the comma-separated column, normalized the way Event.setTagList does
+INSERT INTO event_tags (event_id, tag)
+SELECT DISTINCT e.id, LEFT(LOWER(TRIM(t.tag)), 50)
+FROM events e, unnest(string_to_array(e.tags, ',')) AS t(tag)
+WHERE TRIM(t.tag) <> ''
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,6 @@
+-- Typo-tolerant search on title and location. Trigram GIN indexes serve the
+-- word-similarity operator (%>), so fuzzy matches don't scan the table.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_events_title_trgm ON events USING GIN (title gin_trgm_ops);
+CREATE INDEX idx_events_location_trgm ON events USING GIN (location gin_trgm_ops);
@@ -0,0 +1,9 @@
+-- Composite indexes for cursor (keyset) listings. Each matches one listing's
+-- filter and (timestamp, id) sort, so a page is a short index range scan that
+-- starts at the cursor instead of skipping OFFSET rows.
+CREATE INDEX idx_events_status_start_date_id ON events(status, start_date, id);
+CREATE INDEX idx_events_created_at_id ON events(created_at DESC, id DESC);
+CREATE INDEX idx_events_status_created_at_id ON events(status, created_at DESC, id DESC);
+
+CREATE INDEX idx_registrations_event_registered_at_id ON registrations(event_id, registered_at, id);
+CREATE INDEX idx_registrations_user_registered_at_id ON registrations(user_id, registered_at DESC, id DESC);
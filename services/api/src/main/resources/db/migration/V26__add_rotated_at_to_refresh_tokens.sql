@@ -0,0 +1,4 @@
+-- When a refresh token was swapped for its successor. Unlike revoked_at (also set
+-- by logout and reuse detection) it marks rotation only, so a second tab refreshing
+-- with the same token moments later can be told apart from a replayed copy.
+ALTER TABLE refresh_tokens ADD COLUMN rotated_at TIMESTAMP;
@@ -0,0 +1,112 @@
+package com.emconnect.api.benchmark;
+
+import com.emconnect.api.config.AuthenticatedUser;
+import com.emconnect.api.entity.Role;
+import com.emconnect.api.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of turning a bearer token into the principal.
+ *
+ * - perCallParser: the old JwtService, which derived the key and built a parser
+ *   on every call
+ * - sharedParser: the current JwtService with its cache turned off (verification
+ *   only, with the parser built once)
+ * - cachedVerifier: the current JwtService on a cache hit, the common case for a
+ *   token used across many requests
+ *
+ * Uses an HS256 token, which both the old and current code verify.
+ *
+ * To run: ./mvnw test-compile, then run main() from the IDE, or
+ * java -cp target/test-classes:target/classes:&lt;test classpath&gt; com.emconnect.api.benchmark.JwtVerificationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-that-is-long-enough-for-hmac-sha256";
+
+    private String token;
+    private JwtService cachingService;
+    private JwtService uncachedService;
+
+    @Setup
+    public void setUp() {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        Date now = new Date();
+        token = Jwts.builder()
+                .claim("email", "bench@example.com")
+                .claim("role", Role.USER.name())
+                .claim("ver", 0)
+                .subject("42")
+                .id(UUID.randomUUID().toString())
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(key, Jwts.SIG.HS256)
+                .compact();
+
+        cachingService = new JwtService(null, SECRET, true, 900_000, 10_000, new SimpleMeterRegistry());
+        uncachedService = new JwtService(null, SECRET, true, 900_000, 0, new SimpleMeterRegistry());
+        cachingService.parseAuthenticatedUser(token);
+    }
+
+    @Benchmark
+    public AuthenticatedUser perCallParser() {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        Claims claims = Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+        Integer version = claims.get("ver", Integer.class);
+        return new AuthenticatedUser(
+                Long.parseLong(claims.getSubject()),
+                claims.get("email", String.class),
+                Role.valueOf(claims.get("role", String.class)),
+                version != null ? version : 0,
+                claims.getId()
+        );
+    }
+
+    @Benchmark
+    public AuthenticatedUser sharedParser() {
+        return uncachedService.parseAuthenticatedUser(token);
+    }
+
+    @Benchmark
+    public AuthenticatedUser cachedVerifier() {
+        return cachingService.parseAuthenticatedUser(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
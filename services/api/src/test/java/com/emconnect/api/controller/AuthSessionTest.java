@@ -0,0 +1,82 @@
+package com.emconnect.api.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * An expired or missing access token must get 401, not 403: the frontend only
+ * refreshes on 401. The refresh token then renews the session.
+ *
+ * Access tokens live one second here so the test can let one expire.
+ *
+ * To run: ./mvnw test -Dtest=AuthSessionTest
+ * Requires: PostgreSQL running
+ */
+@SpringBootTest(properties = "jwt.expiration=1000")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class AuthSessionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void expiredAccessTokenGets401AndRefreshRenewsTheSession() throws Exception {
+        JsonNode session = register();
+        String accessToken = session.get("token").asText();
+        String refreshToken = session.get("refreshToken").asText();
+
+        assertEquals(200, getMe(accessToken));
+
+        Thread.sleep(1500);
+        assertEquals(401, getMe(accessToken), "expired token must get 401 so the client refreshes");
+
+        MvcResult refreshed = mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + refreshToken + "\"}"))
+                .andReturn();
+        assertEquals(200, refreshed.getResponse().getStatus());
+
+        JsonNode renewed = objectMapper.readTree(refreshed.getResponse().getContentAsString());
+        assertNotEquals(refreshToken, renewed.get("refreshToken").asText());
+        assertEquals(200, getMe(renewed.get("token").asText()));
+    }
+
+    @Test
+    void missingOrGarbledTokenGets401() throws Exception {
+        assertEquals(401, mockMvc.perform(get("/api/users/me")).andReturn().getResponse().getStatus());
+        assertEquals(401, getMe("not-a-jwt"));
+    }
+
+    private JsonNode register() throws Exception {
+        String email = "session-" + UUID.randomUUID() + "@test.com";
+        MvcResult result = mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + email + "\",\"password\":\"password123\",\"name\":\"Session Test\"}"))
+                .andReturn();
+        assertEquals(201, result.getResponse().getStatus(), result.getResponse().getContentAsString());
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    private int getMe(String accessToken) throws Exception {
+        return mockMvc.perform(get("/api/users/me").header("Authorization", "Bearer " + accessToken))
+                .andReturn().getResponse().getStatus();
+    }
+}
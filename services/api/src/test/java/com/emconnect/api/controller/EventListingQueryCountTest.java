@@ -0,0 +1,134 @@
+package com.emconnect.api.controller;
+
+import com.emconnect.api.entity.*;
+import com.emconnect.api.repository.*;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Event list endpoints must issue the same number of SQL statements whether a page
+ * holds 2 events or 20 (no per-row organizer or tag loads).
+ *
+ * Each event gets its own organizer, so any lazy organizer load would show up as one
+ * extra statement per row. Both pages are full, so both run their count query.
+ *
+ * To run: ./mvnw test -Dtest=EventListingQueryCountTest
+ * Requires: PostgreSQL running (uses real DB for the native search queries)
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "com.emconnect.api.controller.EventListingQueryCountTest$StatementCounter")
+@ActiveProfiles("test")
+public class EventListingQueryCountTest {
+
+    /**
+     * Counts SQL statements prepared on the current thread, so background jobs don't skew it.
+     */
+    public static class StatementCounter implements StatementInspector {
+        private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+        @Override
+        public String inspect(String sql) {
+            COUNT.get()[0]++;
+            return sql;
+        }
+    }
+
+    private static final int SMALL_PAGE = 2;
+    private static final int LARGE_PAGE = 20;
+
+    @Autowired
+    private EventController eventController;
+
+    @Autowired
+    private AdminController adminController;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private RegistrationRepository registrationRepository;
+
+    @BeforeEach
+    void setUp() {
+        // Clean up from previous test runs
+        registrationRepository.deleteAll();
+        eventRepository.deleteAll();
+        createEvents(LARGE_PAGE + 5);
+    }
+
+    @Test
+    void listingStatementCountDoesNotGrowWithPageSize() {
+        Map<String, Integer> smallPage = countListingStatements(SMALL_PAGE);
+        Map<String, Integer> largePage = countListingStatements(LARGE_PAGE);
+
+        assertEquals(smallPage, largePage, "statements per listing changed with the number of rows");
+        largePage.forEach((listing, statements) ->
+                assertTrue(statements <= 3, listing + " took " + statements + " statements"));
+    }
+
+    // Statements per listing request; each listing must return a full page
+    private Map<String, Integer> countListingStatements(int size) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        counts.put("published", count(size, () ->
+                eventController.getPublishedEvents(0, size).getBody().getContent().size()));
+        counts.put("full-text search", count(size, () ->
+                eventController.searchEvents("listing", null, null, "full-text", 0, size)
+                        .getBody().getContent().size()));
+        counts.put("tag filter", count(size, () ->
+                eventController.searchEvents("", null, "query-count", "auto", 0, size)
+                        .getBody().getContent().size()));
+        counts.put("admin", count(size, () ->
+                adminController.getAllEvents(0, size, null).getBody().getContent().size()));
+        counts.put("scroll", count(size, () ->
+                eventController.scrollPublishedEvents(false, null, size).getBody().getContent().size()));
+        return counts;
+    }
+
+    private int count(int expectedRows, Supplier<Integer> listing) {
+        int before = StatementCounter.COUNT.get()[0];
+        assertEquals(expectedRows, (int) listing.get());
+        return StatementCounter.COUNT.get()[0] - before;
+    }
+
+    private void createEvents(int count) {
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            User organizer = userRepository.findByEmail("organizer-listing-" + index + "@test.com")
+                    .orElseGet(() -> {
+                        User u = new User();
+                        u.setEmail("organizer-listing-" + index + "@test.com");
+                        u.setPassword("$2a$10$dummyhashfortest");
+                        u.setName("Listing Organizer " + index);
+                        u.setRole(Role.USER);
+                        return userRepository.save(u);
+                    });
+
+            Event event = new Event();
+            event.setTitle("Listing Test Event " + index);
+            event.setDescription("Counting statements per listing request. ".repeat(20));
+            event.setLocation("Test Venue");
+            event.setStartDate(LocalDateTime.now().plusDays(30 + index));
+            event.setEndDate(LocalDateTime.now().plusDays(30 + index).plusHours(2));
+            event.setCapacity(50);
+            event.setCategory(EventCategory.TECHNOLOGY);
+            event.setTags("listing, query-count");
+            event.setStatus(EventStatus.PUBLISHED);
+            event.setOrganizer(organizer);
+            eventRepository.save(event);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.emconnect.api.dto;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cursor tokens round-trip, reject tampering, and are only issued when more rows follow.
+ */
+public class PageCursorTest {
+
+    private static final LocalDateTime AT = LocalDateTime.of(2030, 5, 1, 18, 30, 15, 250_000_000);
+
+    @Test
+    void tokenRoundTripsTimestampAndId() {
+        PageCursor cursor = new PageCursor(AT, 42L);
+
+        String token = cursor.encode();
+
+        assertFalse(token.contains("="));
+        assertEquals(cursor, PageCursor.decode(token, PageCursor.FIRST_ASCENDING));
+    }
+
+    @Test
+    void pageSizeIsClampedToTheMaximum() {
+        assertEquals(PageCursor.MAX_PAGE_SIZE, PageCursor.limit(1_000_000).getPageSize());
+        assertEquals(1, PageCursor.limit(0).getPageSize());
+        assertEquals(25, PageCursor.limit(25).getPageSize());
+        assertEquals(0, PageCursor.limit(25).getPageNumber());
+    }
+
+    @Test
+    void missingTokenStartsAtTheFirstPage() {
+        assertEquals(PageCursor.FIRST_ASCENDING, PageCursor.decode(null, PageCursor.FIRST_ASCENDING));
+        assertEquals(PageCursor.FIRST_DESCENDING, PageCursor.decode(" ", PageCursor.FIRST_DESCENDING));
+    }
+
+    @Test
+    void malformedTokenIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("not a cursor", PageCursor.FIRST_ASCENDING));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("MjAzMA", PageCursor.FIRST_ASCENDING));
+    }
+
+    @Test
+    void nextCursorPointsAtTheLastRowOnlyWhenMoreFollow() {
+        List<Long> ids = List.of(3L, 9L);
+
+        CursorPageResponse<String> more = CursorPageResponse.of(
+                new SliceImpl<>(ids, PageRequest.of(0, 2), true), String::valueOf, id -> new PageCursor(AT, id));
+        CursorPageResponse<String> last = CursorPageResponse.of(
+                new SliceImpl<>(ids, PageRequest.of(0, 2), false), String::valueOf, id -> new PageCursor(AT, id));
+
+        assertEquals(List.of("3", "9"), more.getContent());
+        assertEquals(new PageCursor(AT, 9L), PageCursor.decode(more.getNextCursor(), PageCursor.FIRST_ASCENDING));
+        assertTrue(more.isHasNext());
+        assertNull(last.getNextCursor());
+        assertFalse(last.isHasNext());
+    }
+}
@@ -0,0 +1,80 @@
+package com.emconnect.api.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Burst, rejection and concurrent consumption on the in-memory token buckets.
+ */
+public class LocalTokenBucketStoreTest {
+
+    private final LocalTokenBucketStore store = new LocalTokenBucketStore(new SimpleMeterRegistry(), 600);
+
+    @Test
+    void allowsBurstThenRejectsWithRetryAfter() {
+        RateLimitPolicy policy = RateLimitPolicy.perMinute("login", 2, 1);
+
+        assertTrue(store.tryConsume("login:ip:1.2.3.4", policy).allowed());
+        assertTrue(store.tryConsume("login:ip:1.2.3.4", policy).allowed());
+
+        TokenBucketStore.Decision rejected = store.tryConsume("login:ip:1.2.3.4", policy);
+        assertFalse(rejected.allowed());
+        // One token per minute: close to a minute until the next one
+        assertTrue(rejected.retryAfterMillis() > 55_000 && rejected.retryAfterMillis() <= 60_000,
+                "retry after " + rejected.retryAfterMillis());
+
+        // Other clients have their own bucket
+        assertTrue(store.tryConsume("login:ip:5.6.7.8", policy).allowed());
+    }
+
+    @Test
+    void concurrentRequestsNeverExceedCapacity() throws Exception {
+        RateLimitPolicy policy = RateLimitPolicy.perMinute("event-registration", 100, 1);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                int allowed = 0;
+                for (int i = 0; i < 1000; i++) {
+                    if (store.tryConsume("event-registration:user:1", policy).allowed()) {
+                        allowed++;
+                    }
+                }
+                return allowed;
+            }));
+        }
+        start.countDown();
+
+        int total = 0;
+        for (Future<Integer> result : results) {
+            total += result.get();
+        }
+        executor.shutdown();
+
+        // 100 in the burst, plus at most a token or two refilled during the run
+        assertTrue(total >= 100 && total <= 102, "allowed " + total);
+    }
+
+    @Test
+    void evictsOnlyBucketsThatHaveRefilled() {
+        LocalTokenBucketStore evictingStore = new LocalTokenBucketStore(new SimpleMeterRegistry(), 0);
+        evictingStore.tryConsume("login:ip:1.2.3.4", RateLimitPolicy.perMinute("login", 10, 10));
+
+        // Idle timeout is zero, but the bucket needs a minute to refill
+        evictingStore.evictIdle();
+        assertEquals(1, evictingStore.size());
+    }
+}
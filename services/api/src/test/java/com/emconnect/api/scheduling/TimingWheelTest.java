@@ -0,0 +1,122 @@
+package com.emconnect.api.scheduling;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hierarchical timing wheel: exact firing, cascading from every level, the
+ * horizon and top-level wrap-around, overdue adds, and a long pause.
+ *
+ * One-second ticks and 10 slots per level, so level 1 spans 10 s, level 2
+ * 100 s and level 3 1000 s.
+ */
+public class TimingWheelTest {
+
+    private static final long TICK_MS = 1000;
+    private static final long START = 1_700_000_000_000L;
+
+    private TimingWheel<String> wheel;
+
+    @BeforeEach
+    void setUp() {
+        wheel = new TimingWheel<>(TICK_MS, 10, 4, START);
+    }
+
+    @Test
+    void levelZeroTaskFiresOnItsTick() {
+        assertTrue(wheel.add(at(5), "five"));
+        assertEquals(1, wheel.size());
+
+        assertEquals(List.of(), wheel.advance(at(5) - 1));
+        assertEquals(List.of("five"), wheel.advance(at(5)));
+        assertEquals(0, wheel.size());
+        assertEquals(List.of(), wheel.advance(at(6)));
+    }
+
+    @Test
+    void tasksCascadeFromEachLevelAndFireOnTheirTick() {
+        wheel.add(at(7), "level0");
+        wheel.add(at(42), "level1");
+        wheel.add(at(420), "level2");
+        wheel.add(at(4200), "level3");
+
+        assertEquals(List.of(), wheel.advance(at(6)));
+        assertEquals(List.of("level0"), wheel.advance(at(7)));
+        assertEquals(List.of(), wheel.advance(at(41)));
+        assertEquals(List.of("level1"), wheel.advance(at(42)));
+        assertEquals(List.of(), wheel.advance(at(419)));
+        assertEquals(List.of("level2"), wheel.advance(at(420)));
+        assertEquals(List.of(), wheel.advance(at(4199)));
+        assertEquals(List.of("level3"), wheel.advance(at(4200)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void taskDueOnASlotBoundaryFiresWhenTheSlotCascades() {
+        wheel.add(at(100), "boundary");
+
+        assertEquals(List.of(), wheel.advance(at(99)));
+        assertEquals(List.of("boundary"), wheel.advance(at(100)));
+    }
+
+    @Test
+    void addBeyondTheHorizonIsRejected() {
+        assertEquals(9000 * TICK_MS, wheel.horizonMs());
+        assertTrue(wheel.add(START + wheel.horizonMs(), "edge"));
+        assertFalse(wheel.add(at(10_000), "beyond"));
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    void topLevelWrapsAroundAsTheClockMoves() {
+        wheel.add(START + wheel.horizonMs(), "edge");
+        wheel.advance(at(1500));
+
+        // Lands in the top-level slot the clock left behind at tick 0
+        assertTrue(wheel.add(at(1500) + wheel.horizonMs(), "wrapped"));
+        assertFalse(wheel.add(at(11_000), "beyond"));
+
+        assertEquals(List.of("edge"), wheel.advance(at(10_499)));
+        assertEquals(List.of("wrapped"), wheel.advance(at(10_500)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void overdueAddFiresOnTheNextAdvance() {
+        wheel.advance(at(100));
+
+        assertTrue(wheel.add(at(50), "late"));
+        assertTrue(wheel.add(at(100), "now"));
+        assertTrue(wheel.add(START - 5000, "beforeStart"));
+        assertEquals(3, wheel.size());
+
+        // Fires even though the clock has not moved
+        assertEquals(List.of("late", "now", "beforeStart"), wheel.advance(at(100)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void largeJumpAfterAPauseFiresEverythingInDueOrder() {
+        wheel.add(at(4200), "4200");
+        wheel.add(at(7), "7");
+        wheel.add(at(420), "420");
+        wheel.add(at(3), "3");
+        wheel.add(at(42), "42");
+
+        assertEquals(List.of("3", "7", "42", "420", "4200"), wheel.advance(at(8000)));
+        assertEquals(0, wheel.size());
+
+        // The wheel keeps working from where it landed
+        assertTrue(wheel.add(at(8005), "after"));
+        assertEquals(List.of(), wheel.advance(at(8004)));
+        assertEquals(List.of("after"), wheel.advance(at(8005)));
+    }
+
+    private static long at(long tick) {
+        return START + tick * TICK_MS;
+    }
+}
@@ -0,0 +1,134 @@
+package com.emconnect.api.service;
+
+import com.emconnect.api.entity.EventCategory;
+import com.emconnect.api.repository.EventRepository;
+import com.emconnect.api.repository.EventRepository.CatalogEntry;
+import com.emconnect.api.service.EventCatalogIndex.Catalog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prefix matching, ranking and updates of the in-memory event search index.
+ */
+public class EventCatalogIndexTest {
+
+    // Relative to now: events that have started are not suggested
+    private static final LocalDateTime SOON = LocalDateTime.now().plusDays(10);
+    private static final LocalDateTime LATER = LocalDateTime.now().plusDays(60);
+
+    private static List<Long> ids(Catalog.Suggestions suggestions) {
+        return suggestions.events().stream().map(Catalog.Entry::id).toList();
+    }
+
+    @Test
+    void everyTypedWordMustPrefixSomeToken() {
+        Catalog catalog = new Catalog();
+        catalog.put(Catalog.entry(1, "React Conference", "Frontend talks", EventCategory.TECHNOLOGY,
+                List.of("javascript"), LATER));
+        catalog.put(Catalog.entry(2, "Jazz Night", "Live music downtown", EventCategory.MUSIC,
+                List.of("jazz"), SOON));
+
+        assertEquals(List.of(1L), ids(catalog.suggest("rea conf", 8)));
+        assertEquals(List.of(1L), ids(catalog.suggest("JavaScr", 8)));
+        assertEquals(List.of(2L), ids(catalog.suggest("music", 8)));
+        assertTrue(catalog.suggest("rea jazz", 8).events().isEmpty());
+        assertTrue(catalog.suggest("  ", 8).events().isEmpty());
+    }
+
+    @Test
+    void titleMatchesRankFirstThenSoonestEvent() {
+        Catalog catalog = new Catalog();
+        catalog.put(Catalog.entry(1, "Design Meetup", "Workshop on design systems", null, List.of(), SOON));
+        catalog.put(Catalog.entry(2, "Workshop Week", "Hands-on sessions", null, List.of(), LATER));
+        catalog.put(Catalog.entry(3, "Workshop Day", "More sessions", null, List.of(), SOON));
+
+        assertEquals(List.of(3L, 2L, 1L), ids(catalog.suggest("work", 8)));
+        assertEquals(List.of(3L, 2L), ids(catalog.suggest("work", 2)));
+        assertEquals(List.of("workshop"), catalog.suggest("work", 8).terms());
+    }
+
+    @Test
+    void removedAndReplacedEventsLeaveNoStaleTokens() {
+        Catalog catalog = new Catalog();
+        catalog.put(Catalog.entry(1, "Python Basics", null, null, List.of(), SOON));
+        catalog.put(Catalog.entry(1, "Rust Basics", null, null, List.of(), SOON));
+
+        assertTrue(catalog.suggest("pyth", 8).terms().isEmpty());
+        assertEquals(List.of(1L), ids(catalog.suggest("rust", 8)));
+
+        catalog.remove(1);
+        catalog.put(Catalog.entry(2, "Basketball", null, null, List.of(), SOON));
+
+        assertEquals(1, catalog.size());
+        assertEquals(List.of("basketball"), catalog.suggest("bas", 8).terms());
+        assertEquals(List.of(2L), ids(catalog.suggest("bas", 8)));
+    }
+
+    @Test
+    void changesMadeDuringARebuildSurviveTheSwap() {
+        EventCatalogIndex[] index = new EventCatalogIndex[1];
+        CatalogEntry stored = entry(5L, "Data Summit");
+        EventRepository repository = (EventRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{EventRepository.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("findUpcomingCatalogEntries")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    // Cancelled on this instance while the rebuild was reading
+                    index[0].removeAfterCommit(5L);
+                    return List.of(stored);
+                });
+        index[0] = new EventCatalogIndex(repository, new SimpleMeterRegistry());
+
+        index[0].rebuild();
+
+        assertTrue(index[0].suggest("data", 8).events().isEmpty());
+    }
+
+    @Test
+    void startedEventsAreNeverSuggested() {
+        Catalog catalog = new Catalog();
+        catalog.put(Catalog.entry(1, "Yoga Morning", null, null, List.of(), LocalDateTime.now().minusDays(1)));
+        catalog.put(Catalog.entry(2, "Yoga Evening", null, null, List.of(), LocalDateTime.now().plusDays(1)));
+
+        assertEquals(List.of(2L), ids(catalog.suggest("yoga", 8)));
+    }
+
+    @Test
+    void rebuildOnlyLoadsEventsThatHaveNotStarted() {
+        LocalDateTime[] asked = new LocalDateTime[1];
+        EventRepository repository = (EventRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{EventRepository.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("findUpcomingCatalogEntries")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    asked[0] = (LocalDateTime) args[0];
+                    return List.of(entry(6L, "Book Club"));
+                });
+        EventCatalogIndex index = new EventCatalogIndex(repository, new SimpleMeterRegistry());
+
+        LocalDateTime before = LocalDateTime.now();
+        index.rebuild();
+
+        assertFalse(asked[0].isBefore(before));
+        assertEquals(List.of(6L), ids(index.suggest("book", 8)));
+    }
+
+    private static CatalogEntry entry(Long id, String title) {
+        return (CatalogEntry) Proxy.newProxyInstance(
+                CatalogEntry.class.getClassLoader(), new Class<?>[]{CatalogEntry.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getId" -> id;
+                    case "getTitle" -> title;
+                    case "getStartDate" -> SOON;
+                    default -> null;
+                });
+    }
+}
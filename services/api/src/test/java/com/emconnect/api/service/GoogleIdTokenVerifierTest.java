@@ -0,0 +1,100 @@
+package com.emconnect.api.service;
+
+import com.emconnect.api.exception.InvalidCredentialsException;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Local verification of Google ID tokens against a stub key set.
+ */
+public class GoogleIdTokenVerifierTest {
+
+    private static final String CLIENT_ID = "test-client.apps.googleusercontent.com";
+
+    private final Map<String, PublicKey> publishedKeys = new HashMap<>();
+    private final AtomicInteger fetches = new AtomicInteger();
+    private GoogleIdTokenVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        GoogleKeySource stubSource = () -> {
+            fetches.incrementAndGet();
+            return new GoogleKeySource.KeySet(Map.copyOf(publishedKeys), Duration.ofHours(1));
+        };
+        // No rate limit on unknown-kid refreshes so rotation is observable
+        verifier = new GoogleIdTokenVerifier(stubSource, CLIENT_ID, 3600, 0);
+    }
+
+    @Test
+    void shouldVerifyTokenLocallyAndCacheKeys() throws Exception {
+        KeyPair keyPair = newKeyPair();
+        publishedKeys.put("key-1", keyPair.getPublic());
+
+        Map<String, Object> claims = verifier.verify(idToken(keyPair, "key-1", CLIENT_ID, "https://accounts.google.com"));
+        assertEquals("user@example.com", claims.get("email"));
+
+        verifier.verify(idToken(keyPair, "key-1", CLIENT_ID, "accounts.google.com"));
+        assertEquals(1, fetches.get(), "Keys should be fetched once and then cached");
+    }
+
+    @Test
+    void shouldRejectWrongAudienceIssuerOrSignature() throws Exception {
+        KeyPair keyPair = newKeyPair();
+        publishedKeys.put("key-1", keyPair.getPublic());
+
+        assertThrows(InvalidCredentialsException.class, () ->
+            verifier.verify(idToken(keyPair, "key-1", "someone-else", "https://accounts.google.com")));
+        assertThrows(InvalidCredentialsException.class, () ->
+            verifier.verify(idToken(keyPair, "key-1", CLIENT_ID, "https://evil.example.com")));
+        assertThrows(InvalidCredentialsException.class, () ->
+            verifier.verify(idToken(newKeyPair(), "key-1", CLIENT_ID, "https://accounts.google.com")));
+    }
+
+    @Test
+    void shouldRefreshKeysOnUnknownKid() throws Exception {
+        KeyPair oldKey = newKeyPair();
+        publishedKeys.put("key-1", oldKey.getPublic());
+        verifier.verify(idToken(oldKey, "key-1", CLIENT_ID, "https://accounts.google.com"));
+
+        // Google rotates before our cached copy expires
+        KeyPair newKey = newKeyPair();
+        publishedKeys.put("key-2", newKey.getPublic());
+
+        Map<String, Object> claims = verifier.verify(idToken(newKey, "key-2", CLIENT_ID, "https://accounts.google.com"));
+        assertEquals("user@example.com", claims.get("email"));
+        assertEquals(2, fetches.get());
+    }
+
+    private static KeyPair newKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+
+    private static String idToken(KeyPair keyPair, String kid, String audience, String issuer) {
+        Date now = new Date();
+        return Jwts.builder()
+                .header().keyId(kid).and()
+                .issuer(issuer)
+                .audience().add(audience).and()
+                .subject("1234567890")
+                .claim("email", "user@example.com")
+                .claim("email_verified", true)
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + 3600_000))
+                .signWith(keyPair.getPrivate())
+                .compact();
+    }
+}
@@ -0,0 +1,121 @@
+package com.emconnect.api.service;
+
+import com.emconnect.api.config.AuthenticatedUser;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verified-token cache: repeat tokens skip verification, expired entries are
+ * verified (and rejected) again, and a full cache evicts one entry instead of
+ * starting over.
+ *
+ * Tokens are legacy HS256 ones so no signing key registry is needed.
+ */
+public class JwtServiceTest {
+
+    private static final String SECRET = "test-secret-key-that-is-long-enough-for-hmac-sha256-algorithm";
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void repeatTokenIsServedFromTheCache() {
+        JwtService jwtService = jwtService(100);
+        String token = token(7L, 60_000);
+
+        AuthenticatedUser first = jwtService.parseAuthenticatedUser(token);
+        AuthenticatedUser second = jwtService.parseAuthenticatedUser(token);
+
+        assertEquals(7L, (long) first.id());
+        assertSame(first, second);
+        assertEquals(1, cacheCount("hit"));
+        assertEquals(1, cacheCount("miss"));
+        assertEquals(1, meterRegistry.get("emconnect.auth.token.verify").timer().count());
+    }
+
+    @Test
+    void expiredEntryIsVerifiedAgainAndRejected() throws Exception {
+        JwtService jwtService = jwtService(100);
+        String token = token(7L, 300);
+
+        jwtService.parseAuthenticatedUser(token);
+        Thread.sleep(400);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtService.parseAuthenticatedUser(token));
+        assertEquals(0, cacheCount("hit"));
+        assertEquals(2, cacheCount("miss"));
+        assertEquals(0, cacheSize());
+    }
+
+    @Test
+    void fullCacheEvictsTheSoonestExpiringEntryOnly() {
+        JwtService jwtService = jwtService(3);
+        String soonest = token(1L, 10 * 60_000);
+        String later = token(2L, 20 * 60_000);
+        String latest = token(3L, 30 * 60_000);
+        jwtService.parseAuthenticatedUser(soonest);
+        jwtService.parseAuthenticatedUser(later);
+        jwtService.parseAuthenticatedUser(latest);
+
+        jwtService.parseAuthenticatedUser(token(4L, 40 * 60_000));
+
+        assertEquals(3, cacheSize());
+        jwtService.parseAuthenticatedUser(later);
+        jwtService.parseAuthenticatedUser(latest);
+        assertEquals(2, cacheCount("hit"), "live entries survive the overflow");
+        jwtService.parseAuthenticatedUser(soonest);
+        assertEquals(5, cacheCount("miss"), "only the soonest-expiring entry was evicted");
+    }
+
+    @Test
+    void zeroMaxEntriesDisablesTheCache() {
+        JwtService jwtService = jwtService(0);
+        String token = token(7L, 60_000);
+
+        jwtService.parseAuthenticatedUser(token);
+        jwtService.parseAuthenticatedUser(token);
+
+        assertEquals(0, cacheCount("hit"));
+        assertEquals(0, cacheSize());
+    }
+
+    private JwtService jwtService(int cacheMaxEntries) {
+        return new JwtService(null, SECRET, true, 900_000, cacheMaxEntries, meterRegistry);
+    }
+
+    private static String token(long userId, long ttlMs) {
+        Date now = new Date();
+        return Jwts.builder()
+                .claim("email", "user" + userId + "@example.com")
+                .claim("role", "USER")
+                .claim("ver", 0)
+                .subject(String.valueOf(userId))
+                .id(UUID.randomUUID().toString())
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + ttlMs))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), Jwts.SIG.HS256)
+                .compact();
+    }
+
+    private double cacheCount(String result) {
+        return meterRegistry.get("emconnect.auth.token.cache").tag("result", result).counter().count();
+    }
+
+    private double cacheSize() {
+        return meterRegistry.get("emconnect.auth.token.cache.size").gauge().value();
+    }
+}
@@ -0,0 +1,137 @@
+package com.emconnect.api.service;
+
+import com.emconnect.api.entity.OutboxEvent;
+import com.emconnect.api.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Outbox relay confirms: in-order marking up to the first failure, and one deadline per batch.
+ */
+public class OutboxRelayTest {
+
+    private final List<Long> sent = new ArrayList<>();
+    private final List<Long> failed = new ArrayList<>();
+    private List<OutboxEvent> rows;
+    // Confirm per row id: true ack, false nack, absent never confirmed
+    private Map<Long, Boolean> confirms;
+    private OutboxEventRepository repository;
+    private RabbitTemplate rabbitTemplate;
+
+    private final PlatformTransactionManager transactionManager = new PlatformTransactionManager() {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        rows = new ArrayList<>();
+        repository = (OutboxEventRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{OutboxEventRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "lockUnsentBatch" -> {
+                        List<OutboxEvent> batch = rows;
+                        rows = List.of();
+                        yield batch;
+                    }
+                    case "markSent" -> {
+                        for (Object id : (Collection<?>) args[0]) {
+                            sent.add((Long) id);
+                        }
+                        yield sent.size();
+                    }
+                    case "markFailed" -> {
+                        failed.add((Long) args[0]);
+                        yield 1;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+
+        rabbitTemplate = new RabbitTemplate() {
+            @Override
+            public void send(String exchange, String routingKey, Message message, CorrelationData correlationData) {
+                Long id = Long.valueOf(correlationData.getId().substring(1));
+                Boolean ack = confirms.get(id);
+                if (ack != null) {
+                    correlationData.getFuture().complete(new CorrelationData.Confirm(ack, ack ? null : "rejected"));
+                }
+            }
+        };
+    }
+
+    private OutboxRelay relay(long confirmTimeoutMs) {
+        return new OutboxRelay(repository, rabbitTemplate, transactionManager, 200, 20, confirmTimeoutMs, 24);
+    }
+
+    private void rows(long... ids) throws Exception {
+        Field idField = OutboxEvent.class.getDeclaredField("id");
+        idField.setAccessible(true);
+        for (long id : ids) {
+            OutboxEvent row = new OutboxEvent("m" + id, "event.published", "EventPublishedEvent", "{}");
+            idField.set(row, id);
+            rows.add(row);
+        }
+    }
+
+    @Test
+    void confirmedBatchIsMarkedSent() throws Exception {
+        rows(1, 2, 3);
+        confirms = Map.of(1L, true, 2L, true, 3L, true);
+
+        relay(1000).relay();
+
+        assertEquals(List.of(1L, 2L, 3L), sent);
+        assertTrue(failed.isEmpty());
+    }
+
+    @Test
+    void rowsAfterANackAreNotMarkedSent() throws Exception {
+        rows(1, 2, 3);
+        confirms = Map.of(1L, true, 2L, false, 3L, true);
+
+        relay(1000).relay();
+
+        assertEquals(List.of(1L), sent);
+        assertEquals(List.of(2L), failed);
+    }
+
+    @Test
+    void silentBrokerCostsOneDeadlinePerBatch() throws Exception {
+        rows(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        confirms = Map.of();
+
+        long start = System.nanoTime();
+        relay(200).relay();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMs < 1000, "waited " + elapsedMs + "ms");
+        assertTrue(sent.isEmpty());
+        assertEquals(List.of(1L), failed);
+    }
+}
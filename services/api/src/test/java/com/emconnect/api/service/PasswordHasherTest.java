@@ -0,0 +1,70 @@
+package com.emconnect.api.service;
+
+import com.emconnect.api.config.PasswordEncoderConfig;
+import com.emconnect.api.exception.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Load shedding on the hashing pool and upgrade of legacy hashes.
+ */
+public class PasswordHasherTest {
+
+    @Test
+    void shedsRequestsWhenQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blockingEncoder = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        PasswordHasher hasher = new PasswordHasher(blockingEncoder, new SimpleMeterRegistry(), 1, 1, 10000);
+
+        // One hash running, one queued: the third is shed
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> hasher.encode("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> hasher.encode("second"));
+        while (hasher.queuedCount() == 0) {
+            Thread.sleep(10);
+        }
+
+        assertThrows(ServiceBusyException.class, () -> hasher.encode("third"));
+
+        release.countDown();
+        assertNotNull(running.get(5, TimeUnit.SECONDS));
+        assertNotNull(queued.get(5, TimeUnit.SECONDS));
+        hasher.shutdown();
+    }
+
+    @Test
+    void legacyHashesMatchAndNeedRehash() {
+        PasswordEncoder encoder = new PasswordEncoderConfig(1, 4, 4).passwordEncoder();
+        PasswordHasher hasher = new PasswordHasher(encoder, new SimpleMeterRegistry(), 1, 4, 10000);
+
+        String legacy = new BCryptPasswordEncoder(4).encode("secret");
+        assertTrue(hasher.matches("secret", legacy));
+        assertTrue(hasher.needsRehash(legacy));
+
+        String upgraded = hasher.encode("secret");
+        assertTrue(upgraded.startsWith("{bcrypt}"));
+        assertTrue(hasher.matches("secret", upgraded));
+        assertFalse(hasher.needsRehash(upgraded));
+        hasher.shutdown();
+    }
+}
@@ -0,0 +1,126 @@
+package com.emconnect.api.service;
+
+import com.emconnect.api.entity.Role;
+import com.emconnect.api.entity.User;
+import com.emconnect.api.exception.InvalidCredentialsException;
+import com.emconnect.api.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Refresh token rotation and reuse detection.
+ *
+ * A token presented again within the grace window (two tabs refreshing with the same
+ * stored token) gets its own successor; after the window it counts as a stolen copy
+ * and signs the whole family out. The window is two seconds here.
+ *
+ * To run: ./mvnw test -Dtest=RefreshTokenServiceTest
+ * Requires: PostgreSQL running (rotation is a conditional UPDATE ... RETURNING)
+ */
+@SpringBootTest(properties = "jwt.refresh.reuse-grace-seconds=2")
+@ActiveProfiles("test")
+public class RefreshTokenServiceTest {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        User u = new User();
+        u.setEmail("refresh-" + UUID.randomUUID() + "@test.com");
+        u.setPassword("$2a$10$dummyhashfortest");
+        u.setName("Refresh Test");
+        u.setRole(Role.USER);
+        user = userRepository.save(u);
+    }
+
+    @Test
+    void rotationIssuesTheNextTokenForTheSameUser() {
+        String first = refreshTokenService.issue(user);
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(first);
+
+        assertEquals(user.getId(), rotation.user().getId());
+        assertNotEquals(first, rotation.refreshToken());
+        assertNotNull(refreshTokenService.rotate(rotation.refreshToken()));
+    }
+
+    @Test
+    void secondTabWithinGraceGetsItsOwnSuccessor() {
+        String first = refreshTokenService.issue(user);
+
+        String tabA = refreshTokenService.rotate(first).refreshToken();
+        String tabB = refreshTokenService.rotate(first).refreshToken();
+
+        assertNotEquals(tabA, tabB);
+        // Neither tab was signed out
+        assertNotNull(refreshTokenService.rotate(tabA));
+        assertNotNull(refreshTokenService.rotate(tabB));
+    }
+
+    @Test
+    void concurrentRefreshesWithOneTokenBothSucceed() throws Exception {
+        String first = refreshTokenService.issue(user);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return refreshTokenService.rotate(first).refreshToken();
+                }));
+            }
+            start.countDown();
+
+            assertNotEquals(results.get(0).get(), results.get(1).get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void reuseAfterGraceRevokesTheFamily() throws Exception {
+        String first = refreshTokenService.issue(user);
+        String second = refreshTokenService.rotate(first).refreshToken();
+
+        Thread.sleep(2500);
+
+        assertThrows(InvalidCredentialsException.class, () -> refreshTokenService.rotate(first));
+        // The legitimate holder is signed out too
+        assertThrows(InvalidCredentialsException.class, () -> refreshTokenService.rotate(second));
+    }
+
+    @Test
+    void signedOutFamilyIsNotRevivedWithinGrace() {
+        String first = refreshTokenService.issue(user);
+        String second = refreshTokenService.rotate(first).refreshToken();
+
+        refreshTokenService.revoke(second);
+
+        assertThrows(InvalidCredentialsException.class, () -> refreshTokenService.rotate(first));
+    }
+
+    @Test
+    void unknownTokenIsRefused() {
+        assertThrows(InvalidCredentialsException.class, () -> refreshTokenService.rotate("not-a-token"));
+    }
+}
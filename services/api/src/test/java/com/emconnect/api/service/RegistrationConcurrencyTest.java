@@ -1,16 +1,19 @@
 package com.emconnect.api.service;
 
 import com.emconnect.api.entity.*;
+import com.emconnect.api.exception.EventNotAvailableException;
 import com.emconnect.api.repository.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -21,7 +24,9 @@ import static org.junit.jupiter.api.Assertions.*;
  * 
  * This test creates an event with limited capacity, then fires
  * multiple registration requests simultaneously to verify that
- * pessimistic locking prevents overbooking.
+ * the conditional seat reservation on events.confirmed_count
+ * prevents overbooking. The same crowd is also sent through the
+ * per-event registration lanes (registration.lanes.enabled=true).
  * 
  * To run: ./mvnw test -Dtest=RegistrationConcurrencyTest
  * Requires: PostgreSQL running (uses real DB for lock testing)
@@ -42,6 +47,21 @@ public class RegistrationConcurrencyTest {
     @Autowired
     private RegistrationRepository registrationRepository;
 
+    @Autowired
+    private RegistrationAttemptService registrationAttemptService;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private EventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     private Event testEvent;
     private List<User> testUsers;
 
@@ -119,6 +139,9 @@ public class RegistrationConcurrencyTest {
                     // Try to register
                     registrationService.registerForEvent(testEvent.getId(), userEmail);
                     successCount.incrementAndGet();
+                } catch (EventNotAvailableException e) {
+                    failCount.incrementAndGet();
+                    errors.add(userEmail + ": " + e.getReason());
                 } catch (Exception e) {
                     failCount.incrementAndGet();
                     errors.add(userEmail + ": " + e.getMessage());
@@ -184,7 +207,7 @@ public class RegistrationConcurrencyTest {
         Registration reg = registrationService.registerForEvent(testEvent.getId(), userEmail);
 
         // Cancel it
-        registrationService.cancelRegistration(reg.getId(), userEmail);
+        registrationService.cancelRegistration(reg.getId(), testUsers.get(0).getId());
 
         // Now try to re-register concurrently (2 threads with same user)
         ExecutorService executor = Executors.newFixedThreadPool(2);
@@ -220,4 +243,220 @@ public class RegistrationConcurrencyTest {
         assertEquals(1, confirmedCount, 
             "Should have exactly 1 confirmed registration");
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldKeepConfirmedCountExactUnderHundredsOfConcurrentRegistrants() throws InterruptedException {
+        // Arrange — a bigger event and a crowd several times its size
+        int capacity = 50;
+        int registrants = 300;
+        testEvent.setCapacity(capacity);
+        testEvent = eventRepository.save(testEvent);
+
+        List<User> crowd = crowd(registrants);
+
+        // Act
+        CrowdResult result = registerCrowd(registrationService, testEvent.getId(), crowd);
+
+        // Assert
+        System.out.println("  " + registrants + " registrants, capacity " + capacity
+                + ": " + result.confirmed().size() + " confirmed in " + result.elapsedMs() + " ms");
+
+        assertCrowdSettled(result, testEvent.getId(), capacity, registrants);
+    }
+
+    @Test
+    void shouldAdmitExactlyCapacityThroughLanesFasterThanTheDirectPath() throws InterruptedException {
+        // Arrange — two identical events, one per path, and the same crowd for both
+        int capacity = 150;
+        int registrants = 300;
+        testEvent.setCapacity(capacity);
+        testEvent = eventRepository.save(testEvent);
+        Event laneEvent = new Event();
+        laneEvent.setTitle("Lane Concurrency Test Event");
+        laneEvent.setDescription("Testing concurrent registrations through lanes");
+        laneEvent.setLocation("Test Venue");
+        laneEvent.setStartDate(testEvent.getStartDate());
+        laneEvent.setEndDate(testEvent.getEndDate());
+        laneEvent.setCapacity(capacity);
+        laneEvent.setStatus(EventStatus.PUBLISHED);
+        laneEvent.setOrganizer(testEvent.getOrganizer());
+        laneEvent = eventRepository.save(laneEvent);
+        List<User> crowd = crowd(registrants);
+
+        RegistrationLaneEngine laneEngine = new RegistrationLaneEngine(true, 4, 64, 5000, 10000);
+        RegistrationService laneService = new RegistrationService(registrationRepository, eventRepository,
+                userCache, eventPublisher, laneEngine, waitlistService, transactionManager);
+
+        // Act — lanes first, so the direct path gets the warmed-up JVM
+        CrowdResult lanes;
+        try {
+            lanes = registerCrowd(laneService, laneEvent.getId(), crowd);
+        } finally {
+            laneEngine.shutdown();
+        }
+        CrowdResult direct = registerCrowd(registrationService, testEvent.getId(), crowd);
+
+        // Assert
+        System.out.println("  " + registrants + " registrants, capacity " + capacity
+                + ": lanes " + lanes.elapsedMs() + " ms, direct " + direct.elapsedMs() + " ms");
+
+        assertCrowdSettled(lanes, laneEvent.getId(), capacity, registrants);
+        assertCrowdSettled(direct, testEvent.getId(), capacity, registrants);
+
+        // Each caller got its own registration back, not a batch neighbour's
+        for (Map.Entry<User, Registration> outcome : lanes.confirmed().entrySet()) {
+            assertEquals(outcome.getKey().getId(), outcome.getValue().getUser().getId(),
+                "Lane returned another caller's registration");
+            assertTrue(registrationService.isUserRegistered(laneEvent.getId(), outcome.getKey().getId()));
+        }
+
+        assertTrue(lanes.elapsedMs() < direct.elapsedMs(),
+            "Lanes (" + lanes.elapsedMs() + " ms) should beat the direct path (" + direct.elapsedMs() + " ms)");
+    }
+
+    private record CrowdResult(Map<User, Registration> confirmed, int full, List<String> unexpected,
+                               boolean completed, long elapsedMs) {
+    }
+
+    private List<User> crowd(int registrants) {
+        List<User> crowd = new ArrayList<>();
+        for (int i = 0; i < registrants; i++) {
+            final int index = i;
+            crowd.add(userRepository.findByEmail("crowd-user-" + index + "@test.com")
+                    .orElseGet(() -> {
+                        User u = new User();
+                        u.setEmail("crowd-user-" + index + "@test.com");
+                        u.setPassword("$2a$10$dummyhashfortest");
+                        u.setName("Crowd User " + index);
+                        u.setRole(Role.USER);
+                        return userRepository.save(u);
+                    }));
+        }
+        return crowd;
+    }
+
+    private CrowdResult registerCrowd(RegistrationService service, Long eventId, List<User> crowd)
+            throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch doneLatch = new CountDownLatch(crowd.size());
+        Map<User, Registration> confirmed = new ConcurrentHashMap<>();
+        AtomicInteger fullCount = new AtomicInteger(0);
+        List<String> unexpected = new CopyOnWriteArrayList<>();
+
+        for (User user : crowd) {
+            executor.submit(() -> {
+                try {
+                    startLatch.await();
+                    confirmed.put(user, service.registerForEvent(eventId, user.getEmail()));
+                } catch (EventNotAvailableException e) {
+                    fullCount.incrementAndGet();
+                } catch (Exception e) {
+                    unexpected.add(user.getEmail() + ": " + e.getMessage());
+                } finally {
+                    doneLatch.countDown();
+                }
+            });
+        }
+
+        long started = System.nanoTime();
+        startLatch.countDown();
+        boolean completed = doneLatch.await(120, TimeUnit.SECONDS);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        executor.shutdown();
+        return new CrowdResult(confirmed, fullCount.get(), unexpected, completed, elapsedMs);
+    }
+
+    private void assertCrowdSettled(CrowdResult result, Long eventId, int capacity, int registrants) {
+        assertTrue(result.completed(), "Test timed out — possible deadlock!");
+        assertTrue(result.unexpected().isEmpty(), "Unexpected failures: " + result.unexpected());
+
+        long confirmedRows = registrationRepository.countByEventIdAndStatus(
+            eventId, RegistrationStatus.CONFIRMED
+        );
+        int counter = eventRepository.findConfirmedCountById(eventId).orElseThrow();
+
+        assertEquals(capacity, result.confirmed().size(), "Every seat should be taken exactly once");
+        assertEquals(registrants - capacity, result.full(), "Everyone else should be told the event is full");
+        assertEquals(capacity, confirmedRows, "OVERBOOKING DETECTED in registrations table");
+        assertEquals(confirmedRows, counter, "events.confirmed_count drifted from the registrations table");
+    }
+
+    @Test
+    void shouldReleaseSeatOnCancellation() {
+        // Fill the event
+        List<Registration> registrations = new ArrayList<>();
+        for (int i = 0; i < EVENT_CAPACITY; i++) {
+            registrations.add(registrationService.registerForEvent(
+                testEvent.getId(), testUsers.get(i).getEmail()));
+        }
+        assertEquals(EVENT_CAPACITY, registrationService.getEventRegistrationCount(testEvent.getId()));
+
+        // Cancelling one frees exactly one seat
+        Registration first = registrations.get(0);
+        registrationService.cancelRegistration(first.getId(), testUsers.get(0).getId());
+        assertEquals(EVENT_CAPACITY - 1, registrationService.getEventRegistrationCount(testEvent.getId()));
+
+        // ...which the next user can take
+        registrationService.registerForEvent(testEvent.getId(), testUsers.get(EVENT_CAPACITY).getEmail());
+        assertEquals(EVENT_CAPACITY, registrationService.getEventRegistrationCount(testEvent.getId()));
+        assertThrows(EventNotAvailableException.class, () ->
+            registrationService.registerForEvent(testEvent.getId(), testUsers.get(EVENT_CAPACITY + 1).getEmail()));
+    }
+
+    @Test
+    void shouldSettleQueuedAttemptsInArrivalOrder() {
+        testEvent.setRegistrationMode(RegistrationMode.QUEUED);
+        testEvent = eventRepository.save(testEvent);
+
+        // Accept every attempt up front, in a known order
+        List<RegistrationAttempt> attempts = new ArrayList<>();
+        for (User user : testUsers) {
+            attempts.add(registrationAttemptService.submit(testEvent.getId(), user.getId()));
+        }
+        assertTrue(attempts.stream().allMatch(a -> a.getStatus() == RegistrationAttemptStatus.PENDING));
+
+        // A retry while pending returns the same attempt
+        assertEquals(attempts.get(0).getAttemptId(),
+            registrationAttemptService.submit(testEvent.getId(), testUsers.get(0).getId()).getAttemptId());
+
+        registrationAttemptService.processPendingAttempts();
+
+        // The first EVENT_CAPACITY arrivals get the seats, the rest are rejected
+        for (int i = 0; i < TOTAL_USERS; i++) {
+            RegistrationAttempt settled = registrationAttemptService.getAttempt(
+                attempts.get(i).getAttemptId(), testUsers.get(i).getId());
+            RegistrationAttemptStatus expected = i < EVENT_CAPACITY
+                ? RegistrationAttemptStatus.CONFIRMED
+                : RegistrationAttemptStatus.REJECTED;
+            assertEquals(expected, settled.getStatus(), "Attempt " + i + " settled out of arrival order");
+        }
+        assertEquals(EVENT_CAPACITY, registrationService.getEventRegistrationCount(testEvent.getId()));
+    }
+
+    @Test
+    void shouldPromoteWaitlistInOrderWhenSeatsFreeUp() {
+        // Fill the event, then queue three more users
+        List<Registration> confirmed = new ArrayList<>();
+        for (int i = 0; i < EVENT_CAPACITY; i++) {
+            confirmed.add(registrationService.registerForEvent(testEvent.getId(), testUsers.get(i).getEmail()));
+        }
+        for (int i = EVENT_CAPACITY; i < EVENT_CAPACITY + 3; i++) {
+            waitlistService.joinWaitlist(testEvent.getId(), testUsers.get(i).getEmail());
+        }
+
+        WaitlistService.WaitlistPosition third = waitlistService.getWaitlistPosition(
+            testEvent.getId(), testUsers.get(EVENT_CAPACITY + 2).getId());
+        assertEquals(3, third.position());
+        assertEquals(3, third.waitlistSize());
+
+        // A cancellation hands its seat to the head of the waitlist
+        registrationService.cancelRegistration(confirmed.get(0).getId(), testUsers.get(0).getId());
+        assertEquals(EVENT_CAPACITY, registrationService.getEventRegistrationCount(testEvent.getId()));
+        assertTrue(registrationService.isUserRegistered(testEvent.getId(), testUsers.get(EVENT_CAPACITY).getId()));
+        assertEquals(2, waitlistService.getWaitlistPosition(
+            testEvent.getId(), testUsers.get(EVENT_CAPACITY + 2).getId()).position());
+        assertThrows(EventNotAvailableException.class, () ->
+            registrationService.registerForEvent(testEvent.getId(), testUsers.get(TOTAL_USERS - 1).getEmail()));
+    }
+}
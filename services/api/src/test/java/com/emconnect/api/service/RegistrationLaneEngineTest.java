@@ -0,0 +1,110 @@
+package com.emconnect.api.service;
+
+import com.emconnect.api.entity.Registration;
+import com.emconnect.api.exception.DuplicateRegistrationException;
+import com.emconnect.api.exception.ServiceBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Lane timeouts: a caller still queued gives up with 503, while a caller already
+ * taken into a batch waits for that batch instead of being told to retry.
+ */
+public class RegistrationLaneEngineTest {
+
+    private static final long TIMEOUT_MS = 100;
+
+    private final List<String> processed = new CopyOnWriteArrayList<>();
+    private RegistrationLaneEngine engine;
+
+    @AfterEach
+    void tearDown() {
+        if (engine != null) {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    void callerInASlowBatchGetsTheBatchOutcome() {
+        engine = engine(64);
+        engine.setBatchProcessor((eventId, batch) -> {
+            sleep(3 * TIMEOUT_MS);
+            settle(batch);
+        });
+
+        Registration registration = engine.submit(1L, "slow@test.com");
+
+        assertNotNull(registration, "a request already in a batch must not be answered with 503");
+        assertEquals(List.of("slow@test.com"), processed);
+    }
+
+    @Test
+    void callerStillQueuedAtTheTimeoutIsNeverRegistered() throws Exception {
+        engine = engine(1);
+        CountDownLatch taken = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        engine.setBatchProcessor((eventId, batch) -> {
+            if (batch.get(0).userEmail().equals("first@test.com")) {
+                taken.countDown();
+                await(release);
+            }
+            settle(batch);
+        });
+
+        // Occupies the lane's only worker until released
+        CompletableFuture<Registration> first = CompletableFuture.supplyAsync(
+                () -> engine.submit(1L, "first@test.com"));
+        assertTrue(taken.await(5, TimeUnit.SECONDS));
+
+        assertThrows(ServiceBusyException.class, () -> engine.submit(1L, "queued@test.com"));
+
+        release.countDown();
+        assertNotNull(first.get(5, TimeUnit.SECONDS));
+        assertNotNull(engine.submit(1L, "later@test.com"));
+        assertEquals(List.of("first@test.com", "later@test.com"), processed);
+    }
+
+    @Test
+    void businessFailureIsRethrownOnTheCallersThread() {
+        engine = engine(64);
+        engine.setBatchProcessor((eventId, batch) -> batch.forEach(request -> request.result()
+                .completeExceptionally(new DuplicateRegistrationException("You are already registered for this event"))));
+
+        assertThrows(DuplicateRegistrationException.class, () -> engine.submit(1L, "dup@test.com"));
+    }
+
+    private RegistrationLaneEngine engine(int batchSize) {
+        return new RegistrationLaneEngine(true, 1, batchSize, 100, TIMEOUT_MS);
+    }
+
+    private void settle(List<RegistrationLaneEngine.LaneRequest> batch) {
+        for (RegistrationLaneEngine.LaneRequest request : batch) {
+            processed.add(request.userEmail());
+            request.result().complete(new Registration());
+        }
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
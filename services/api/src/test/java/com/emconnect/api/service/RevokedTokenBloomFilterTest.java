@@ -0,0 +1,36 @@
+package com.emconnect.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The bloom filter in front of the revoked access token set.
+ */
+public class RevokedTokenBloomFilterTest {
+
+    @Test
+    void neverMissesAddedTokensAndRarelyMatchesOthers() {
+        RevokedTokenRegistry.BloomFilter filter = new RevokedTokenRegistry.BloomFilter(10_000);
+
+        String[] revoked = new String[10_000];
+        for (int i = 0; i < revoked.length; i++) {
+            revoked[i] = UUID.randomUUID().toString();
+            filter.add(revoked[i]);
+        }
+        for (String jti : revoked) {
+            assertTrue(filter.mightContain(jti));
+        }
+
+        // Sized for ~1% false positives at the expected count
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, falsePositives + " false positives");
+    }
+}
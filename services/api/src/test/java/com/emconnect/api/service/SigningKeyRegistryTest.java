@@ -0,0 +1,105 @@
+package com.emconnect.api.service;
+
+import com.emconnect.api.entity.JwtSigningKey;
+import com.emconnect.api.repository.JwtSigningKeyRepository;
+import com.emconnect.api.scheduling.Lease;
+import com.emconnect.api.scheduling.LeaseManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Signing key creation, pre-publication and rotation against an in-memory key table.
+ */
+public class SigningKeyRegistryTest {
+
+    private final List<JwtSigningKey> rows = new ArrayList<>();
+    private JwtSigningKeyRepository repository;
+    private LeaseManager leaseManager;
+
+    @BeforeEach
+    void setUp() {
+        // Only the two repository methods the registry uses on these paths
+        repository = (JwtSigningKeyRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{JwtSigningKeyRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "save" -> {
+                        rows.add((JwtSigningKey) args[0]);
+                        yield args[0];
+                    }
+                    case "findAllByOrderByActivatesAtAsc" -> rows.stream()
+                            .sorted(Comparator.comparing(JwtSigningKey::getActivatesAt))
+                            .toList();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+
+        // Run exclusive jobs inline
+        leaseManager = new LeaseManager(null, null) {
+            @Override
+            public boolean runExclusively(String name, Duration lockAtMostFor, Duration lockAtLeastFor,
+                                          Consumer<Lease> task) {
+                task.accept(null);
+                return true;
+            }
+        };
+    }
+
+    @Test
+    void createsAnActiveKeyOnFirstStart() {
+        SigningKeyRegistry registry = new SigningKeyRegistry(repository, leaseManager, "secret", 900000, 30, 15);
+        registry.load();
+
+        assertEquals(1, rows.size());
+        SigningKeyRegistry.SigningKey current = registry.current();
+        assertEquals(current.publicKey(), registry.publicKey(current.kid()));
+        assertNull(registry.publicKey("unknown-kid"));
+    }
+
+    @Test
+    void publishesTheNextKeyBeforeItSigns() {
+        // Rotation period zero: the current key is due for replacement straight away
+        SigningKeyRegistry registry = new SigningKeyRegistry(repository, leaseManager, "secret", 900000, 0, 15);
+        registry.load();
+        String first = registry.current().kid();
+
+        registry.rotate();
+
+        assertEquals(2, rows.size());
+        assertEquals(first, registry.current().kid());
+        assertEquals(2, registry.published().size());
+    }
+
+    @Test
+    void keepsPublishingTheReplacedKeyWhileItsTokensLive() {
+        // No publish-ahead: the next key signs as soon as it is created
+        SigningKeyRegistry registry = new SigningKeyRegistry(repository, leaseManager, "secret", 900000, 0, 0);
+        registry.load();
+        String first = registry.current().kid();
+
+        registry.rotate();
+
+        assertNotEquals(first, registry.current().kid());
+        assertTrue(registry.published().stream().anyMatch(key -> key.kid().equals(first)));
+        assertNotNull(registry.publicKey(first));
+    }
+
+    @Test
+    void keysEncryptedWithAnotherSecretAreSkipped() {
+        new SigningKeyRegistry(repository, leaseManager, "old-secret", 900000, 30, 15).load();
+
+        SigningKeyRegistry registry = new SigningKeyRegistry(repository, leaseManager, "new-secret", 900000, 30, 15);
+        registry.load();
+
+        // The unreadable key is ignored and a new one is created
+        assertEquals(2, rows.size());
+        assertEquals(1, registry.published().size());
+    }
+}
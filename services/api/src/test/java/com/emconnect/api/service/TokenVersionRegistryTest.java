@@ -0,0 +1,111 @@
+package com.emconnect.api.service;
+
+import com.emconnect.api.entity.User;
+import com.emconnect.api.repository.UserRepository;
+import com.emconnect.api.repository.UserRepository.TokenVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Token version bumps reject older tokens, and are forgotten once every token
+ * issued before them has expired.
+ */
+public class TokenVersionRegistryTest {
+
+    private static final long JWT_EXPIRATION_MS = 900_000;
+
+    private final List<TokenVersion> bumped = new ArrayList<>();
+    private final List<LocalDateTime> polledSince = new ArrayList<>();
+    private TokenVersionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        // Only the poll the registry uses
+        UserRepository repository = (UserRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findBumpedTokenVersionsSince" -> {
+                        polledSince.add((LocalDateTime) args[0]);
+                        yield List.copyOf(bumped);
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        registry = new TokenVersionRegistry(repository, JWT_EXPIRATION_MS);
+    }
+
+    @Test
+    void startupOnlyLoadsBumpsWhoseOldTokensMayStillBeLive() {
+        bumped.add(version(7L, 2));
+
+        LocalDateTime before = LocalDateTime.now();
+        registry.load();
+
+        // Look back one token lifetime plus the poll overlap, not over the whole table
+        LocalDateTime since = polledSince.get(0);
+        assertFalse(since.isAfter(before.minusSeconds(900)));
+        assertTrue(since.isAfter(before.minusSeconds(900 + 60)));
+        assertFalse(registry.isCurrent(7L, 1));
+        assertTrue(registry.isCurrent(7L, 2));
+    }
+
+    @Test
+    void localBumpRejectsOlderTokens() {
+        registry.load();
+        User user = new User("ada@example.com", "hash", "Ada");
+        user.setId(7L);
+
+        registry.revokeTokens(user);
+
+        assertFalse(registry.isCurrent(7L, 0));
+        assertTrue(registry.isCurrent(7L, user.getTokenVersion()));
+        assertTrue(registry.isCurrent(8L, 0));
+    }
+
+    @Test
+    void bumpsArePrunedOnceOlderTokensHaveExpired() {
+        bumped.add(version(7L, 3));
+        registry.load();
+        long now = System.currentTimeMillis();
+
+        registry.prune(now + JWT_EXPIRATION_MS);
+        assertFalse(registry.isCurrent(7L, 2), "a token from before the bump may still be live");
+
+        registry.prune(now + JWT_EXPIRATION_MS + 31_000);
+        assertTrue(registry.isCurrent(7L, 2), "the entry is gone once such tokens have expired");
+    }
+
+    @Test
+    void aNewerBumpKeepsTheEntryLonger() throws Exception {
+        bumped.add(version(7L, 1));
+        registry.load();
+        long firstSeen = System.currentTimeMillis();
+        Thread.sleep(20);
+
+        bumped.set(0, version(7L, 2));
+        registry.refresh();
+        registry.prune(firstSeen + JWT_EXPIRATION_MS + 30_000 + 10);
+
+        assertFalse(registry.isCurrent(7L, 1));
+    }
+
+    private static TokenVersion version(Long id, int tokenVersion) {
+        return new TokenVersion() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Integer getTokenVersion() {
+                return tokenVersion;
+            }
+        };
+    }
+}
@@ -0,0 +1,146 @@
+package com.emconnect.api.service;
+
+import com.emconnect.api.entity.User;
+import com.emconnect.api.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * User cache lookups, local and broadcast invalidation, and loads racing with an eviction.
+ */
+public class UserCacheTest {
+
+    private final List<Object> broadcasts = new ArrayList<>();
+    private User row;
+    private int queries;
+    private Runnable duringQuery;
+    private Function<Object, User> rows;
+    private UserRepository repository;
+    private RabbitTemplate rabbitTemplate;
+
+    @BeforeEach
+    void setUp() {
+        row = new User("ada@example.com", "hash", "Ada");
+        row.setId(7L);
+        duringQuery = () -> { };
+        rows = key -> row;
+
+        // Only the two lookups the cache uses
+        repository = (UserRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findById", "findByEmail" -> {
+                        queries++;
+                        duringQuery.run();
+                        yield Optional.of(rows.apply(args[0]));
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+
+        rabbitTemplate = new RabbitTemplate() {
+            @Override
+            public void convertAndSend(String exchange, String routingKey, Object message) {
+                broadcasts.add(message);
+            }
+        };
+    }
+
+    private UserCache cache(long ttlSeconds) {
+        return cache(ttlSeconds, 100);
+    }
+
+    private UserCache cache(long ttlSeconds, int maxEntries) {
+        return new UserCache(repository, rabbitTemplate, new SimpleMeterRegistry(), ttlSeconds, maxEntries);
+    }
+
+    @Test
+    void servesRepeatLookupsByIdAndEmailFromMemory() {
+        UserCache cache = cache(300);
+
+        assertEquals("Ada", cache.findById(7L).orElseThrow().getName());
+        assertEquals("Ada", cache.findByEmail("ada@example.com").orElseThrow().getName());
+        assertEquals("Ada", cache.findById(7L).orElseThrow().getName());
+
+        assertEquals(1, queries);
+    }
+
+    @Test
+    void evictDropsTheUserAndBroadcasts() {
+        UserCache cache = cache(300);
+        cache.findByEmail("ada@example.com");
+
+        cache.evict(row);
+        cache.findById(7L);
+
+        assertEquals(2, queries);
+        assertEquals(List.of(new UserCache.Invalidation(7L, "ada@example.com")), broadcasts);
+    }
+
+    @Test
+    void invalidationFromAnotherInstanceDropsTheUser() {
+        UserCache cache = cache(300);
+        cache.findById(7L);
+
+        cache.onInvalidation(new UserCache.Invalidation(7L, "ada@example.com"));
+        cache.findByEmail("ada@example.com");
+
+        assertEquals(2, queries);
+        assertTrue(broadcasts.isEmpty());
+    }
+
+    @Test
+    void expiredEntriesAreReloaded() {
+        UserCache cache = cache(0);
+
+        cache.findById(7L);
+        cache.findById(7L);
+
+        assertEquals(2, queries);
+    }
+
+    @Test
+    void fullCacheEvictsTheOldestEntryOnly() throws Exception {
+        rows = key -> {
+            User user = new User("user" + key + "@example.com", "hash", "User " + key);
+            user.setId((Long) key);
+            return user;
+        };
+        UserCache cache = cache(300, 3);
+        for (long id = 1; id <= 3; id++) {
+            cache.findById(id);
+            Thread.sleep(5);
+        }
+
+        cache.findById(4L);
+        cache.findById(2L);
+        cache.findById(3L);
+        cache.findById(4L);
+        assertEquals(4, queries, "live entries survive the overflow");
+
+        cache.findById(1L);
+        assertEquals(5, queries, "only the oldest entry was evicted");
+    }
+
+    @Test
+    void loadRacingWithAnEvictionIsNotCached() {
+        UserCache cache = cache(300);
+        duringQuery = () -> cache.onInvalidation(new UserCache.Invalidation(7L, "ada@example.com"));
+
+        cache.findById(7L);
+        duringQuery = () -> { };
+        cache.findById(7L);
+        cache.findById(7L);
+
+        assertEquals(2, queries);
+    }
+}
@@ -185,7 +185,7 @@ type EventReminderEvent struct {
 	EventLocation  string        `json:"eventLocation"`
 	EventStartDate LocalDateTime `json:"eventStartDate"`
 	TicketCode     string        `json:"ticketCode"`
-	ReminderType   string        `json:"reminderType"` // "24H" or "1H"
+	ReminderType   string        `json:"reminderType"` // offset label, e.g. "24H", "1H", "30M"
 }
 
 // UserRegisteredEvent is published when a new user signs up